@@ -28,6 +28,11 @@ public interface Angular2Module extends Angular2Entity {
   @NotNull
   Set<Angular2Declaration> getAllExportedDeclarations();
 
+  /**
+   * @return cache dependencies of {@link #getExports()}
+   */
+  Object @NotNull [] getExportsDependencies();
+
   default @NotNull Set<Angular2Declaration> getDeclarationsInScope() {
     Set<Angular2Declaration> result = new HashSet<>(getDeclarations());
     for (Angular2Module imported : getImports()) {
@@ -7,16 +7,12 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider.Result;
 import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.Stack;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Supplier;
 
 import static org.angular2.Angular2DecoratorUtil.*;
@@ -76,10 +72,20 @@ public class Angular2ModuleResolver<T extends PsiElement> {
     return getResolvedModuleList(DECLARATIONS_KEY, Angular2Declaration.class).isFullyResolved;
   }
 
+  public Object @NotNull [] getExportsDependencies() {
+    return getResolvedModuleList(EXPORTS_KEY, Angular2Entity.class).dependencies;
+  }
+
+  /**
+   * The closure depends only on the exports lists of the modules it was built from,
+   * so changes elsewhere in the project, or in modules which are not re-exported, don't invalidate it.
+   */
   public @NotNull Set<Angular2Declaration> getAllExportedDeclarations() {
     final T source = mySourceSupplier.get();
     return CachedValuesManager.getCachedValue(source, () -> {
       Set<Angular2Declaration> result = new HashSet<>();
+      Set<Object> dependencies = new LinkedHashSet<>();
+      dependencies.add(source);
       Angular2Module module = source instanceof Angular2Module
                               ? (Angular2Module)source
                               : Angular2EntitiesProvider.getModule(source);
@@ -89,6 +95,7 @@ public class Angular2ModuleResolver<T extends PsiElement> {
         while (!moduleQueue.empty()) {
           Angular2Module current = moduleQueue.pop();
           if (processedModules.add(current)) {
+            Collections.addAll(dependencies, current.getExportsDependencies());
             for (Angular2Entity export : current.getExports()) {
               if (export instanceof Angular2Module) {
                 moduleQueue.push((Angular2Module)export);
@@ -104,7 +111,7 @@ public class Angular2ModuleResolver<T extends PsiElement> {
           }
         }
       }
-      return Result.create(result, PsiModificationTracker.MODIFICATION_COUNT);
+      return Result.create(result, dependencies);
     });
   }
 
@@ -127,22 +134,25 @@ public class Angular2ModuleResolver<T extends PsiElement> {
   public static final class ResolvedEntitiesList<T extends Angular2Entity> {
     final Set<T> entities;
     final boolean isFullyResolved;
+    final Object[] dependencies;
 
-    private ResolvedEntitiesList(@NotNull Set<T> entities, boolean isFullyResolved) {
+    private ResolvedEntitiesList(@NotNull Set<T> entities, boolean isFullyResolved, Object @NotNull [] dependencies) {
       this.entities = Collections.unmodifiableSet(entities);
       this.isFullyResolved = isFullyResolved;
+      this.dependencies = dependencies;
     }
 
     public static <T extends Angular2Entity> Result<ResolvedEntitiesList<T>> createResult(@NotNull Set<T> entities,
                                                                                           boolean isFullyResolved,
                                                                                           @NotNull Object dependency) {
-      return Result.createSingleDependency(new ResolvedEntitiesList<>(entities, isFullyResolved), dependency);
+      return Result.createSingleDependency(new ResolvedEntitiesList<>(entities, isFullyResolved, new Object[]{dependency}), dependency);
     }
 
     public static <T extends Angular2Entity> Result<ResolvedEntitiesList<T>> createResult(@NotNull Set<T> entities,
                                                                                           boolean isFullyResolved,
                                                                                           @NotNull Collection<?> dependencies) {
-      return Result.create(new ResolvedEntitiesList<>(entities, isFullyResolved), dependencies);
+      Object[] dependenciesArray = dependencies.toArray();
+      return Result.create(new ResolvedEntitiesList<>(entities, isFullyResolved, dependenciesArray), dependenciesArray);
     }
   }
 }
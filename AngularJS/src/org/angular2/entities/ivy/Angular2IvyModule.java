@@ -48,6 +48,11 @@ public class Angular2IvyModule extends Angular2IvyEntity<Angular2IvySymbolDef.Mo
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public Object @NotNull [] getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
@@ -46,6 +46,11 @@ public class Angular2MetadataModule extends Angular2MetadataEntity<Angular2Metad
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public Object @NotNull [] getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
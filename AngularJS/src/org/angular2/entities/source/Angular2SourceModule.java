@@ -59,6 +59,11 @@ public class Angular2SourceModule extends Angular2SourceEntity implements Angula
     return myModuleResolver.getAllExportedDeclarations();
   }
 
+  @Override
+  public Object @NotNull [] getExportsDependencies() {
+    return myModuleResolver.getExportsDependencies();
+  }
+
   @Override
   public boolean isScopeFullyResolved() {
     return myModuleResolver.isScopeFullyResolved();
@@ -17,6 +17,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectRootModificationTracker;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.text.StringUtil;
@@ -239,7 +240,18 @@ public class AngularIndexUtil {
                   : !fileIndex.processValues(id, key, null, (file, value) -> false, scope))
         .sorted()
         .toList();
-      return Result.create(filteredKeys, PsiManager.getInstance(project).getModificationTracker());
+      return Result.create(filteredKeys, getIndexModificationTracker(id, project), ProjectRootModificationTracker.getInstance(project));
+    }
+
+    /**
+     * Key set changes only together with the index itself, so unlike PSI modification count this tracker
+     * is not advanced by typing in files which don't contribute to the index.
+     */
+    private static @NotNull ModificationTracker getIndexModificationTracker(final @NotNull ID<String, ?> id, final @NotNull Project project) {
+      if (id instanceof StubIndexKey) {
+        return StubIndex.getInstance().getStubIndexModificationTracker(project);
+      }
+      return () -> FileBasedIndex.getInstance().getIndexModificationStamp(id, project);
     }
   }
 }
@@ -0,0 +1,59 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.UI.config;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.SmartList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Server mappings precomputed into a table from a dot-separated logical path prefix to mapped directories.
+ * {@link #mapVirtualToReal(String)} gives the same result as {@link CfmlMappingsConfig#mapVirtualToReal(String)}
+ * but costs a lookup per path segment instead of tokenizing every mapping.
+ *
+ * @see CfmlProjectConfiguration#getMappingsTable()
+ */
+public final class CfmlMappingsTable {
+  private final Map<String, List<String>> myPrefixToDirectories = new HashMap<>();
+
+  CfmlMappingsTable(@NotNull Map<String, String> serverMappings) {
+    for (Map.Entry<String, String> entry : serverMappings.entrySet()) {
+      List<String> tokens = new ArrayList<>();
+      StringTokenizer st = new StringTokenizer(entry.getKey(), "\\/");
+      while (st.hasMoreTokens()) {
+        tokens.add(st.nextToken());
+      }
+      myPrefixToDirectories.computeIfAbsent(StringUtil.join(tokens, "."), k -> new SmartList<>()).add(entry.getValue());
+    }
+  }
+
+  public boolean isEmpty() {
+    return myPrefixToDirectories.isEmpty();
+  }
+
+  @NotNull
+  public List<String> mapVirtualToReal(@NotNull String virtualPath) {
+    List<String> tokens = new ArrayList<>();
+    StringTokenizer st = new StringTokenizer(virtualPath, ".");
+    while (st.hasMoreTokens()) {
+      tokens.add(st.nextToken());
+    }
+
+    List<String> result = new SmartList<>();
+    for (int prefixLength = 0; prefixLength <= tokens.size(); prefixLength++) {
+      List<String> directories = myPrefixToDirectories.get(StringUtil.join(tokens.subList(0, prefixLength), "."));
+      if (directories == null) continue;
+
+      StringBuilder suffix = new StringBuilder();
+      for (String token : tokens.subList(prefixLength, tokens.size())) {
+        suffix.append(File.separatorChar).append(token);
+      }
+      for (String directory : directories) {
+        result.add(directory + suffix);
+      }
+    }
+    return result;
+  }
+}
@@ -21,26 +21,58 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.JDOMUtil;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.xmlb.annotations.Property;
 import com.intellij.util.xmlb.annotations.Tag;
 import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author vnikolaenko
  */
 @State(name = "CfmlProjectConfiguration", storages = @Storage("cfml.xml"))
-public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlProjectConfiguration.State> {
+public class CfmlProjectConfiguration extends SimpleModificationTracker implements PersistentStateComponent<CfmlProjectConfiguration.State> {
+  private final Project myProject;
   private State myState = new State();
 
+  public CfmlProjectConfiguration(@NotNull Project project) {
+    myProject = project;
+  }
+
   public static CfmlProjectConfiguration getInstance(Project project) {
     return ServiceManager.getService(project, CfmlProjectConfiguration.class);
   }
 
+  /**
+   * Returns the server mappings indexed by logical path prefix. When no mappings are configured, project content roots
+   * are mapped to the empty logical path. The table is cached until the configuration or project roots change.
+   */
+  @NotNull
+  public CfmlMappingsTable getMappingsTable() {
+    return CachedValuesManager.getManager(myProject).getCachedValue(myProject, () -> {
+      CfmlMappingsConfig mappings = myState != null ? myState.getMapps() : null;
+      Map<String, String> serverMappings = new HashMap<>(mappings != null ? mappings.getServerMappings() : new HashMap<>());
+      if (serverMappings.isEmpty()) {
+        for (VirtualFile root : ProjectRootManager.getInstance(myProject).getContentRoots()) {
+          serverMappings.put("", root.getPresentableUrl());
+        }
+      }
+      return CachedValueProvider.Result.create(new CfmlMappingsTable(serverMappings), this, ProjectRootManager.getInstance(myProject));
+    });
+  }
+
   @Override
   @Nullable
   public State getState() {
@@ -50,10 +82,14 @@ public class CfmlProjectConfiguration implements PersistentStateComponent<CfmlPr
   @Override
   public void loadState(@NotNull State state) {
     myState = state;
-    if (state == null) {
-      return;
+    if (state != null) {
+      state.migrateIfNeeded();
+    }
+    incModificationCount();
+    if (!myProject.isDefault()) {
+      // component references cache their resolve results, and those depend on the mappings
+      PsiManager.getInstance(myProject).dropResolveCaches();
     }
-    state.migrateIfNeeded();
   }
 
   /*
@@ -37,6 +37,7 @@ import javax.swing.*;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author vnikolaenko
@@ -154,17 +155,17 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
         directoryName = componentQualifiedName.substring(0, i);
       }
 
-      CfmlProjectConfiguration.State state = CfmlProjectConfiguration.getInstance(project).getState();
-      CfmlMappingsConfig mappings = state != null ? state.getMapps().clone() : new CfmlMappingsConfig();
-      adjustMappingsIfEmpty(mappings, originalFile.getProject());
       // addFakeMappingsForResolution(mappings);
-      List<String> realPossiblePaths = mappings.mapVirtualToReal(directoryName);
+      List<String> realPossiblePaths = CfmlProjectConfiguration.getInstance(project).getMappingsTable().mapVirtualToReal(directoryName);
       // Collections.sort(realPossiblePaths);
+      Set<String> realPossibleDirectories = new THashSet<>();
+      for (String realPath : realPossiblePaths) {
+        realPossibleDirectories.add(FileUtil.toSystemIndependentName(realPath));
+      }
 
-      final Collection<CfmlComponent> components = CfmlIndex.getInstance(project).getComponentsByName(
-        componentName);
-      components.addAll(CfmlIndex.getInstance(project).getInterfacesByName(
-        componentName));
+      CfmlIndex index = CfmlIndex.getInstance(project);
+      final Collection<CfmlComponent> components = index.getComponentsByName(componentName);
+      components.addAll(index.getInterfacesByName(componentName));
 
       for (CfmlComponent component : components) {
         PsiDirectory parent = component.getContainingFile().getParent();
@@ -172,11 +173,8 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
           continue;
         }
         VirtualFile virtualFile = parent.getVirtualFile();
-        for (String realPath : realPossiblePaths) {
-          if (FileUtil.toSystemIndependentName(realPath).equals(FileUtil.toSystemIndependentName(virtualFile.getPresentableUrl()))) {
-            result.add(component);
-            break;
-          }
+        if (realPossibleDirectories.contains(FileUtil.toSystemIndependentName(virtualFile.getPresentableUrl()))) {
+          result.add(component);
         }
       }
 
@@ -189,10 +187,8 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
             if (directory != null) {
               GlobalSearchScope searchScope = GlobalSearchScopesCore.directoryScope(directory, false);
 
-              final Collection<CfmlComponent> componentsFromGlobalScope = CfmlIndex.getInstance(project).getComponentsByNameInScope(
-                componentName, searchScope);
-              componentsFromGlobalScope.addAll(CfmlIndex.getInstance(project).getInterfacesByNameInScope(
-                componentName, searchScope));
+              final Collection<CfmlComponent> componentsFromGlobalScope = index.getComponentsByNameInScope(componentName, searchScope);
+              componentsFromGlobalScope.addAll(index.getInterfacesByNameInScope(componentName, searchScope));
 
               result.addAll(componentsFromGlobalScope);
             }
@@ -217,17 +213,17 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
     return result;
   }
 
-  private final ResolveCache.PolyVariantResolver<CfmlComponentReference> MY_RESOLVER =
+  private static final ResolveCache.PolyVariantResolver<CfmlComponentReference> MY_RESOLVER =
     (expression, incompleteCode) -> {
       String componentQualifiedName;
       CfmlImport parentOfType = PsiTreeUtil.getParentOfType(expression, CfmlImport.class);
       if (parentOfType != null) {
-        componentQualifiedName = getText();
+        componentQualifiedName = expression.getText();
       }
       else {
-        componentQualifiedName = getComponentQualifiedName(getText());
+        componentQualifiedName = expression.getComponentQualifiedName(expression.getText());
       }
-      PsiFile containingFile = getContainingFile().getOriginalFile();
+      PsiFile containingFile = expression.getContainingFile().getOriginalFile();
       if (containingFile instanceof CfmlFile) {
         return CfmlResolveResult.create(resolveFromQualifiedName(componentQualifiedName, ((CfmlFile)containingFile)));
       }
@@ -237,14 +233,9 @@ public class CfmlComponentReference extends CfmlCompositeElement implements Cfml
   @Override
   public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
     // incompleteCode = true, when autocompletion is executed,
-    // in this case, containingFile is not physical and there is no way to get parent directory
-    return MY_RESOLVER.resolve(this, incompleteCode);
-    // if(incompleteCode)
-    // return (getManager()).getResolveCache().resolveWithCaching(this, MY_RESOLVER, true, false);
-    /*
-    else
-      return MY_RESOLVER.resolve(this, incompleteCode);
-    */
+    // in this case, containingFile is not physical, but resolve goes through the original file anyway.
+    // Mapping changes drop the cache, see CfmlProjectConfiguration#loadState
+    return ResolveCache.getInstance(getProject()).resolveWithCaching(this, MY_RESOLVER, true, incompleteCode);
   }
 
   private static String getComponentName(@NotNull String componentName) {
@@ -20,6 +20,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author vnikolaenko
@@ -27,21 +28,23 @@ import java.util.*;
 public abstract class CfmlIndex implements Disposable {
   private static final Logger LOG = Logger.getInstance("#com.intellij.coldFusion.model.psi.stubs.CfmlIndex");
   private static final Key<GlobalSearchScope> MY_SCOPE_KEY = Key.create("default.cfml.scope");
-  private static final Map<Project, CfmlIndex> managers = new HashMap<>();
+  private static final Map<Project, CfmlIndex> managers = new ConcurrentHashMap<>();
   private final Project project;
 
   private CfmlIndex(Project project) {
     this.project = project;
   }
 
-  public static synchronized CfmlIndex getInstance(@NotNull Project project) {
+  public static CfmlIndex getInstance(@NotNull Project project) {
     CfmlIndex manager = managers.get(project);
-    if (manager == null) {
-      manager = new CfmlIndexManagerImpl(project);
-      managers.put(project, manager);
-      Disposer.register(project, manager);
+    if (manager != null) {
+      return manager;
     }
-    return manager;
+    return managers.computeIfAbsent(project, p -> {
+      CfmlIndex newManager = new CfmlIndexManagerImpl(p);
+      Disposer.register(p, newManager);
+      return newManager;
+    });
   }
 
   private static final class CfmlIndexManagerImpl extends CfmlIndex {
@@ -2,22 +2,38 @@
 package com.intellij.coldFusion.mxunit;
 
 import com.intellij.coldFusion.UI.editorActions.CfmlScriptNodeSuppressor;
+import com.intellij.coldFusion.model.psi.CfmlComponent;
+import com.intellij.coldFusion.model.psi.stubs.CfmlIndex;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
 import com.intellij.util.ResourceUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.io.HttpRequests;
+import com.intellij.util.io.URLUtil;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public class CfmlUnitRemoteTestsRunner {
   private static final Logger LOG = Logger.getInstance(CfmlUnitRemoteTestsRunner.class.getName());
@@ -87,7 +103,8 @@ public class CfmlUnitRemoteTestsRunner {
     }
   }
 
-  public static void executeScript(final CfmlUnitRunnerParameters params,
+  public static void executeScript(final Project project,
+                                   final CfmlUnitRunnerParameters params,
                                    final ProcessHandler processHandler/*final String webPath,
                                    final String componentFilePath,
                                    final String methodName,
@@ -121,45 +138,25 @@ public class CfmlUnitRemoteTestsRunner {
         }
         String agentPath = webPath.substring(0, webPath.lastIndexOf('/')) + "/" + launcherFileName;
         LOG.debug("Retrieving data from coldfusion server by " + agentPath + " URL");
-        String agentUrl;
-        if (params.getScope() == CfmlUnitRunnerParameters.Scope.Directory) {
-          agentUrl = agentPath + "?method=executeDirectory&directoryName=" + componentFile.getName();
+        Consumer<String> output = text -> processHandler.notifyTextAvailable(text, ProcessOutputTypes.SYSTEM);
+        BooleanSupplier isCancelled = () -> processHandler.isProcessTerminating() || processHandler.isProcessTerminated();
+        if (params.getScope() == CfmlUnitRunnerParameters.Scope.Directory && params.getParallelRequests() > 1) {
+          List<String> componentNames = DumbService.getInstance(project).runReadActionInSmartMode(
+            () -> findTestComponents(project, componentFile));
+          executeComponents(agentPath, componentNames, params.getParallelRequests(), output, isCancelled);
         }
         else {
-          agentUrl = agentPath + "?method=executeTestCase&componentName=" + componentFile.getNameWithoutExtension();
-          if (params.getScope() == CfmlUnitRunnerParameters.Scope.Method) {
-            agentUrl += "&methodName=" + params.getMethod();
+          String agentUrl;
+          if (params.getScope() == CfmlUnitRunnerParameters.Scope.Directory) {
+            agentUrl = agentPath + "?method=executeDirectory&directoryName=" + componentFile.getName();
           }
-        }
-        try {
-          LOG.debug("Retrieving test results from: " + agentUrl);
-          /*
-          final FileObject httpFile = getManager().resolveFile(agentUrl);
-
-          reader = new BufferedReader(new InputStreamReader(httpFile.getContent().getInputStream()));
-          */
-          HttpRequests.request(agentUrl).connect(request -> {
-            BufferedReader reader = request.getReader();
-            String line;
-            while (!processHandler.isProcessTerminating() &&
-                   !processHandler.isProcessTerminated() &&
-                   (line = reader.readLine()) != null) {
-              if (!StringUtil.isEmptyOrSpaces(line)) {
-                LOG.debug("MXUnit: " + line);
-                processHandler.notifyTextAvailable(line + "\n", ProcessOutputTypes.SYSTEM);
-              }
+          else {
+            agentUrl = agentPath + "?method=executeTestCase&componentName=" + componentFile.getNameWithoutExtension();
+            if (params.getScope() == CfmlUnitRunnerParameters.Scope.Method) {
+              agentUrl += "&methodName=" + params.getMethod();
             }
-            return null;
-          });
-        }
-        catch (HttpRequests.HttpStatusException e) {
-          LOG.debug("Http request failed: " + e.getMessage());
-          processHandler.notifyTextAvailable("Http request failed: " + e.getMessage(), ProcessOutputTypes.SYSTEM);
-        }
-        catch (IOException e) {
-          LOG.warn(e);
-          processHandler
-            .notifyTextAvailable("Failed to retrieve test results from the server at " + agentUrl + "\n", ProcessOutputTypes.SYSTEM);
+          }
+          requestResults(agentUrl, output, isCancelled);
         }
         LOG.debug("Cleaning temporary files");
         deleteFile(directory.findChild(launcherFileName));
@@ -176,4 +173,100 @@ public class CfmlUnitRemoteTestsRunner {
       throw ref.get();
     }
   }
+
+  /**
+   * Streams non-empty lines of the launcher response for the given URL to {@code output}, each line terminated with a line break.
+   */
+  static void requestResults(@NotNull String agentUrl, @NotNull Consumer<String> output, @NotNull BooleanSupplier isCancelled) {
+    try {
+      LOG.debug("Retrieving test results from: " + agentUrl);
+      HttpRequests.request(agentUrl).connect(request -> {
+        BufferedReader reader = request.getReader();
+        String line;
+        while (!isCancelled.getAsBoolean() && (line = reader.readLine()) != null) {
+          if (!StringUtil.isEmptyOrSpaces(line)) {
+            LOG.debug("MXUnit: " + line);
+            output.accept(line + "\n");
+          }
+        }
+        return null;
+      });
+    }
+    catch (HttpRequests.HttpStatusException e) {
+      LOG.debug("Http request failed: " + e.getMessage());
+      output.accept("Http request failed: " + e.getMessage());
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+      output.accept("Failed to retrieve test results from the server at " + agentUrl + "\n");
+    }
+  }
+
+  /**
+   * Runs every component with a separate launcher request, keeping at most {@code parallelRequests} requests in flight.
+   * The output of a component is buffered until its request completes and then passed to {@code output} as a whole,
+   * so that suites of different components never interleave in the test tree.
+   */
+  static void executeComponents(@NotNull String agentPath,
+                                @NotNull List<String> componentNames,
+                                int parallelRequests,
+                                @NotNull Consumer<String> output,
+                                @NotNull BooleanSupplier isCancelled) {
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("CFML Unit Tests Runner", parallelRequests);
+    List<Future<?>> futures = new ArrayList<>(componentNames.size());
+    for (String componentName : componentNames) {
+      futures.add(executor.submit(() -> {
+        if (isCancelled.getAsBoolean()) return;
+
+        List<String> lines = new ArrayList<>();
+        requestResults(agentPath + "?method=executeTestCase&componentName=" + URLUtil.encodeURIComponent(componentName),
+                       lines::add, isCancelled);
+        synchronized (output) {
+          for (String line : lines) {
+            output.accept(line);
+          }
+        }
+      }));
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      catch (java.util.concurrent.ExecutionException e) {
+        LOG.error(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Finds test components (the ones whose names start or end with "test", as accepted by the launcher) under the directory
+   * and returns their names qualified relative to the directory parent, where the launcher is placed.
+   */
+  @NotNull
+  static List<String> findTestComponents(@NotNull Project project, @NotNull VirtualFile directory) {
+    VirtualFile launcherDirectory = directory.getParent();
+    if (launcherDirectory == null) return Collections.emptyList();
+
+    CfmlIndex index = CfmlIndex.getInstance(project);
+    GlobalSearchScope scope = GlobalSearchScopesCore.directoryScope(project, directory, true);
+    Set<String> result = new TreeSet<>();
+    for (String name : index.getAllComponentsNames()) {
+      String lowerCaseName = StringUtil.toLowerCase(name);
+      if (!lowerCaseName.startsWith("test") && !lowerCaseName.endsWith("test")) continue;
+
+      for (CfmlComponent component : index.getComponentsByNameInScope(name, scope)) {
+        VirtualFile file = component.getContainingFile().getVirtualFile();
+        String relativePath = file != null ? VfsUtilCore.getRelativePath(file, launcherDirectory, '.') : null;
+        if (relativePath != null) {
+          result.add(FileUtilRt.getNameWithoutExtension(relativePath));
+        }
+      }
+    }
+    return new ArrayList<>(result);
+  }
 }
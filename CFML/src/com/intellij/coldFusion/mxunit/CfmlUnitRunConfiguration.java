@@ -166,7 +166,7 @@ public class CfmlUnitRunConfiguration extends LocatableConfigurationBase {
 
   private void runTests(ProcessHandler processHandler) throws ExecutionException {
     CfmlUnitRemoteTestsRunner.
-      executeScript(getRunnerParameters(), processHandler/*webPath, componentFile,
+      executeScript(getProject(), getRunnerParameters(), processHandler/*webPath, componentFile,
                     params.getScope() == CfmlUnitRunnerParameters.Scope.Method ? params.getMethod() : "",
                     processHandler*/);
   }
@@ -27,6 +27,8 @@ public class CfmlUnitRunConfigurationForm extends SettingsEditor<CfmlUnitRunConf
   private JLabel myMethodLabel;
   private JTextField myWebPathTextField;
   private JPanel myPanel;
+  private JPanel myParallelRequestsPanel;
+  private JSpinner myParallelRequestsSpinner;
   private final ChangeListener myScopeChangeListener = new ChangeListener() {
     @Override
     public void stateChanged(ChangeEvent e) {
@@ -43,6 +45,8 @@ public class CfmlUnitRunConfigurationForm extends SettingsEditor<CfmlUnitRunConf
     myProject = project;
 
     myMethodPanel.setVisible(false);
+    myParallelRequestsPanel.setVisible(false);
+    myParallelRequestsSpinner.setModel(new SpinnerNumberModel(1, 1, 64, 1));
 
     myFileChooser = new ComponentWithBrowseButton.BrowseFolderActionListener<>(null, null, myDirectoryOrFileField, project,
                                                                                FileChooserDescriptorFactory
@@ -65,6 +69,7 @@ public class CfmlUnitRunConfigurationForm extends SettingsEditor<CfmlUnitRunConf
 
   protected void updateOnScopeChange() {
     removeActionListeners();
+    myParallelRequestsPanel.setVisible(myDirectoryRadioButton.isSelected());
     if (myDirectoryRadioButton.isSelected()) {
       myMethodPanel.setVisible(false);
       myDirectoryOrFileField.addActionListener(myDirectoryChooser);
@@ -94,6 +99,7 @@ public class CfmlUnitRunConfigurationForm extends SettingsEditor<CfmlUnitRunConf
     myDirectoryOrFileField.setText(parameters.getPath());
     myWebPathTextField.setText(parameters.getWebPath());
     myMethodField.setText(parameters.getMethod());
+    myParallelRequestsSpinner.setValue(parameters.getParallelRequests());
   }
 
   @Override
@@ -112,6 +118,7 @@ public class CfmlUnitRunConfigurationForm extends SettingsEditor<CfmlUnitRunConf
     parameters.setWebPath(myWebPathTextField.getText());
     parameters.setMethod(myMethodField.getText());
     parameters.setPath(myDirectoryOrFileField.getText());
+    parameters.setParallelRequests((Integer)myParallelRequestsSpinner.getValue());
   }
 
   @NotNull
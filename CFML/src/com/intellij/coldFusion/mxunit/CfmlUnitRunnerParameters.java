@@ -32,6 +32,9 @@ public class CfmlUnitRunnerParameters implements Cloneable {
   private static final Scope DEFAULT_SCOPE = Scope.Component;
   private @NotNull Scope myScope = DEFAULT_SCOPE;
 
+  private static final int DEFAULT_PARALLEL_REQUESTS = 1;
+  private int myParallelRequests = DEFAULT_PARALLEL_REQUESTS;
+
   @Attribute("webpath")
   public String getWebPath() {
     return myWebPath;
@@ -71,6 +74,19 @@ public class CfmlUnitRunnerParameters implements Cloneable {
     myScope = scope != null ? scope : DEFAULT_SCOPE;
   }
 
+  /**
+   * Maximum number of concurrent per-component requests when running a directory.
+   * With a single request the whole directory is executed by the launcher in one request.
+   */
+  @Attribute("parallelRequests")
+  public int getParallelRequests() {
+    return myParallelRequests;
+  }
+
+  public void setParallelRequests(int parallelRequests) {
+    myParallelRequests = Math.max(parallelRequests, DEFAULT_PARALLEL_REQUESTS);
+  }
+
   @Override
   public CfmlUnitRunnerParameters clone() {
     try {
@@ -0,0 +1,100 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.coldFusion.mxunit;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CfmlUnitRemoteTestsRunnerTest extends BasePlatformTestCase {
+  private HttpServer myServer;
+  private final AtomicInteger myInFlight = new AtomicInteger();
+  private final AtomicInteger myMaxInFlight = new AtomicInteger();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    myServer.createContext("/tests/mxunit-launcher.cfc", exchange -> {
+      int inFlight = myInFlight.incrementAndGet();
+      myMaxInFlight.accumulateAndGet(inFlight, Math::max);
+      try {
+        String query = exchange.getRequestURI().getQuery();
+        String component = StringUtil.substringAfter(query, "componentName=");
+        StringBuilder response = new StringBuilder();
+        response.append("##teamcity[testSuiteStarted name='").append(component).append("']\n");
+        for (int i = 0; i < 3; i++) {
+          Thread.sleep(20);
+          response.append("##teamcity[testStarted name='test").append(i).append("']\n\n");
+          response.append("##teamcity[testFinished name='test").append(i).append("']\n");
+        }
+        response.append("##teamcity[testSuiteFinished name='").append(component).append("']\n");
+
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream stream = exchange.getResponseBody()) {
+          stream.write(bytes);
+        }
+      }
+      catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      finally {
+        myInFlight.decrementAndGet();
+      }
+    });
+    myServer.start();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myServer.stop(0);
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testParallelComponents() {
+    List<String> components = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      components.add("tests.sub.Test" + i);
+    }
+
+    List<String> output = Collections.synchronizedList(new ArrayList<>());
+    String agentPath = "http://127.0.0.1:" + myServer.getAddress().getPort() + "/tests/mxunit-launcher.cfc";
+    CfmlUnitRemoteTestsRunner.executeComponents(agentPath, components, 4, output::add, () -> false);
+
+    assertTrue(myMaxInFlight.get() > 1);
+    assertTrue(myMaxInFlight.get() <= 4);
+
+    // every component produces a contiguous block of non-empty lines
+    assertEquals(components.size() * 8, output.size());
+    Set<String> finished = new HashSet<>();
+    for (int i = 0; i < output.size(); i += 8) {
+      String started = output.get(i);
+      assertTrue(started, started.startsWith("##teamcity[testSuiteStarted name='"));
+      String name = StringUtil.substringBefore(StringUtil.substringAfter(started, "name='"), "'");
+      assertEquals("##teamcity[testSuiteFinished name='" + name + "']\n", output.get(i + 7));
+      finished.add(name);
+    }
+    assertEquals(new HashSet<>(components), finished);
+  }
+
+  public void testCancelled() {
+    List<String> output = Collections.synchronizedList(new ArrayList<>());
+    String agentPath = "http://127.0.0.1:" + myServer.getAddress().getPort() + "/tests/mxunit-launcher.cfc";
+    CfmlUnitRemoteTestsRunner.executeComponents(agentPath, Arrays.asList("a.TestA", "a.TestB"), 2, output::add, () -> true);
+    assertEmpty(output);
+  }
+}
@@ -36,6 +36,7 @@ import com.jetbrains.lang.dart.sdk.DartPackagesLibraryType;
 import com.jetbrains.lang.dart.sdk.DartSdk;
 import com.jetbrains.lang.dart.sdk.DartSdkLibUtil;
 import com.jetbrains.lang.dart.util.DotPackagesFileUtil;
+import gnu.trove.THashMap;
 import gnu.trove.THashSet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -57,6 +58,9 @@ public class DartFileListener implements AsyncFileListener {
   private static final Key<Boolean> DART_PACKAGE_ROOTS_UPDATE_SCHEDULED_OR_IN_PROGRESS =
     Key.create("DART_PACKAGE_ROOTS_UPDATE_SCHEDULED_OR_IN_PROGRESS");
 
+  // pubspec.yaml path -> packages from the corresponding .packages file as of the last "Dart Packages" library update
+  private static final Key<Map<String, PubspecPackages>> PUBSPEC_TO_PACKAGES = Key.create("DART_PUBSPEC_TO_PACKAGES");
+
   @Nullable
   @Override
   public ChangeApplier prepareChange(@NotNull List<? extends VFileEvent> events) {
@@ -161,28 +165,49 @@ public class DartFileListener implements AsyncFileListener {
       FilenameIndex.getVirtualFilesByName(project, PUBSPEC_YAML, GlobalSearchScope.projectScope(project));
     final ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
 
+    final Map<String, PubspecPackages> cachedPubspecToPackages = project.getUserData(PUBSPEC_TO_PACKAGES);
+    final Map<String, PubspecPackages> oldPubspecToPackages = cachedPubspecToPackages != null ? cachedPubspecToPackages
+                                                                                              : Collections.emptyMap();
+    final Map<String, PubspecPackages> newPubspecToPackages = new THashMap<>();
+    final int contentStamp = computeContentStamp(project);
+    final Map<String, Boolean> pathToOutsideContent = new THashMap<>();
+
     for (VirtualFile pubspecFile : pubspecYamlFiles) {
       final Module module = fileIndex.getModuleForFile(pubspecFile);
       if (module == null || !DartSdkLibUtil.isDartSdkEnabled(module)) continue;
 
       final VirtualFile dotPackagesFile = findDotPackagesFile(pubspecFile.getParent());
       if (dotPackagesFile != null) {
-        final Map<String, String> packagesMap = DotPackagesFileUtil.getPackagesMap(dotPackagesFile);
-        if (packagesMap != null) {
-          for (Map.Entry<String, String> entry : packagesMap.entrySet()) {
-            final String packageName = entry.getKey();
-            final String packagePath = entry.getValue();
-            if (isPathOutsideProjectContent(fileIndex, packagePath)) {
-              libInfo.addPackage(packageName, packagePath);
-            }
-          }
+        PubspecPackages packages = oldPubspecToPackages.get(pubspecFile.getPath());
+        if (packages == null || !packages.isUpToDate(dotPackagesFile, contentStamp)) {
+          packages = PubspecPackages.compute(fileIndex, dotPackagesFile, contentStamp, pathToOutsideContent);
+        }
+        newPubspecToPackages.put(pubspecFile.getPath(), packages);
+
+        for (Map.Entry<String, String> entry : packages.myPackagesOutsideContent.entrySet()) {
+          libInfo.addPackage(entry.getKey(), entry.getValue());
         }
       }
     }
 
+    project.putUserData(PUBSPEC_TO_PACKAGES, newPubspecToPackages);
     return libInfo;
   }
 
+  /**
+   * Whether a package path is outside project content depends on module content and excluded roots only; unlike
+   * {@link ProjectRootManager#getModificationCount()} this stamp doesn't change when "Dart Packages" library roots are updated.
+   */
+  private static int computeContentStamp(@NotNull final Project project) {
+    int stamp = 0;
+    for (Module module : ModuleManager.getInstance(project).getModules()) {
+      final ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
+      stamp = 31 * stamp + Arrays.hashCode(rootManager.getContentRootUrls());
+      stamp = 31 * stamp + Arrays.hashCode(rootManager.getExcludeRootUrls());
+    }
+    return stamp;
+  }
+
   @Nullable
   private static VirtualFile findDotPackagesFile(@Nullable VirtualFile dir) {
     while (dir != null) {
@@ -211,25 +236,32 @@ public class DartFileListener implements AsyncFileListener {
                               });
 
     final String[] existingUrls = library.getUrls(OrderRootType.CLASSES);
-
+    final Set<String> existingUrlSet = ContainerUtil.set(existingUrls);
     final Collection<String> libRootUrls = libInfo.getLibRootUrls();
 
-    if ((isBrokenPackageMap(((LibraryEx)library).getProperties())) ||
-        existingUrls.length != libRootUrls.size() ||
-        !libRootUrls.containsAll(Arrays.asList(existingUrls))) {
+    final List<String> urlsToRemove = ContainerUtil.filter(existingUrls, url -> !libRootUrls.contains(url));
+    final List<String> urlsToAdd = ContainerUtil.filter(libRootUrls, url -> !existingUrlSet.contains(url));
+    final LibraryProperties<?> properties = ((LibraryEx)library).getProperties();
+    final boolean packagesMapChanged = isBrokenPackageMap(properties) ||
+                                       !libInfo.getPackagesMap().equals(((DartPackagesLibraryProperties)properties).getPackageNameToDirsMap());
+
+    if (packagesMapChanged || !urlsToRemove.isEmpty() || !urlsToAdd.isEmpty()) {
       ApplicationManager.getApplication().runWriteAction(() -> {
+        // only roots of the packages that have actually moved are touched, so that the rest of the library is not reindexed
         final LibraryEx.ModifiableModelEx model = (LibraryEx.ModifiableModelEx)library.getModifiableModel();
-        for (String url : existingUrls) {
+        for (String url : urlsToRemove) {
           model.removeRoot(url, OrderRootType.CLASSES);
         }
 
-        for (String url : libRootUrls) {
+        for (String url : urlsToAdd) {
           model.addRoot(url, OrderRootType.CLASSES);
         }
 
-        final DartPackagesLibraryProperties libraryProperties = new DartPackagesLibraryProperties();
-        libraryProperties.setPackageNameToDirsMap(libInfo.getPackagesMap());
-        model.setProperties(libraryProperties);
+        if (packagesMapChanged) {
+          final DartPackagesLibraryProperties libraryProperties = new DartPackagesLibraryProperties();
+          libraryProperties.setPackageNameToDirsMap(libInfo.getPackagesMap());
+          model.setProperties(libraryProperties);
+        }
 
         model.commit();
       });
@@ -369,6 +401,51 @@ public class DartFileListener implements AsyncFileListener {
     }
   }
 
+  /**
+   * Packages from a single .packages file that are located outside project content, i.e. contribute to the "Dart Packages" library.
+   */
+  private static final class PubspecPackages {
+    private final String myDotPackagesPath;
+    private final long myDotPackagesModificationCount;
+    private final int myContentStamp;
+    private final Map<String, String> myPackagesOutsideContent;
+
+    private PubspecPackages(@NotNull String dotPackagesPath,
+                            long dotPackagesModificationCount,
+                            int contentStamp,
+                            @NotNull Map<String, String> packagesOutsideContent) {
+      myDotPackagesPath = dotPackagesPath;
+      myDotPackagesModificationCount = dotPackagesModificationCount;
+      myContentStamp = contentStamp;
+      myPackagesOutsideContent = packagesOutsideContent;
+    }
+
+    private boolean isUpToDate(@NotNull VirtualFile dotPackagesFile, int contentStamp) {
+      return myDotPackagesPath.equals(dotPackagesFile.getPath()) &&
+             myDotPackagesModificationCount == dotPackagesFile.getModificationCount() &&
+             myContentStamp == contentStamp;
+    }
+
+    @NotNull
+    private static PubspecPackages compute(@NotNull ProjectFileIndex fileIndex,
+                                           @NotNull VirtualFile dotPackagesFile,
+                                           int contentStamp,
+                                           @NotNull Map<String, Boolean> pathToOutsideContent) {
+      final Map<String, String> packagesOutsideContent = new THashMap<>();
+      final Map<String, String> packagesMap = DotPackagesFileUtil.getPackagesMap(dotPackagesFile);
+      if (packagesMap != null) {
+        for (Map.Entry<String, String> entry : packagesMap.entrySet()) {
+          final String packagePath = entry.getValue();
+          if (pathToOutsideContent.computeIfAbsent(packagePath, path -> isPathOutsideProjectContent(fileIndex, path))) {
+            packagesOutsideContent.put(entry.getKey(), packagePath);
+          }
+        }
+      }
+
+      return new PubspecPackages(dotPackagesFile.getPath(), dotPackagesFile.getModificationCount(), contentStamp, packagesOutsideContent);
+    }
+  }
+
   private static final class DartFileChangeApplier implements ChangeApplier {
     private final List<? extends VFileEvent> myDotPackageEvents;
     private final List<? extends VFileEvent> myMoveOrRenameAnalyzableFileEvents;
@@ -752,13 +752,13 @@ public final class DartAnalysisServerService implements Disposable {
   }
 
   @Nullable
-  public AvailableSuggestionSet getAvailableSuggestionSet(int id) {
+  public DartSuggestionSetIndex getAvailableSuggestionSet(int id) {
     return myServerData.getAvailableSuggestionSet(id);
   }
 
-  @Nullable
-  public Map<String, Map<String, Set<String>>> getExistingImports(@Nullable String filePathSD) {
-    return myServerData.getExistingImports(filePathSD);
+  @NotNull
+  public Set<String> getImportingLibraries(@Nullable String filePathSD, @NotNull String declaringLibraryUri, @NotNull String label) {
+    return myServerData.getImportingLibraries(filePathSD, declaringLibraryUri, label);
   }
 
   @NotNull
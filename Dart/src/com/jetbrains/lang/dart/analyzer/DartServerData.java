@@ -18,6 +18,7 @@ import com.intellij.psi.search.SearchScope;
 import com.intellij.util.EventDispatcher;
 import com.intellij.util.SmartList;
 import gnu.trove.THashMap;
+import gnu.trove.THashSet;
 import org.dartlang.analysis.server.protocol.*;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -42,7 +43,8 @@ public class DartServerData {
   private final Map<String, List<DartRegion>> myImplementedClassData = Collections.synchronizedMap(new THashMap<>());
   private final Map<String, List<DartRegion>> myImplementedMemberData = Collections.synchronizedMap(new THashMap<>());
   private final Map<String, Outline> myOutlineData = Collections.synchronizedMap(new THashMap<>());
-  private final Map<Integer, AvailableSuggestionSet> myAvailableSuggestionSetMap = Collections.synchronizedMap(new THashMap<>());
+  private final Map<Integer, DartSuggestionSetIndex> myAvailableSuggestionSetMap = Collections.synchronizedMap(new THashMap<>());
+  // file path -> declaring library URI -> label -> URIs of the libraries imported by the file that export the element
   private final Map<String, Map<String, Map<String, Set<String>>>> myExistingImports = Collections.synchronizedMap(new THashMap<>());
 
   private final Set<String> myFilePathsWithUnsentChanges = Sets.newConcurrentHashSet();
@@ -139,17 +141,32 @@ public class DartServerData {
       myAvailableSuggestionSetMap.remove(id);
     }
     for (AvailableSuggestionSet suggestionSet : changed) {
-      myAvailableSuggestionSetMap.put(suggestionSet.getId(), suggestionSet);
+      myAvailableSuggestionSetMap.put(suggestionSet.getId(), new DartSuggestionSetIndex(suggestionSet));
     }
   }
 
+  /**
+   * @param existingImports imported library URI -> declaring library URI -> exported names, as sent by the server
+   */
   void computedExistingImports(@NotNull String filePathSD, @NotNull Map<String, Map<String, Set<String>>> existingImports) {
     if (existingImports.isEmpty()) {
       myExistingImports.remove(filePathSD);
       return;
     }
 
-    myExistingImports.put(filePathSD, existingImports);
+    final Map<String, Map<String, Set<String>>> reverseIndex = new THashMap<>();
+    for (Map.Entry<String, Map<String, Set<String>>> importEntry : existingImports.entrySet()) {
+      final String importedLibraryUri = importEntry.getKey();
+      for (Map.Entry<String, Set<String>> declarationEntry : importEntry.getValue().entrySet()) {
+        final Map<String, Set<String>> labelToImportedLibraries =
+          reverseIndex.computeIfAbsent(declarationEntry.getKey(), k -> new THashMap<>());
+        for (String label : declarationEntry.getValue()) {
+          labelToImportedLibraries.computeIfAbsent(label, k -> new THashSet<>(1)).add(importedLibraryUri);
+        }
+      }
+    }
+
+    myExistingImports.put(filePathSD, reverseIndex);
   }
 
   @NotNull
@@ -288,7 +305,7 @@ public class DartServerData {
   }
 
   @Nullable
-  AvailableSuggestionSet getAvailableSuggestionSet(int id) {
+  DartSuggestionSetIndex getAvailableSuggestionSet(int id) {
     return myAvailableSuggestionSetMap.get(id);
   }
 
@@ -303,10 +320,18 @@ public class DartServerData {
            myOutlineData.get(file.getPath()) != null;
   }
 
-  @Nullable
-  Map<String, Map<String, Set<String>>> getExistingImports(@Nullable String filePathSD) {
-    if (filePathSD == null) return null;
-    return myExistingImports.get(filePathSD);
+  /**
+   * @return URIs of the libraries imported by the given file that export the element with the given label declared in
+   * the given library; empty set if there are no such imports
+   */
+  @NotNull
+  Set<String> getImportingLibraries(@Nullable String filePathSD, @NotNull String declaringLibraryUri, @NotNull String label) {
+    if (filePathSD == null) return Collections.emptySet();
+
+    final Map<String, Map<String, Set<String>>> existingImports = myExistingImports.get(filePathSD);
+    final Map<String, Set<String>> labelToImportedLibraries = existingImports == null ? null : existingImports.get(declaringLibraryUri);
+    final Set<String> importedLibraries = labelToImportedLibraries == null ? null : labelToImportedLibraries.get(label);
+    return importedLibraries == null ? Collections.emptySet() : importedLibraries;
   }
 
   private void forceFileAnnotation(@Nullable final VirtualFile file, final boolean clearCache) {
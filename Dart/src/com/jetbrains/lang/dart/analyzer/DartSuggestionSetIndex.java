@@ -0,0 +1,129 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.codeInsight.completion.impl.CamelHumpMatcher;
+import com.intellij.util.Processor;
+import gnu.trove.THashMap;
+import org.dartlang.analysis.server.protocol.AvailableSuggestion;
+import org.dartlang.analysis.server.protocol.AvailableSuggestionSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An {@link AvailableSuggestionSet} with its suggestions grouped by element kind, each suggestion tagged with a bit mask of
+ * the letters and digits its label consists of. The grouping is done on first completion that includes the set,
+ * so the (many) sets that never take part in completion stay as cheap as the protocol objects.
+ */
+public final class DartSuggestionSetIndex {
+  private final AvailableSuggestionSet mySuggestionSet;
+  private volatile Map<String, KindBucket> myKindToBucket;
+
+  DartSuggestionSetIndex(@NotNull AvailableSuggestionSet suggestionSet) {
+    mySuggestionSet = suggestionSet;
+  }
+
+  @NotNull
+  public AvailableSuggestionSet getSuggestionSet() {
+    return mySuggestionSet;
+  }
+
+  /**
+   * Passes to the {@code processor} the suggestions of the given kinds which the {@code matcher} may accept: if it is a camel hump
+   * matcher without typo tolerance (which matches in the middle too, but never skips prefix characters), only suggestions
+   * whose labels contain all letters and digits of the prefix are passed, otherwise all of them. The caller still needs to check
+   * the passed ones with the matcher.
+   */
+  public boolean processSuggestions(@NotNull Set<String> kinds,
+                                    @NotNull PrefixMatcher matcher,
+                                    @NotNull Processor<? super AvailableSuggestion> processor) {
+    final long prefixMask = getPrefixMask(matcher);
+    final Map<String, KindBucket> kindToBucket = getKindToBucket();
+    for (String kind : kinds) {
+      final KindBucket bucket = kindToBucket.get(kind);
+      if (bucket == null) continue;
+
+      for (int i = 0; i < bucket.mySuggestions.size(); i++) {
+        if ((bucket.myMasks[i] & prefixMask) == prefixMask && !processor.process(bucket.mySuggestions.get(i))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @NotNull
+  private Map<String, KindBucket> getKindToBucket() {
+    Map<String, KindBucket> kindToBucket = myKindToBucket;
+    if (kindToBucket == null) {
+      final Map<String, List<AvailableSuggestion>> kindToSuggestions = new THashMap<>();
+      for (AvailableSuggestion suggestion : mySuggestionSet.getItems()) {
+        kindToSuggestions.computeIfAbsent(suggestion.getElement().getKind(), k -> new ArrayList<>()).add(suggestion);
+      }
+
+      kindToBucket = new THashMap<>(kindToSuggestions.size());
+      for (Map.Entry<String, List<AvailableSuggestion>> entry : kindToSuggestions.entrySet()) {
+        kindToBucket.put(entry.getKey(), new KindBucket(entry.getValue()));
+      }
+      myKindToBucket = kindToBucket;
+    }
+    return kindToBucket;
+  }
+
+  /**
+   * @return mask of the ASCII letters (case-insensitive) and digits in {@code text}; other characters are ignored
+   */
+  static long getCharMask(@NotNull CharSequence text) {
+    long mask = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final int bit = getCharBit(text.charAt(i));
+      if (bit >= 0) {
+        mask |= 1L << bit;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * @return 0 (i.e. "don't filter") for matchers which may accept labels without some of the prefix characters
+   */
+  static long getPrefixMask(@NotNull PrefixMatcher matcher) {
+    if (!(matcher instanceof CamelHumpMatcher) || ((CamelHumpMatcher)matcher).isTypoTolerant()) return 0;
+    return getPrefixMask(matcher.getPrefix());
+  }
+
+  /**
+   * Same as {@link #getCharMask(CharSequence)}, but returns 0 (i.e. "don't filter") if the prefix contains non-ASCII characters,
+   * because a matcher may fix a keyboard layout and match them against different letters.
+   */
+  static long getPrefixMask(@NotNull String prefix) {
+    for (int i = 0; i < prefix.length(); i++) {
+      if (prefix.charAt(i) >= 128) return 0;
+    }
+    return getCharMask(prefix);
+  }
+
+  private static int getCharBit(char c) {
+    if (c >= 'a' && c <= 'z') return c - 'a';
+    if (c >= 'A' && c <= 'Z') return c - 'A';
+    if (c >= '0' && c <= '9') return 26 + c - '0';
+    return -1;
+  }
+
+  private static final class KindBucket {
+    private final List<AvailableSuggestion> mySuggestions;
+    private final long[] myMasks;
+
+    private KindBucket(@NotNull List<AvailableSuggestion> suggestions) {
+      mySuggestions = suggestions;
+      myMasks = new long[suggestions.size()];
+      for (int i = 0; i < suggestions.size(); i++) {
+        myMasks[i] = getCharMask(suggestions.get(i).getLabel());
+      }
+    }
+  }
+}
@@ -38,6 +38,7 @@ import com.intellij.util.PlatformIcons;
 import com.intellij.util.ProcessingContext;
 import com.jetbrains.lang.dart.DartLanguage;
 import com.jetbrains.lang.dart.analyzer.DartAnalysisServerService;
+import com.jetbrains.lang.dart.analyzer.DartSuggestionSetIndex;
 import com.jetbrains.lang.dart.assists.AssistUtils;
 import com.jetbrains.lang.dart.assists.DartSourceEditException;
 import com.jetbrains.lang.dart.ide.codeInsight.DartCodeInsightSettings;
@@ -146,33 +147,23 @@ public class DartServerCompletionContributor extends CompletionContributor {
                    return;
                  }
 
-                 final AvailableSuggestionSet suggestionSet = das.getAvailableSuggestionSet(includedSet.getId());
-                 if (suggestionSet == null) {
+                 final DartSuggestionSetIndex suggestionSetIndex = das.getAvailableSuggestionSet(includedSet.getId());
+                 if (suggestionSetIndex == null) {
                    return;
                  }
 
-                 Map<String, Map<String, Set<String>>> existingImports = das.getExistingImports(libraryFilePathSD);
-                 for (AvailableSuggestion suggestion : suggestionSet.getItems()) {
-                   final String kind = suggestion.getElement().getKind();
-                   if (!includedKinds.contains(kind)) {
-                     continue;
-                   }
-
-                   Set<String> importedLibraries = new HashSet<>();
-                   if (existingImports != null) {
-                     for (Map.Entry<String, Map<String, Set<String>>> entry : existingImports.entrySet()) {
-                       String importedLibraryUri = entry.getKey();
-                       Map<String, Set<String>> importedLibrary = entry.getValue();
-                       Set<String> names = importedLibrary.get(suggestion.getDeclaringLibraryUri());
-                       if (names != null && names.contains(suggestion.getLabel())) {
-                         importedLibraries.add(importedLibraryUri);
-                       }
-                     }
+                 final AvailableSuggestionSet suggestionSet = suggestionSetIndex.getSuggestionSet();
+                 final PrefixMatcher prefixMatcher = resultSet.getPrefixMatcher();
+                 suggestionSetIndex.processSuggestions(includedKinds, prefixMatcher, suggestion -> {
+                   if (!prefixMatcher.prefixMatches(suggestion.getLabel())) {
+                     return true;
                    }
 
+                   Set<String> importedLibraries =
+                     das.getImportingLibraries(libraryFilePathSD, suggestion.getDeclaringLibraryUri(), suggestion.getLabel());
                    if (!importedLibraries.isEmpty() && !importedLibraries.contains(suggestionSet.getUri())) {
                      // If some library exports this label but the current suggestion set does not, we should filter.
-                     continue;
+                     return true;
                    }
 
                    CompletionSuggestion completionSuggestion =
@@ -182,7 +173,8 @@ public class DartServerCompletionContributor extends CompletionContributor {
                      createLookupElement(project, completionSuggestion, suggestionSet.getId(), targetFile, true, displayUri);
 
                    resultSet.addElement(lookupElement);
-                 }
+                   return true;
+                 });
                });
              }
            });
@@ -31,6 +31,8 @@ public class DartIndexUtil {
       indexData = content.getUserData(ourDartCachesData);
       if (indexData != null) return indexData;
       indexData = indexFileRoots(content.getPsiFile());
+      // the same content is passed to all Dart indexes, so the PSI is built and traversed once
+      content.putUserData(ourDartCachesData, indexData);
     }
 
     return indexData;
@@ -62,9 +62,11 @@ public class DartVmServiceListener implements VmServiceListener {
       case Inspect:
         break;
       case IsolateExit:
+        myDebugProcess.getVmServiceWrapper().clearObjectCache(Objects.requireNonNull(event.getIsolate()).getId());
         myDebugProcess.isolateExit(Objects.requireNonNull(event.getIsolate()));
         break;
       case IsolateReload:
+        myDebugProcess.getVmServiceWrapper().clearObjectCache(Objects.requireNonNull(event.getIsolate()).getId());
         break;
       case IsolateRunnable:
         break;
@@ -100,6 +102,7 @@ public class DartVmServiceListener implements VmServiceListener {
         myDebugProcess.getVmServiceWrapper().handleIsolate(Objects.requireNonNull(event.getIsolate()), true);
         break;
       case Resume:
+        myDebugProcess.getVmServiceWrapper().clearObjectCache(Objects.requireNonNull(event.getIsolate()).getId());
         myDebugProcess.isolateResumed(Objects.requireNonNull(event.getIsolate()));
         break;
       case ServiceExtensionAdded:
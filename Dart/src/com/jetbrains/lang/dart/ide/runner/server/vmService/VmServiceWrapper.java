@@ -30,12 +30,17 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 public class VmServiceWrapper implements Disposable {
 
   public static final Logger LOG = Logger.getInstance(VmServiceWrapper.class.getName());
   private static final long RESPONSE_WAIT_TIMEOUT = 3000; // millis
+  // invocation, assignment (but not comparison or arrow), increment or decrement
+  private static final Pattern SIDE_EFFECT_PATTERN = Pattern.compile("\\(|(?<![=!<>])=(?![=>])|\\+\\+|--");
 
   private final DartVmServiceDebugProcess myDebugProcess;
   private final VmService myVmService;
@@ -43,6 +48,8 @@ public class VmServiceWrapper implements Disposable {
   private final IsolatesInfo myIsolatesInfo;
   private final DartVmServiceBreakpointHandler myBreakpointHandler;
   private final Alarm myRequestsScheduler;
+  // isolate id -> objects received while the isolate is paused, see clearObjectCache()
+  private final Map<String, ObjectCache> myObjectCaches = new ConcurrentHashMap<>();
 
   private long myVmServiceReceiverThreadId;
 
@@ -358,6 +365,7 @@ public class VmServiceWrapper implements Disposable {
   }
 
   public void resumeIsolate(@NotNull final String isolateId, @Nullable final StepOption stepOption) {
+    clearObjectCache(isolateId);
     addRequest(() -> {
       myLatestStep = stepOption;
       myVmService.resume(isolateId, stepOption, null, VmServiceConsumers.EMPTY_SUCCESS_CONSUMER);
@@ -377,6 +385,7 @@ public class VmServiceWrapper implements Disposable {
    * function, so frameIndex must be at least 1.
    */
   public void dropFrame(@NotNull final String isolateId, int frameIndex) {
+    clearObjectCache(isolateId);
     addRequest(() -> {
       myLatestStep = StepOption.Rewind;
       myVmService.resume(isolateId, StepOption.Rewind, frameIndex, new SuccessConsumer() {
@@ -477,7 +486,7 @@ public class VmServiceWrapper implements Disposable {
   }
 
   public void getObject(@NotNull final String isolateId, @NotNull final String objectId, @NotNull final GetObjectConsumer consumer) {
-    addRequest(() -> myVmService.getObject(isolateId, objectId, consumer));
+    getCachedObject(isolateId, objectId, consumer, requestConsumer -> myVmService.getObject(isolateId, objectId, requestConsumer));
   }
 
   public void getCollectionObject(@NotNull final String isolateId,
@@ -485,7 +494,87 @@ public class VmServiceWrapper implements Disposable {
                                   final int offset,
                                   final int count,
                                   @NotNull final GetObjectConsumer consumer) {
-    addRequest(() -> myVmService.getObject(isolateId, objectId, offset, count, consumer));
+    getCachedObject(isolateId, objectId + "[" + offset + ":" + count + "]", consumer,
+                    requestConsumer -> myVmService.getObject(isolateId, objectId, offset, count, requestConsumer));
+  }
+
+  /**
+   * Objects don't change while the isolate is paused (unless the user evaluates an expression with side effects), so the same
+   * instance expanded several times, e.g. reached from different frames or watches, is fetched once. Concurrent requests
+   * for the same object share one round trip.
+   */
+  private void getCachedObject(@NotNull final String isolateId,
+                               @NotNull final String cacheKey,
+                               @NotNull final GetObjectConsumer consumer,
+                               @NotNull final Consumer<GetObjectConsumer> request) {
+    final ObjectCache cache = myObjectCaches.computeIfAbsent(isolateId, id -> new ObjectCache());
+
+    final Obj cached = cache.objects.get(cacheKey);
+    if (cached != null) {
+      // keep the callback asynchronous as it is for the real request
+      addRequest(() -> consumer.received(cached));
+      return;
+    }
+
+    synchronized (cache.pendingRequests) {
+      final List<GetObjectConsumer> waiting = cache.pendingRequests.get(cacheKey);
+      if (waiting != null) {
+        waiting.add(consumer);
+        return;
+      }
+      cache.pendingRequests.put(cacheKey, Lists.newArrayList(consumer));
+    }
+
+    addRequest(() -> request.accept(new GetObjectConsumer() {
+      @Override
+      public void received(Obj response) {
+        if (myObjectCaches.get(isolateId) == cache) {
+          cache.objects.put(cacheKey, response);
+        }
+        for (GetObjectConsumer waitingConsumer : takePendingConsumers()) {
+          waitingConsumer.received(response);
+        }
+      }
+
+      @Override
+      public void received(Sentinel response) {
+        for (GetObjectConsumer waitingConsumer : takePendingConsumers()) {
+          waitingConsumer.received(response);
+        }
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        for (GetObjectConsumer waitingConsumer : takePendingConsumers()) {
+          waitingConsumer.onError(error);
+        }
+      }
+
+      @NotNull
+      private List<GetObjectConsumer> takePendingConsumers() {
+        synchronized (cache.pendingRequests) {
+          final List<GetObjectConsumer> consumers = cache.pendingRequests.remove(cacheKey);
+          return consumers != null ? consumers : Collections.emptyList();
+        }
+      }
+    }));
+  }
+
+  /**
+   * Forgets objects received from the isolate; must be called when the isolate resumes or its state may change otherwise.
+   */
+  public void clearObjectCache(@NotNull final String isolateId) {
+    myObjectCaches.remove(isolateId);
+  }
+
+  /**
+   * Drops the object cache after evaluation of an expression which invokes something or assigns a value.
+   * Side effects of getters are not detected, the cache is dropped anyway on the next resume or step.
+   */
+  private void clearObjectCacheAfterEvaluation(@NotNull final String isolateId, @NotNull final String expression) {
+    if (SIDE_EFFECT_PATTERN.matcher(expression).find()) {
+      clearObjectCache(isolateId);
+    }
   }
 
   public void evaluateInFrame(@NotNull final String isolateId,
@@ -495,6 +584,7 @@ public class VmServiceWrapper implements Disposable {
     addRequest(() -> myVmService.evaluateInFrame(isolateId, vmFrame.getIndex(), expression, new EvaluateInFrameConsumer() {
       @Override
       public void received(InstanceRef instanceRef) {
+        clearObjectCacheAfterEvaluation(isolateId, expression);
         callback.evaluated(new DartVmServiceValue(myDebugProcess, isolateId, "result", instanceRef, null, null, false));
       }
 
@@ -505,6 +595,7 @@ public class VmServiceWrapper implements Disposable {
 
       @Override
       public void received(ErrorRef errorRef) {
+        clearObjectCacheAfterEvaluation(isolateId, expression);
         callback.errorOccurred(DartVmServiceEvaluator.getPresentableError(errorRef.getMessage()));
       }
 
@@ -530,6 +621,7 @@ public class VmServiceWrapper implements Disposable {
     evaluateInTargetContext(isolateId, targetId, expression, new EvaluateConsumer() {
       @Override
       public void received(InstanceRef instanceRef) {
+        clearObjectCacheAfterEvaluation(isolateId, expression);
         callback.evaluated(new DartVmServiceValue(myDebugProcess, isolateId, "result", instanceRef, null, null, false));
       }
 
@@ -540,6 +632,7 @@ public class VmServiceWrapper implements Disposable {
 
       @Override
       public void received(ErrorRef errorRef) {
+        clearObjectCacheAfterEvaluation(isolateId, expression);
         callback.errorOccurred(DartVmServiceEvaluator.getPresentableError(errorRef.getMessage()));
       }
 
@@ -590,4 +683,9 @@ public class VmServiceWrapper implements Disposable {
     final Version version = myVmService.getRuntimeVersion();
     return version.getMajor() >= 3 && version.getMinor() >= 11;
   }
+
+  private static final class ObjectCache {
+    private final Map<String, Obj> objects = new ConcurrentHashMap<>();
+    private final Map<String, List<GetObjectConsumer>> pendingRequests = new HashMap<>();
+  }
 }
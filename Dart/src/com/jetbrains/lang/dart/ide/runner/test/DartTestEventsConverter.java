@@ -1,10 +1,13 @@
 // Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package com.jetbrains.lang.dart.ide.runner.test;
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.intellij.execution.testframework.TestConsoleProperties;
-import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.execution.testframework.sm.runner.GeneralTestEventsProcessor;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
+import com.intellij.execution.testframework.sm.runner.events.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
@@ -13,22 +16,23 @@ import com.intellij.util.PathUtil;
 import com.jetbrains.lang.dart.ide.runner.util.DartTestLocationProvider;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
 import gnu.trove.TIntLongHashMap;
+import gnu.trove.TIntObjectHashMap;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Convert events from JSON format generated by package:test to the string format
- * expected by the event processor.
+ * Convert events from JSON format generated by package:test to the events expected by the event processor.
+ * Every line is read with a streaming JSON reader and reported to the {@link GeneralTestEventsProcessor} directly,
+ * only non-JSON output goes through the service message parser.
  * NOTE: The test runner runs tests asynchronously. It is possible to get a 'testDone'
  * event followed some time later by an 'error' event for that same test. That should
  * convert a successful test into a failure. That case is not being handled.
@@ -71,6 +75,8 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   private static final String JSON_LINE = "line";
   private static final String JSON_COLUMN = "column";
   private static final String JSON_URL = "url";
+  private static final String JSON_SKIP = "skip";
+  private static final String JSON_SKIP_REASON = "skipReason";
 
   private static final String RESULT_SUCCESS = "success";
   private static final String RESULT_FAILURE = "failure";
@@ -83,18 +89,20 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   private static final String COMPILING_PREFIX = "compiling ";
   private static final String SET_UP_ALL_VIRTUAL_TEST_NAME = "(setUpAll)";
   private static final String TEAR_DOWN_ALL_VIRTUAL_TEST_NAME = "(tearDownAll)";
+  private static final String DEFAULT_IGNORE_COMMENT = "Test ignored.";
 
   private static final Gson GSON = new Gson();
 
   @NotNull private final DartUrlResolver myUrlResolver;
 
+  private volatile GeneralTestEventsProcessor myProcessor;
   private String myLocation;
   private Key myCurrentOutputType;
   private ServiceMessageVisitor myCurrentVisitor;
   private final TIntLongHashMap myTestIdToTimestamp;
-  private final Map<Integer, Test> myTestData;
-  private final Map<Integer, Group> myGroupData;
-  private final Map<Integer, Suite> mySuiteData;
+  private final TIntObjectHashMap<Test> myTestData;
+  private final TIntObjectHashMap<Group> myGroupData;
+  private final TIntObjectHashMap<Suite> mySuiteData;
   private int mySuitCount;
 
   public DartTestEventsConverter(@NotNull final String testFrameworkName,
@@ -103,9 +111,21 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     super(testFrameworkName, consoleProperties);
     myUrlResolver = urlResolver;
     myTestIdToTimestamp = new TIntLongHashMap();
-    myTestData = new HashMap<>();
-    myGroupData = new HashMap<>();
-    mySuiteData = new HashMap<>();
+    myTestData = new TIntObjectHashMap<>();
+    myGroupData = new TIntObjectHashMap<>();
+    mySuiteData = new TIntObjectHashMap<>();
+  }
+
+  @Override
+  public void setProcessor(GeneralTestEventsProcessor processor) {
+    super.setProcessor(processor);
+    myProcessor = processor;
+  }
+
+  @Override
+  public void dispose() {
+    myProcessor = null;
+    super.dispose();
   }
 
   @Override
@@ -118,25 +138,23 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return processEventText(text);
   }
 
-  private boolean processEventText(final String text) throws JsonSyntaxException, ParseException {
-    JsonParser jp = new JsonParser();
-    JsonElement elem;
-    try {
-      elem = jp.parse(text);
-    }
-    catch (JsonSyntaxException ex) {
+  private boolean processEventText(final String text) throws ParseException {
+    final Event event = StringUtil.trimLeading(text).startsWith("{") ? Event.read(text) : null;
+    if (event == null) {
       if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
-        final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
-        final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
-        testFailed.addAttribute("message", "Please update your pubspec.yaml dependency on package:test to version 0.12.9 or later.");
-        final ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished("Failed to start");
-        return finishMessage(testStarted, 1, 0) & finishMessage(testFailed, 1, 0) & finishMessage(testFinished, 1, 0);
+        final String name = "Failed to start";
+        final String message = "Please update your pubspec.yaml dependency on package:test to version 0.12.9 or later.";
+        testStarted(name, 1, 0, null);
+        testFailed(name, 1, message, false, null, null);
+        testFinished(name, 1, null);
+        return true;
       }
 
       return doProcessServiceMessages(text);
     }
-    if (elem == null || !elem.isJsonObject()) return false;
-    return process(elem.getAsJsonObject());
+
+    if (event.type == null) return doProcessServiceMessages(text);
+    return process(event);
   }
 
   private boolean doProcessServiceMessages(@NotNull final String text) throws ParseException {
@@ -144,46 +162,43 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return super.processServiceMessages(text, myCurrentOutputType, myCurrentVisitor);
   }
 
-  private boolean process(JsonObject obj) throws JsonSyntaxException, ParseException {
-    String type = obj.get(JSON_TYPE).getAsString();
+  private boolean process(@NotNull Event event) throws ParseException {
+    String type = event.type;
     if (TYPE_TEST_START.equals(type)) {
-      return handleTestStart(obj);
+      return handleTestStart(event);
     }
     else if (TYPE_TEST_DONE.equals(type)) {
-      return handleTestDone(obj);
+      return handleTestDone(event);
     }
     else if (TYPE_ERROR.equals(type)) {
-      return handleError(obj);
+      return handleError(event);
     }
     else if (TYPE_PRINT.equals(type)) {
-      return handlePrint(obj);
+      return handlePrint(event);
     }
     else if (TYPE_GROUP.equals(type)) {
-      return handleGroup(obj);
+      return handleGroup(event);
     }
     else if (TYPE_SUITE.equals(type)) {
-      return handleSuite(obj);
+      return handleSuite(event);
     }
     else if (TYPE_ALL_SUITES.equals(type)) {
-      return handleAllSuites(obj);
+      return handleAllSuites(event);
     }
     else if (TYPE_START.equals(type)) {
-      return handleStart(obj);
+      return handleStart();
     }
     else if (TYPE_DONE.equals(type)) {
-      return handleDone(obj);
+      return handleDone();
     }
     else {
       return true;
     }
   }
 
-  private boolean handleTestStart(JsonObject obj) throws ParseException {
-    final JsonObject testObj = obj.getAsJsonObject(DEF_TEST);
-
-    // Not reached if testObj == null.
-    final Test test = getTest(obj);
-    myTestIdToTimestamp.put(test.getId(), getTimestamp(obj));
+  private boolean handleTestStart(@NotNull Event event) throws ParseException {
+    final Test test = getTest(event);
+    myTestIdToTimestamp.put(test.getId(), getTimestamp(event));
 
     if (shouldTestBeHiddenIfPassed(test)) {
       // Virtual test that represents loading or compiling a test suite. See lib/src/runner/loader.dart -> Loader.loadFile() in pkg/test source code
@@ -203,20 +218,19 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       return true;
     }
 
-    final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
     test.myTestStartReported = true;
+    testStarted(test.getBaseName(), test.getId(), test.getValidParentId(), getLocationHint(test));
 
-    addLocationHint(testStarted, test);
-    boolean result = finishMessage(testStarted, test.getId(), test.getValidParentId());
-
-    final Metadata metadata = Metadata.from(testObj.getAsJsonObject(DEF_METADATA));
+    final Metadata metadata = test.getMetadata();
     if (metadata.skip) {
-      final ServiceMessageBuilder message = ServiceMessageBuilder.testIgnored(test.getBaseName());
-      if (metadata.skipReason != null) message.addAttribute("message", metadata.skipReason);
-      result &= finishMessage(message, test.getId(), test.getValidParentId());
+      final String comment = metadata.skipReason != null ? metadata.skipReason : DEFAULT_IGNORE_COMMENT;
+      final GeneralTestEventsProcessor processor = myProcessor;
+      if (processor != null) {
+        processor.onTestIgnored(new TestIgnoredEvent(test.getBaseName(), String.valueOf(test.getId()), comment, null));
+      }
     }
 
-    return result;
+    return true;
   }
 
   private static boolean shouldTestBeHiddenIfPassed(@NotNull final Test test) {
@@ -231,90 +245,88 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
            group != null && group.getDoneTestsCount() > 0 && test.getBaseName().equals(TEAR_DOWN_ALL_VIRTUAL_TEST_NAME);
   }
 
-  private boolean handleTestDone(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
+  private boolean handleTestDone(@NotNull Event event) throws ParseException {
+    final Test test = getTest(event);
 
     if (!test.myTestStartReported) return true;
 
-    String result = getResult(obj);
+    String result = event.result != null ? event.result : "<no result>";
     if (!result.equals(RESULT_SUCCESS) && !result.equals(RESULT_FAILURE) && !result.equals(RESULT_ERROR)) {
-      throw new ParseException("Unknown result: " + obj, 0);
+      throw new ParseException("Unknown result: " + result, 0);
     }
 
     test.testDone();
 
     //if (test.getMetadata().skip) return true; // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
 
-    ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished(test.getBaseName());
-    long duration = getTimestamp(obj) - myTestIdToTimestamp.get(test.getId());
-    testFinished.addAttribute("duration", Long.toString(duration));
+    long duration = getTimestamp(event) - myTestIdToTimestamp.get(test.getId());
+    testFinished(test.getBaseName(), test.getId(), duration);
 
-    return finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+    checkGroupDone(test.getParent());
+    return true;
   }
 
-  private boolean checkGroupDone(@Nullable final Group group) throws ParseException {
+  private void checkGroupDone(@Nullable final Group group) {
     if (group != null && group.getTestCount() > 0 && group.getDoneTestsCount() == group.getTestCount()) {
-      return processGroupDone(group) && checkGroupDone(group.getParent());
+      processGroupDone(group);
+      checkGroupDone(group.getParent());
     }
-    return true;
   }
 
-  private boolean handleGroup(JsonObject obj) throws ParseException {
-    Group group = getGroup(obj.getAsJsonObject(DEF_GROUP));
+  private boolean handleGroup(@NotNull Event event) throws ParseException {
+    Group group = getGroup(event.group);
 
     // From spec: The implicit group at the root of each test suite has null name and parentID attributes.
     if (group.getParent() == null && group.getTestCount() > 0) {
-      // com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter.MyServiceMessageVisitor.KEY_TESTS_COUNT
-      // and  com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter.MyServiceMessageVisitor.ATTR_KEY_TEST_COUNT
-      final ServiceMessageBuilder testCount =
-        new ServiceMessageBuilder("testCount").addAttribute("count", String.valueOf(group.getTestCount()));
-      doProcessServiceMessages(testCount.toString());
+      final GeneralTestEventsProcessor processor = myProcessor;
+      if (processor != null) {
+        processor.onTestsCountInSuite(group.getTestCount());
+      }
     }
 
     if (group.isArtificial()) return true; // Ignore artificial groups.
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteStarted(group.getBaseName());
-    // Possible attributes: "nodeType" "nodeArgs" "running"
-    addLocationHint(groupMsg, group);
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onSuiteStarted(new TestSuiteStartedEvent(group.getBaseName(), String.valueOf(group.getId()),
+                                                         String.valueOf(group.getValidParentId()), getLocationHint(group),
+                                                         null, null, null, true));
+    }
+    return true;
   }
 
-  private boolean handleSuite(JsonObject obj) throws ParseException {
-    Suite suite = getSuite(obj.getAsJsonObject(DEF_SUITE));
+  private boolean handleSuite(@NotNull Event event) throws ParseException {
+    Suite suite = getSuite(event.suite);
     if (!suite.hasPath()) {
       mySuiteData.remove(suite.getId());
     }
     return true;
   }
 
-  private boolean handleError(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
-    final String message = getErrorMessage(obj);
-    boolean result = true;
+  private boolean handleError(@NotNull Event event) throws ParseException {
+    final Test test = getTest(event);
+    final String message = event.error != null ? event.error : "<no error message>";
 
     if (!test.myTestStartReported) {
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
       test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      testStarted(test.getBaseName(), test.getId(), test.getValidParentId(), null);
     }
 
     if (test.myTestErrorReported) {
-      final ServiceMessageBuilder testErrorMessage = ServiceMessageBuilder.testStdErr(test.getBaseName());
-      testErrorMessage.addAttribute("out", appendLineBreakIfNeeded(message));
-      result &= finishMessage(testErrorMessage, test.getId(), test.getValidParentId());
+      testOutput(test, appendLineBreakIfNeeded(message), false);
     }
     else {
-      final ServiceMessageBuilder testError = ServiceMessageBuilder.testFailed(test.getBaseName());
       test.myTestErrorReported = true;
 
       String failureMessage = message;
+      String expectedText = null;
+      String actualText = null;
       int firstExpectedIndex = message.indexOf(EXPECTED);
       if (firstExpectedIndex >= 0) {
         Matcher matcher = EXPECTED_ACTUAL_RESULT.matcher(message);
         if (matcher.find(firstExpectedIndex + EXPECTED.length())) {
-          String expectedText = matcher.group(1);
-          String actualText = matcher.group(2);
-          testError.addAttribute("expected", expectedText);
-          testError.addAttribute("actual", actualText);
+          expectedText = matcher.group(1);
+          actualText = matcher.group(2);
           if (firstExpectedIndex == 0) {
             failureMessage = "Comparison failed";
           }
@@ -324,20 +336,16 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
         }
       }
 
-      if (!getBoolean(obj, JSON_IS_FAILURE)) testError.addAttribute("error", "true");
-      testError.addAttribute("message", appendLineBreakIfNeeded(failureMessage));
-
-      result &= finishMessage(testError, test.getId(), test.getValidParentId());
+      if (event.isFailure == null) throw new ParseException("Value is not type boolean: " + JSON_IS_FAILURE, 0);
+      testFailed(test.getBaseName(), test.getId(), appendLineBreakIfNeeded(failureMessage), !event.isFailure, actualText, expectedText);
     }
 
-    final String stackTrace = getStackTrace(obj);
+    final String stackTrace = event.stackTrace != null ? event.stackTrace : "<no stack trace>";
     if (!StringUtil.isEmptyOrSpaces(stackTrace)) {
-      final ServiceMessageBuilder stackTraceMessage = ServiceMessageBuilder.testStdErr(test.getBaseName());
-      stackTraceMessage.addAttribute("out", appendLineBreakIfNeeded(stackTrace));
-      result &= finishMessage(stackTraceMessage, test.getId(), test.getValidParentId());
+      testOutput(test, appendLineBreakIfNeeded(stackTrace), false);
     }
 
-    return result;
+    return true;
   }
 
   @NotNull
@@ -345,44 +353,43 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     return message.endsWith("\n") ? message : message + "\n";
   }
 
-  private boolean handleAllSuites(JsonObject obj) {
-    JsonElement elem = obj.get(JSON_COUNT);
-    if (elem == null || !elem.isJsonPrimitive()) return true;
-    mySuitCount = elem.getAsInt();
+  private boolean handleAllSuites(@NotNull Event event) {
+    if (event.count < 0) return true;
+    mySuitCount = event.count;
     return true;
   }
 
-  private boolean handlePrint(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
-    boolean result = true;
+  private boolean handlePrint(@NotNull Event event) throws ParseException {
+    final Test test = getTest(event);
 
     if (!test.myTestStartReported) {
       if (test.getBaseName().equals(SET_UP_ALL_VIRTUAL_TEST_NAME) || test.getBaseName().equals(TEAR_DOWN_ALL_VIRTUAL_TEST_NAME)) {
         return true; // output in successfully passing setUpAll/tearDownAll is not important enough to make these nodes visible
       }
 
-      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted(test.getBaseName());
       test.myTestStartReported = true;
-      result = finishMessage(testStarted, test.getId(), test.getValidParentId());
+      testStarted(test.getBaseName(), test.getId(), test.getValidParentId(), null);
     }
 
-    ServiceMessageBuilder message = ServiceMessageBuilder.testStdOut(test.getBaseName());
-    message.addAttribute("out", appendLineBreakIfNeeded(getMessage(obj)));
-
-    return result & finishMessage(message, test.getId(), test.getValidParentId());
+    testOutput(test, appendLineBreakIfNeeded(event.message != null ? event.message : "<no message>"), true);
+    return true;
   }
 
-  private boolean handleStart(JsonObject obj) throws ParseException {
+  private boolean handleStart() {
     myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
     mySuiteData.clear();
     mySuitCount = 0;
 
-    return doProcessServiceMessages(ServiceMessageBuilder.testsStarted().toString());
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestsReporterAttached();
+    }
+    return true;
   }
 
-  private boolean handleDone(JsonObject obj) throws ParseException {
+  private boolean handleDone() {
     // The test runner has reached the end of the tests.
     processAllTestsDone();
     return true;
@@ -390,18 +397,14 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
 
   private void processAllTestsDone() {
     // All tests are done.
-    for (Group group : myGroupData.values()) {
+    for (Object value : myGroupData.getValues()) {
+      final Group group = (Group)value;
       // For package: test prior to v. 0.12.9 there were no Group.testCount field, so need to finish them all at the end.
       // AFAIK the order does not matter. A depth-first post-order traversal of the tree would work
       // if order does matter. Note: Currently, there is no tree representation, just parent links.
 
       if (group.getTestCount() == 0 || group.getDoneTestsCount() != group.getTestCount()) {
-        try {
-          processGroupDone(group);
-        }
-        catch (ParseException ex) {
-          // ignore it
-        }
+        processGroupDone(group);
       }
     }
     myTestIdToTimestamp.clear();
@@ -411,20 +414,52 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     mySuitCount = 0;
   }
 
-  private boolean processGroupDone(@NotNull final Group group) throws ParseException {
-    if (group.isArtificial()) return true;
+  private void processGroupDone(@NotNull final Group group) {
+    if (group.isArtificial()) return;
+
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onSuiteFinished(new TestSuiteFinishedEvent(group.getBaseName(), String.valueOf(group.getId())));
+    }
+  }
+
+  private void testStarted(@NotNull String name, int testId, int parentId, @Nullable String locationHint) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestStarted(new TestStartedEvent(name, String.valueOf(testId), String.valueOf(parentId), locationHint,
+                                                   null, null, null, true));
+    }
+  }
+
+  private void testFinished(@NotNull String name, int testId, @Nullable Long duration) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestFinished(new TestFinishedEvent(name, String.valueOf(testId), duration));
+    }
+  }
 
-    ServiceMessageBuilder groupMsg = ServiceMessageBuilder.testSuiteFinished(group.getBaseName());
-    return finishMessage(groupMsg, group.getId(), group.getValidParentId());
+  private void testFailed(@NotNull String name,
+                          int testId,
+                          @NotNull String message,
+                          boolean testError,
+                          @Nullable String actualText,
+                          @Nullable String expectedText) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestFailure(new TestFailedEvent(name, String.valueOf(testId), message, null, testError, actualText, expectedText,
+                                                  null, null, false, false, true, -1));
+    }
   }
 
-  private boolean finishMessage(@NotNull ServiceMessageBuilder msg, int testId, int parentId) throws ParseException {
-    msg.addAttribute("nodeId", String.valueOf(testId));
-    msg.addAttribute("parentNodeId", String.valueOf(parentId));
-    return doProcessServiceMessages(msg.toString());
+  private void testOutput(@NotNull Test test, @NotNull String text, boolean stdOut) {
+    final GeneralTestEventsProcessor processor = myProcessor;
+    if (processor != null) {
+      processor.onTestOutput(new TestOutputEvent(test.getBaseName(), String.valueOf(test.getId()), text, stdOut));
+    }
   }
 
-  private void addLocationHint(ServiceMessageBuilder messageBuilder, Item item) {
+  @NotNull
+  private String getLocationHint(@NotNull Item item) {
     String location = "unknown";
     String loc;
 
@@ -451,104 +486,270 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
       location = loc + "," + nameList;
     }
 
-    messageBuilder.addAttribute("locationHint", location);
-  }
-
-  private static long getTimestamp(JsonObject obj) throws ParseException {
-    return getLong(obj, JSON_MILLIS);
+    return location;
   }
 
-  private static long getLong(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type long: " + val, 0);
-    return val.getAsLong();
-  }
-
-  private static boolean getBoolean(JsonObject obj, String name) throws ParseException {
-    JsonElement val = obj == null ? null : obj.get(name);
-    if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type boolean: " + val, 0);
-    return val.getAsBoolean();
+  private static long getTimestamp(@NotNull Event event) throws ParseException {
+    if (event.time < 0) throw new ParseException("Value is not type long: " + JSON_MILLIS, 0);
+    return event.time;
   }
 
   @NotNull
-  private Test getTest(JsonObject obj) throws ParseException {
-    return getItem(obj, myTestData);
-  }
+  private Test getTest(@NotNull Event event) throws ParseException {
+    if (event.test != null) {
+      if (!event.test.hasId) throw new ParseException("No testId in json object", 0);
+      final Test test = Test.from(event.test, myGroupData, mySuiteData);
+      myTestData.put(test.getId(), test);
+      return test;
+    }
 
-  @NotNull
-  private Group getGroup(JsonObject obj) throws ParseException {
-    return getItem(obj, myGroupData);
+    if (event.testId < 0) throw new ParseException("No testId in json object", 0);
+    final Test test = myTestData.get(event.testId);
+    if (test == null) throw new ParseException("Unknown testId: " + event.testId, 0);
+    return test;
   }
 
   @NotNull
-  private Suite getSuite(JsonObject obj) throws ParseException {
-    return getItem(obj, mySuiteData);
+  private Group getGroup(@Nullable ItemData data) throws ParseException {
+    if (data == null) throw new ParseException("Unexpected null json object", 0);
+    if (!data.hasId) throw new ParseException("No id in json object", 0);
+    final Group group = Group.from(data, myGroupData, mySuiteData);
+    myGroupData.put(group.getId(), group);
+    return group;
   }
 
   @NotNull
-  private <T extends Item> T getItem(JsonObject obj, Map<Integer, T> items) throws ParseException {
-    if (obj == null) throw new ParseException("Unexpected null json object", 0);
-    T item;
-    JsonElement id = obj.get(JSON_ID);
-    if (id != null) {
-      if (items == myTestData) {
-        @SuppressWarnings("unchecked") T type = (T)Test.from(obj, myGroupData, mySuiteData);
-        item = type;
-      }
-      else if (items == myGroupData) {
-        @SuppressWarnings("unchecked") T group = (T)Group.from(obj, myGroupData, mySuiteData);
-        item = group;
+  private Suite getSuite(@Nullable ItemData data) throws ParseException {
+    if (data == null) throw new ParseException("Unexpected null json object", 0);
+    if (!data.hasId) throw new ParseException("No id in json object", 0);
+    final Suite suite = Suite.from(data);
+    mySuiteData.put(suite.getId(), suite);
+    return suite;
+  }
+
+  /**
+   * Fields of a single package:test JSON event that the converter is interested in, read in one pass without building a JSON tree.
+   */
+  private static final class Event {
+    private String type;
+    private long time = -1;
+    private int testId = -1;
+    private int count = -1;
+    private String result;
+    private String message;
+    private String error;
+    private String stackTrace;
+    private Boolean isFailure;
+    private ItemData test;
+    private ItemData group;
+    private ItemData suite;
+
+    /**
+     * @return {@code null} if the text is not a JSON object
+     */
+    @Nullable
+    static Event read(@NotNull String text) {
+      try (JsonReader reader = new JsonReader(new StringReader(text))) {
+        reader.setLenient(true);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return null;
+
+        final Event event = new Event();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          final String name = reader.nextName();
+          switch (name) {
+            case JSON_TYPE:
+              event.type = nextString(reader);
+              break;
+            case JSON_MILLIS:
+              event.time = nextLong(reader);
+              break;
+            case JSON_TEST_ID:
+              event.testId = nextInt(reader);
+              break;
+            case JSON_COUNT:
+              event.count = nextInt(reader);
+              break;
+            case JSON_RESULT:
+              event.result = nextString(reader);
+              break;
+            case JSON_MESSAGE:
+              event.message = nextString(reader);
+              break;
+            case JSON_ERROR_MESSAGE:
+              event.error = nextString(reader);
+              break;
+            case JSON_STACK_TRACE:
+              event.stackTrace = nextString(reader);
+              break;
+            case JSON_IS_FAILURE:
+              event.isFailure = nextBoolean(reader);
+              break;
+            case DEF_TEST:
+              event.test = ItemData.read(reader);
+              break;
+            case DEF_GROUP:
+              event.group = ItemData.read(reader);
+              break;
+            case DEF_SUITE:
+              event.suite = ItemData.read(reader);
+              break;
+            default:
+              reader.skipValue();
+          }
+        }
+        reader.endObject();
+        return event;
       }
-      else {
-        @SuppressWarnings("unchecked") T suite = (T)Suite.from(obj);
-        item = suite;
+      catch (IOException | IllegalStateException | NumberFormatException e) {
+        return null;
       }
-      items.put(id.getAsInt(), item);
     }
-    else {
-      JsonElement testId = obj.get(JSON_TEST_ID);
-      if (testId != null) {
-        int baseId = testId.getAsInt();
-        item = items.get(baseId);
+  }
+
+  private static final class ItemData {
+    private boolean hasId;
+    private int id = -1;
+    private String name;
+    private int suiteId = -1;
+    private int parentId = -1;
+    private int lastGroupId = -1;
+    private int testCount = -1;
+    private int line = -1;
+    private int column = -1;
+    private String url;
+    private String path;
+    private String platform;
+    private final Metadata metadata = new Metadata();
+
+    /**
+     * @return {@code null} if the value is JSON {@code null}
+     */
+    @Nullable
+    static ItemData read(@NotNull JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        return null;
       }
-      else {
-        JsonElement testObj = obj.get(DEF_TEST);
-        if (testObj != null) {
-          return getItem(testObj.getAsJsonObject(), items);
-        }
-        else {
-          throw new ParseException("No testId in json object", 0);
+
+      final ItemData data = new ItemData();
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        switch (name) {
+          case JSON_ID:
+            data.id = nextInt(reader);
+            data.hasId = data.id >= 0;
+            break;
+          case JSON_NAME:
+            data.name = nextString(reader);
+            break;
+          case JSON_SUITE_ID:
+            data.suiteId = nextInt(reader);
+            break;
+          case JSON_PARENT_ID:
+            data.parentId = nextInt(reader);
+            break;
+          case JSON_GROUP_IDS:
+            data.lastGroupId = readLastInt(reader);
+            break;
+          case JSON_TEST_COUNT:
+            data.testCount = nextInt(reader);
+            break;
+          case JSON_LINE:
+            data.line = nextInt(reader);
+            break;
+          case JSON_COLUMN:
+            data.column = nextInt(reader);
+            break;
+          case JSON_URL:
+            data.url = nextString(reader);
+            break;
+          case JSON_PATH:
+            data.path = nextString(reader);
+            break;
+          case JSON_PLATFORM:
+            data.platform = nextString(reader);
+            break;
+          case DEF_METADATA:
+            data.metadata.read(reader);
+            break;
+          default:
+            reader.skipValue();
         }
       }
+      reader.endObject();
+      return data;
     }
-    return item;
-  }
 
-  @NotNull
-  private static String getErrorMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_ERROR_MESSAGE, "<no error message>");
+    private static int readLastInt(@NotNull JsonReader reader) throws IOException {
+      if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+        reader.skipValue();
+        return -1;
+      }
+
+      int last = -1;
+      reader.beginArray();
+      while (reader.hasNext()) {
+        last = nextInt(reader);
+      }
+      reader.endArray();
+      return last;
+    }
   }
 
-  @NotNull
-  private static String getMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_MESSAGE, "<no message>");
+  /**
+   * @return the string value, {@code null} for JSON {@code null}
+   */
+  @Nullable
+  private static String nextString(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token == JsonToken.NULL) {
+      reader.nextNull();
+      return null;
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return String.valueOf(reader.nextBoolean());
+    }
+    if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+      reader.skipValue();
+      return null;
+    }
+    return reader.nextString();
   }
 
-  @NotNull
-  private static String getStackTrace(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_STACK_TRACE, "<no stack trace>");
+  /**
+   * @return the int value, -1 if the value is not a number
+   */
+  private static int nextInt(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+      reader.skipValue();
+      return -1;
+    }
+    return reader.nextInt();
   }
 
-  @NotNull
-  private static String getResult(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_RESULT, "<no result>");
+  private static long nextLong(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+      reader.skipValue();
+      return -1;
+    }
+    return reader.nextLong();
   }
 
-  @NotNull
-  private static String nonNullJsonValue(JsonObject obj, @NotNull String id, @NotNull String def) {
-    JsonElement val = obj == null ? null : obj.get(id);
-    if (val == null || !val.isJsonPrimitive()) return def;
-    return val.getAsString();
+  @Nullable
+  private static Boolean nextBoolean(@NotNull JsonReader reader) throws IOException {
+    final JsonToken token = reader.peek();
+    if (token == JsonToken.BOOLEAN) {
+      return reader.nextBoolean();
+    }
+    if (token == JsonToken.STRING) {
+      return Boolean.parseBoolean(reader.nextString());
+    }
+    reader.skipValue();
+    return null;
   }
 
   private static class Item {
@@ -562,30 +763,8 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private final int myColumn;
     private final String myUrl;
 
-    static int extractInt(JsonObject obj, String memberName) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || !elem.isJsonPrimitive()) return -1;
-      return elem.getAsInt();
-    }
-
-    static String extractString(JsonObject obj, String memberName, String defaultResult) {
-      JsonElement elem = obj.get(memberName);
-      if (elem == null || elem.isJsonNull()) return defaultResult;
-      return elem.getAsString();
-    }
-
-    static Metadata extractMetadata(JsonObject obj) {
-      return Metadata.from(obj.get(DEF_METADATA));
-    }
-
-    static Suite lookupSuite(JsonObject obj, Map<Integer, Suite> suites) {
-      JsonElement suiteObj = obj.get(JSON_SUITE_ID);
-      Suite suite = null;
-      if (suiteObj != null && suiteObj.isJsonPrimitive()) {
-        int parentId = suiteObj.getAsInt();
-        suite = suites.get(parentId);
-      }
-      return suite;
+    static Suite lookupSuite(@NotNull ItemData data, @NotNull TIntObjectHashMap<Suite> suites) {
+      return data.suiteId >= 0 ? suites.get(data.suiteId) : null;
     }
 
     Item(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
@@ -711,17 +890,11 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private boolean myTestStartReported = false;
     private boolean myTestErrorReported = false;
 
-    static Test from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      int[] groupIds = GSON.fromJson(obj.get(JSON_GROUP_IDS), (Type)int[].class);
-      Group parent = null;
-      if (groupIds != null && groupIds.length > 0) {
-        parent = groups.get(groupIds[groupIds.length - 1]);
-      }
-      Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Test(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                      line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1, extractString(obj, JSON_URL, null));
+    static Test from(@NotNull ItemData data, @NotNull TIntObjectHashMap<Group> groups, @NotNull TIntObjectHashMap<Suite> suites) {
+      Group parent = data.lastGroupId >= 0 ? groups.get(data.lastGroupId) : null;
+      Suite suite = lookupSuite(data, suites);
+      return new Test(data.id, data.name != null ? data.name : NO_NAME, parent, suite, data.metadata,
+                      data.line < 0 ? -1 : data.line - 1, data.column < 0 ? -1 : data.column - 1, data.url);
     }
 
     Test(int id, String name, Group parent, Suite suite, Metadata metadata, int line, int column, String url) {
@@ -739,19 +912,11 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     private int myTestCount = 0;
     private int myDoneTestsCount = 0;
 
-    static Group from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      JsonElement parentObj = obj.get(JSON_PARENT_ID);
-      Group parent = null;
-      if (parentObj != null && parentObj.isJsonPrimitive()) {
-        int parentId = parentObj.getAsInt();
-        parent = groups.get(parentId);
-      }
-      Suite suite = lookupSuite(obj, suites);
-      final int line = extractInt(obj, JSON_LINE);
-      final int column = extractInt(obj, JSON_COLUMN);
-      return new Group(extractInt(obj, JSON_ID), extractString(obj, JSON_NAME, NO_NAME), parent, suite, extractMetadata(obj),
-                       extractInt(obj, JSON_TEST_COUNT), line < 0 ? -1 : line - 1, column < 0 ? -1 : column - 1,
-                       extractString(obj, JSON_URL, null));
+    static Group from(@NotNull ItemData data, @NotNull TIntObjectHashMap<Group> groups, @NotNull TIntObjectHashMap<Suite> suites) {
+      Group parent = data.parentId >= 0 ? groups.get(data.parentId) : null;
+      Suite suite = lookupSuite(data, suites);
+      return new Group(data.id, data.name != null ? data.name : NO_NAME, parent, suite, data.metadata, data.testCount,
+                       data.line < 0 ? -1 : data.line - 1, data.column < 0 ? -1 : data.column - 1, data.url);
     }
 
     Group(int id, String name, Group parent, Suite suite, Metadata metadata, int count, int line, int column, String url) {
@@ -780,8 +945,8 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
     static Metadata NoMetadata = new Metadata();
     static String NONE = "<none>";
 
-    static Suite from(JsonObject obj) {
-      return new Suite(extractInt(obj, JSON_ID), extractString(obj, JSON_PATH, NONE), extractString(obj, JSON_PLATFORM, NONE));
+    static Suite from(@NotNull ItemData data) {
+      return new Suite(data.id, data.path != null ? data.path : NONE, data.platform != null ? data.platform : NONE);
     }
 
     private final String myPlatform;
@@ -805,12 +970,29 @@ public class DartTestEventsConverter extends OutputToGeneralTestEventsConverter
   }
 
   private static class Metadata {
-    @SuppressWarnings("unused") private boolean skip; // assigned by GSON via reflection
-    @SuppressWarnings("unused") private String skipReason; // assigned by GSON via reflection
+    private boolean skip;
+    private String skipReason;
+
+    void read(@NotNull JsonReader reader) throws IOException {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        reader.skipValue();
+        return;
+      }
 
-    static Metadata from(JsonElement elem) {
-      if (elem == null) return new Metadata();
-      return GSON.fromJson(elem, (Type)Metadata.class);
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        if (JSON_SKIP.equals(name)) {
+          skip = Boolean.TRUE.equals(nextBoolean(reader));
+        }
+        else if (JSON_SKIP_REASON.equals(name)) {
+          skipReason = nextString(reader);
+        }
+        else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
     }
   }
 }
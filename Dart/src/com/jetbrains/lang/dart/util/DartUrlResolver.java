@@ -1,8 +1,12 @@
 package com.jetbrains.lang.dart.util;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.PairConsumer;
 import com.jetbrains.lang.dart.ide.index.DartLibraryIndex;
 import com.jetbrains.lang.dart.sdk.DartSdk;
@@ -10,6 +14,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class DartUrlResolver {
 
@@ -27,6 +33,7 @@ public abstract class DartUrlResolver {
   /**
    * Returned instance becomes obsolete if/when pubspec.yaml file is added or deleted or if module-specific custom package roots are changed,
    * so do not keep returned instance too long.
+   * Resolvers of pubspec-based contexts are cached per pubspec.yaml file until it, its .packages file, project roots, SDK or file structure change.
    *
    * @param project
    * @param contextFile may be pubspec.yaml file, its parent folder or any file/folder within this parent folder; in case of import statements resolve this must be an analyzed file
@@ -34,7 +41,22 @@ public abstract class DartUrlResolver {
    */
   @NotNull
   public static DartUrlResolver getInstance(final @NotNull Project project, final @NotNull VirtualFile contextFile) {
-    return new DartUrlResolverImpl(project, contextFile);
+    final VirtualFile pubspecYamlFile = PubspecYamlUtil.findPubspecYamlFile(project, contextFile);
+    if (pubspecYamlFile == null) {
+      // package map comes from the module of the context file
+      return new DartUrlResolverImpl(project, contextFile, null);
+    }
+
+    final Map<VirtualFile, DartUrlResolverImpl> resolvers = CachedValuesManager.getManager(project).getCachedValue(project, () ->
+      CachedValueProvider.Result.create(new ConcurrentHashMap<VirtualFile, DartUrlResolverImpl>(),
+                                        ProjectRootManager.getInstance(project),
+                                        VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS));
+    final DartUrlResolverImpl cached = resolvers.get(pubspecYamlFile);
+    if (cached != null && cached.isUpToDate()) return cached;
+
+    final DartUrlResolverImpl resolver = new DartUrlResolverImpl(project, contextFile, pubspecYamlFile);
+    resolvers.put(pubspecYamlFile, resolver);
+    return resolver;
   }
 
   @Nullable
@@ -2,6 +2,8 @@
 package com.jetbrains.lang.dart.util;
 
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
@@ -43,11 +45,17 @@ public class DartUrlResolverImpl extends DartUrlResolver {
   @NotNull private final Map<String, VirtualFile> myLivePackageNameToDirMap = new THashMap<>();
   // myPackagesMapFromLib is not empty only if pubspec.yaml file is null
   @NotNull private final Map<String, List<String>> myPackagesMapFromLib = new THashMap<>();
+  // pubspec.yaml and .packages files which the maps above are built from, with their modification stamps
+  @NotNull private final Map<VirtualFile, Long> myConfigFileStamps = new THashMap<>();
 
   public DartUrlResolverImpl(final @NotNull Project project, final @NotNull VirtualFile contextFile) {
+    this(project, contextFile, PubspecYamlUtil.findPubspecYamlFile(project, contextFile));
+  }
+
+  DartUrlResolverImpl(final @NotNull Project project, final @NotNull VirtualFile contextFile, final @Nullable VirtualFile pubspecYamlFile) {
     myProject = project;
     myDartSdk = DartSdk.getDartSdk(project);
-    myPubspecYamlFile = PubspecYamlUtil.findPubspecYamlFile(myProject, contextFile);
+    myPubspecYamlFile = pubspecYamlFile;
 
     initLivePackageNameToDirMap();
 
@@ -56,6 +64,32 @@ public class DartUrlResolverImpl extends DartUrlResolver {
     }
   }
 
+  /**
+   * @return {@code false} if pubspec.yaml or .packages files that this resolver is built from have changed since then.
+   * Changes in SDK, libraries and file structure are not checked here.
+   */
+  boolean isUpToDate() {
+    for (Map.Entry<VirtualFile, Long> entry : myConfigFileStamps.entrySet()) {
+      if (!entry.getKey().isValid() || entry.getValue() != getConfigFileStamp(entry.getKey())) return false;
+    }
+    return true;
+  }
+
+  private void addConfigFile(final @NotNull VirtualFile file) {
+    myConfigFileStamps.put(file, getConfigFileStamp(file));
+  }
+
+  /**
+   * Stamps match the ones the parsed content is cached by: pubspec.yaml is read from its document if there is one,
+   * see {@link PubspecYamlUtil}, while .packages is always read from disk, see {@link DotPackagesFileUtil}.
+   */
+  private static long getConfigFileStamp(final @NotNull VirtualFile file) {
+    if (!PubspecYamlUtil.PUBSPEC_YAML.equals(file.getName())) return file.getModificationCount();
+
+    final Document cachedDocument = FileDocumentManager.getInstance().getCachedDocument(file);
+    return cachedDocument != null ? cachedDocument.getModificationStamp() : file.getModificationCount();
+  }
+
   @Override
   @Nullable
   public VirtualFile getPubspecYamlFile() {
@@ -214,7 +248,9 @@ public class DartUrlResolverImpl extends DartUrlResolver {
     if (myPubspecYamlFile == null || baseDir == null) return;
     final VirtualFile dotPackagesFile = baseDir.findChild(DotPackagesFileUtil.DOT_PACKAGES);
 
+    addConfigFile(myPubspecYamlFile);
     if (dotPackagesFile != null && !dotPackagesFile.isDirectory()) {
+      addConfigFile(dotPackagesFile);
       final Map<String, String> packagesMap = DotPackagesFileUtil.getPackagesMap(dotPackagesFile);
       if (packagesMap != null) {
         for (Map.Entry<String, String> entry : packagesMap.entrySet()) {
@@ -235,8 +271,13 @@ public class DartUrlResolverImpl extends DartUrlResolver {
         myLivePackageNameToDirMap.put(name, libFolder);
       }
 
-      PubspecYamlUtil
-        .processInProjectPathPackagesRecursively(myProject, myPubspecYamlFile, myLivePackageNameToDirMap::put);
+      PubspecYamlUtil.processInProjectPathPackagesRecursively(myProject, myPubspecYamlFile, (packageName, packageDir) -> {
+        myLivePackageNameToDirMap.put(packageName, packageDir);
+        final VirtualFile pathPackagePubspec = packageDir.getParent().findChild(PubspecYamlUtil.PUBSPEC_YAML);
+        if (pathPackagePubspec != null) {
+          addConfigFile(pathPackagePubspec);
+        }
+      });
     }
   }
 
@@ -0,0 +1,54 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.analyzer;
+
+import com.intellij.codeInsight.completion.PrefixMatcher;
+import com.intellij.codeInsight.completion.impl.CamelHumpMatcher;
+import com.jetbrains.lang.dart.DartCodeInsightFixtureTestCase;
+import org.dartlang.analysis.server.protocol.AvailableSuggestion;
+import org.dartlang.analysis.server.protocol.AvailableSuggestionSet;
+import org.dartlang.analysis.server.protocol.Element;
+import org.dartlang.analysis.server.protocol.ElementKind;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DartSuggestionSetIndexTest extends DartCodeInsightFixtureTestCase {
+
+  public void testPrefixCharsFilter() {
+    assertSameElements(getProcessedLabels(new CamelHumpMatcher("List")), "ArrayList", "List");
+    assertSameElements(getProcessedLabels(new CamelHumpMatcher("HMap")), "HashMap");
+  }
+
+  public void testTypoTolerantMatcherNotFiltered() {
+    final PrefixMatcher matcher = new CamelHumpMatcher("Lsit", true, true);
+    assertSameElements(getProcessedLabels(matcher), "ArrayList", "List", "HashMap", "Map");
+
+    // 'z' is in no label, but a typo tolerant matcher may accept a label with a different character
+    assertSameElements(getProcessedLabels(new CamelHumpMatcher("Lizt", true, true)), "ArrayList", "List", "HashMap", "Map");
+    assertEmpty(getProcessedLabels(new CamelHumpMatcher("Lizt", true, false)));
+  }
+
+  public void testNonAsciiPrefixNotFiltered() {
+    assertSameElements(getProcessedLabels(new CamelHumpMatcher("Дшые")), "ArrayList", "List", "HashMap", "Map");
+  }
+
+  @NotNull
+  private static List<String> getProcessedLabels(@NotNull PrefixMatcher matcher) {
+    final DartSuggestionSetIndex index = new DartSuggestionSetIndex(new AvailableSuggestionSet(
+      1, "dart:collection", Arrays.asList(createSuggestion("ArrayList", ElementKind.CLASS), createSuggestion("List", ElementKind.CLASS),
+                                          createSuggestion("HashMap", ElementKind.CLASS), createSuggestion("Map", ElementKind.CLASS),
+                                          createSuggestion("listen", ElementKind.FUNCTION))));
+    final List<String> labels = new ArrayList<>();
+    index.processSuggestions(Collections.singleton(ElementKind.CLASS), matcher, suggestion -> labels.add(suggestion.getLabel()));
+    return labels;
+  }
+
+  @NotNull
+  private static AvailableSuggestion createSuggestion(@NotNull String label, @NotNull String kind) {
+    final Element element = new Element(kind, label, null, 0, null, null, null);
+    return new AvailableSuggestion(label, "dart:collection", element, null, null, null, null, null, null);
+  }
+}
@@ -0,0 +1,145 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.jetbrains.lang.dart.ide.index;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.FileContentImpl;
+import com.jetbrains.lang.dart.DartCodeInsightFixtureTestCase;
+import com.jetbrains.lang.dart.DartComponentType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+
+import static com.jetbrains.lang.dart.ide.index.DartImportOrExportInfo.Kind;
+
+public class DartIndexUtilTest extends DartCodeInsightFixtureTestCase {
+
+  public void testIndexData() throws IOException {
+    final VirtualFile file = myFixture.addFileToProject("foo.dart", "library foo.bar;\n" +
+                                                                     "import 'dart:math' as math show max, min;\n" +
+                                                                     "export \"src/a.dart\" hide A;\n" +
+                                                                     "part r'src/part.dart';\n" +
+                                                                     "var topVar, otherVar = 1;\n" +
+                                                                     "int get topGetter => 1;\n" +
+                                                                     "typedef int Callback(int i);\n" +
+                                                                     "void topFunction() { var local; }\n" +
+                                                                     "class Foo<T> extends Object {\n" +
+                                                                     "  Foo();\n" +
+                                                                     "  Foo.named();\n" +
+                                                                     "  factory Foo.create() => null;\n" +
+                                                                     "  int field, otherField;\n" +
+                                                                     "  int get prop => 1;\n" +
+                                                                     "  void method() { var local2; }\n" +
+                                                                     "  bool operator ==(other) => true;\n" +
+                                                                     "}\n" +
+                                                                     "mixin M {\n" +
+                                                                     "  void mixinMethod() {}\n" +
+                                                                     "}\n" +
+                                                                     "enum E { one, two }\n" +
+                                                                     "class Alias = Object with M;\n").getVirtualFile();
+    final DartFileIndexData data = DartIndexUtil.indexFile(FileContentImpl.createByFile(file));
+
+    assertEquals("foo.bar", data.getLibraryName());
+    assertFalse(data.isPart());
+    assertSameElements(data.getClassNames(), "Foo", "M", "E", "Alias");
+    assertContainsElements(data.getSymbols(), "topVar", "otherVar", "topGetter", "Callback", "topFunction", "Foo", "named", "create",
+                           "field", "otherField", "prop", "method", "==", "M", "mixinMethod", "E", "one", "two", "Alias");
+    assertDoesntContain(data.getSymbols(), "T", "local", "local2", "math", "max");
+    assertEquals(Collections.singletonList("src/part.dart"), data.getPartUris());
+
+    final Map<String, DartComponentInfo> expectedInfos = new HashMap<>();
+    expectedInfos.put("topVar", new DartComponentInfo(DartComponentType.GLOBAL_VARIABLE, "foo.bar"));
+    expectedInfos.put("otherVar", new DartComponentInfo(DartComponentType.GLOBAL_VARIABLE, "foo.bar"));
+    expectedInfos.put("topGetter", new DartComponentInfo(DartComponentType.FUNCTION, "foo.bar"));
+    expectedInfos.put("Callback", new DartComponentInfo(DartComponentType.TYPEDEF, "foo.bar"));
+    expectedInfos.put("topFunction", new DartComponentInfo(DartComponentType.FUNCTION, "foo.bar"));
+    expectedInfos.put("Foo", new DartComponentInfo(DartComponentType.CLASS, "foo.bar"));
+    expectedInfos.put("M", new DartComponentInfo(DartComponentType.CLASS, "foo.bar"));
+    expectedInfos.put("E", new DartComponentInfo(DartComponentType.CLASS, "foo.bar"));
+    expectedInfos.put("Alias", new DartComponentInfo(DartComponentType.CLASS, "foo.bar"));
+    expectedInfos.put("math", new DartComponentInfo(DartComponentType.LABEL, null));
+    assertEquals(expectedInfos, new HashMap<>(data.getComponentInfoMap()));
+
+    assertEquals(Arrays.asList(new DartImportOrExportInfo(Kind.Import, "dart:math", "math", ContainerUtil.newHashSet("max", "min"),
+                                                          Collections.emptySet()),
+                               new DartImportOrExportInfo(Kind.Export, "src/a.dart", null, Collections.emptySet(),
+                                                          Collections.singleton("A"))),
+                 data.getImportAndExportInfos());
+  }
+
+  public void testPart() throws IOException {
+    final VirtualFile file = myFixture.addFileToProject("part.dart", "part of foo.bar;\nclass Bar {}").getVirtualFile();
+    final DartFileIndexData data = DartIndexUtil.indexFile(FileContentImpl.createByFile(file));
+
+    assertTrue(data.isPart());
+    assertNull(data.getLibraryName());
+    assertSameElements(data.getClassNames(), "Bar");
+  }
+
+  public void testIndexDataSharedByAllIndexes() throws IOException {
+    final VirtualFile file = myFixture.addFileToProject("foo.dart", "class Foo {}").getVirtualFile();
+    final FileContent content = FileContentImpl.createByFile(file);
+    assertSame(DartIndexUtil.indexFile(content), DartIndexUtil.indexFile(content));
+  }
+
+  public void testIndexingPerformance() throws IOException {
+    final List<VirtualFile> files = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      files.add(myFixture.addFileToProject("lib/file" + i + ".dart", createSyntheticLibrary(i)).getVirtualFile());
+    }
+
+    final List<FileBasedIndexExtension<?, ?>> indexes = Arrays.asList(new DartClassIndex(), new DartComponentIndex(),
+                                                                      new DartImportAndExportIndex(), new DartLibraryIndex(),
+                                                                      new DartPartUriIndex(), new DartSymbolIndex());
+    final List<FileContent> contents = new ArrayList<>();
+
+    PlatformTestUtil.startPerformanceTest("Dart file indexing", 3000, () -> {
+      contents.clear();
+      for (VirtualFile file : files) {
+        final FileContent content = FileContentImpl.createByFile(file);
+        for (FileBasedIndexExtension<?, ?> index : indexes) {
+          index.getIndexer().map(content);
+        }
+        contents.add(content);
+      }
+    }).assertTiming();
+
+    final DartFileIndexData data = DartIndexUtil.indexFile(contents.get(0));
+    assertEquals("lib0", data.getLibraryName());
+    assertEquals(21, data.getClassNames().size());
+    assertContainsElements(data.getSymbols(), "Class0_19", "method0_19_9", "field0_19_9", "function0");
+  }
+
+  /**
+   * A library with 20 classes of 10 fields and 10 methods each and a top-level function with a large body.
+   */
+  @NotNull
+  private static String createSyntheticLibrary(int index) {
+    final StringBuilder text = new StringBuilder();
+    text.append("library lib").append(index).append(";\n");
+    text.append("import 'dart:async';\n");
+    text.append("import 'file").append(index + 1).append(".dart' as next show Class").append(index + 1).append("_0;\n");
+    for (int i = 0; i < 20; i++) {
+      text.append("class Class").append(index).append("_").append(i).append(" {\n");
+      for (int j = 0; j < 10; j++) {
+        text.append("  int field").append(index).append("_").append(i).append("_").append(j).append(" = ").append(j).append(";\n");
+        text.append("  Future<int> method").append(index).append("_").append(i).append("_").append(j).append("(int p) async {\n");
+        text.append("    final result = p + field").append(index).append("_").append(i).append("_").append(j).append(";\n");
+        text.append("    return result;\n");
+        text.append("  }\n");
+      }
+      text.append("}\n");
+    }
+    text.append("enum Kind").append(index).append(" { a, b, c }\n");
+    text.append("void function").append(index).append("() {\n");
+    for (int i = 0; i < 200; i++) {
+      text.append("  print('line ").append(i).append("');\n");
+    }
+    text.append("}\n");
+    return text.toString();
+  }
+}
@@ -339,6 +339,82 @@ public class DartTestEventsConverterTest extends BaseSMTRunnerTestCase {
     runTest(events, signals, new int[]{});
   }
 
+  public void testReplayPerformance() {
+    final List<String> events = createRecordedEvents(50_000);
+    final Key key = new Key("stdout");
+    final int[] startedTests = new int[1];
+
+    PlatformTestUtil.startPerformanceTest("Dart test events replay", 3000, () -> {
+      final DartTestEventsConverter converter =
+        new DartTestEventsConverter(DartTestRunningState.DART_FRAMEWORK_NAME, createConsoleProperties(),
+                                    DartUrlResolver.getInstance(getProject(), getSourceRoot()));
+      final DartTestEventsProcessor processor = new DartTestEventsProcessor(getProject(), DartTestRunningState.DART_FRAMEWORK_NAME) {
+        @Override
+        public void onTestStarted(@NotNull TestStartedEvent testStartedEvent) {
+          startedTests[0]++;
+        }
+
+        @Override
+        public void onSuiteStarted(@NotNull TestSuiteStartedEvent suiteStartedEvent) {
+        }
+      };
+      converter.setProcessor(processor);
+      startedTests[0] = 0;
+      try {
+        for (String event : events) {
+          converter.process(event, key);
+        }
+      }
+      finally {
+        Disposer.dispose(converter);
+        Disposer.dispose(processor);
+      }
+    }).assertTiming();
+
+    assertEquals(50_000, startedTests[0]);
+  }
+
+  /**
+   * Output of {@code pub run test --reporter json} for a suite with {@code testCount} tests, 100 tests per group,
+   * every test printing a line and every 10th test failing.
+   */
+  @NotNull
+  private static List<String> createRecordedEvents(int testCount) {
+    final List<String> events = new ArrayList<>();
+    events.add("{\"protocolVersion\":\"0.1.0\",\"runnerVersion\":\"1.14.3\",\"pid\":4321,\"type\":\"start\",\"time\":0}\n");
+    events.add("{\"count\":1,\"type\":\"allSuites\",\"time\":0}\n");
+    events.add("{\"suite\":{\"id\":0,\"platform\":\"vm\",\"path\":\"test/big_test.dart\"},\"type\":\"suite\",\"time\":0}\n");
+    events.add("{\"test\":{\"id\":1,\"name\":\"loading test/big_test.dart\",\"suiteID\":0,\"groupIDs\":[],\"metadata\":{\"skip\":false,\"skipReason\":null},\"line\":null,\"column\":null,\"url\":null},\"type\":\"testStart\",\"time\":1}\n");
+    events.add("{\"testID\":1,\"result\":\"success\",\"skipped\":false,\"hidden\":true,\"type\":\"testDone\",\"time\":250}\n");
+    events.add("{\"group\":{\"id\":2,\"suiteID\":0,\"parentID\":null,\"name\":null,\"metadata\":{\"skip\":false,\"skipReason\":null},\"testCount\":" + testCount +
+               ",\"line\":null,\"column\":null,\"url\":null},\"type\":\"group\",\"time\":255}\n");
+
+    int id = 3;
+    int groupId = -1;
+    for (int i = 0; i < testCount; i++) {
+      final long time = 256 + i;
+      if (i % 100 == 0) {
+        groupId = id++;
+        events.add("{\"group\":{\"id\":" + groupId + ",\"suiteID\":0,\"parentID\":2,\"name\":\"group " + groupId +
+                   "\",\"metadata\":{\"skip\":false,\"skipReason\":null},\"testCount\":" + Math.min(100, testCount - i) +
+                   ",\"line\":10,\"column\":3,\"url\":\"file:///project/test/big_test.dart\"},\"type\":\"group\",\"time\":" + time + "}\n");
+      }
+
+      final int testId = id++;
+      events.add("{\"test\":{\"id\":" + testId + ",\"name\":\"group " + groupId + " test " + testId + "\",\"suiteID\":0,\"groupIDs\":[2," + groupId +
+                 "],\"metadata\":{\"skip\":false,\"skipReason\":null},\"line\":12,\"column\":5,\"url\":null},\"type\":\"testStart\",\"time\":" + time + "}\n");
+      events.add("{\"testID\":" + testId + ",\"messageType\":\"print\",\"message\":\"output of test " + testId + "\",\"type\":\"print\",\"time\":" + time + "}\n");
+      if (i % 10 == 0) {
+        events.add("{\"testID\":" + testId + ",\"error\":\"Expected: <1>\\n  Actual: <2>\\n\",\"stackTrace\":\"package:test_api  expect\\ntest/big_test.dart 13:7  main.<fn>.<fn>\\n\",\"isFailure\":true,\"type\":\"error\",\"time\":" + time + "}\n");
+      }
+      events.add("{\"testID\":" + testId + ",\"result\":\"" + (i % 10 == 0 ? "failure" : "success") +
+                 "\",\"skipped\":false,\"hidden\":false,\"type\":\"testDone\",\"time\":" + (time + 1) + "}\n");
+    }
+
+    events.add("{\"success\":false,\"type\":\"done\",\"time\":" + (256 + testCount + 1) + "}\n");
+    return events;
+  }
+
   private void runTest(String[] jsonEvents, String[] signals, int[] parents) {
     DartTestEventsConverter parser = myEventsConverter;
     Key key = new Key("stdout");
@@ -160,4 +160,21 @@ public class DartWorkflowTest extends DartCodeInsightFixtureTestCase {
     assertEquals(rootPath + "/pub/global/cache/SomePackage/lib/somepack.dart", file.getPath());
     assertEquals("package:SomePackage/somepack.dart", resolver.getDartUrlForFile(file));
   }
+
+  public void testDartUrlResolverCachedPerPubspec() {
+    final VirtualFile pubspec = myFixture.addFileToProject("pubspec.yaml", "name: RootProject").getVirtualFile();
+    final VirtualFile libFile = myFixture.addFileToProject("lib/rootlib.dart", "").getVirtualFile();
+    myFixture.addFileToProject("other/lib/otherlib.dart", "");
+    final VirtualFile dotPackages = myFixture.addFileToProject(".packages", "").getVirtualFile();
+    myFixture.saveText(dotPackages, "RootProject:lib/\n");
+
+    final DartUrlResolver resolver = DartUrlResolver.getInstance(getProject(), pubspec);
+    assertSame(resolver, DartUrlResolver.getInstance(getProject(), libFile));
+    assertNull(resolver.findFileByDartUrl("package:OtherProject/otherlib.dart"));
+
+    myFixture.saveText(dotPackages, "RootProject:lib/\nOtherProject:other/lib/\n");
+    final DartUrlResolver newResolver = DartUrlResolver.getInstance(getProject(), libFile);
+    assertNotSame(resolver, newResolver);
+    assertNotNull(newResolver.findFileByDartUrl("package:OtherProject/otherlib.dart"));
+  }
 }
@@ -1,6 +1,7 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package jetbrains.communicator.core.impl.dispatcher;
 
+import com.intellij.openapi.util.text.StringUtil;
 import com.thoughtworks.xstream.XStream;
 import jetbrains.communicator.core.EventBroadcaster;
 import jetbrains.communicator.core.EventVisitor;
@@ -11,14 +12,22 @@ import jetbrains.communicator.core.dispatcher.MessageDispatcher;
 import jetbrains.communicator.core.impl.users.UserImpl;
 import jetbrains.communicator.core.users.User;
 import jetbrains.communicator.core.users.UserEvent;
+import jetbrains.communicator.util.DelayedSaver;
 import jetbrains.communicator.util.XStreamUtil;
 import org.apache.log4j.Logger;
 import org.picocontainer.Disposable;
 
 import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
+ * Pending messages of every user are kept in a separate file in the directory named after {@link #getEventsFileName()},
+ * so that a queued or delivered message rewrites only the queue of its user. Changed queues are written in the background
+ * by {@link DelayedSaver}, {@link #save()} writes them right away.
+ *
  * @author Kir
  */
 public abstract class AbstractMessageDispatcher implements MessageDispatcher, Disposable {
@@ -30,18 +39,24 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
 
   private final Object myUser2MessagesLock = new Object();
   private final Map<User, List<Message>> myUser2Messages = new HashMap<>();
+  private final Set<User> myChangedUsers = new HashSet<>();
   private final EventBroadcaster myEventBroadcaster;
 
+  private final Object mySaveLock = new Object();
+  private final DelayedSaver myDelayedSaver;
+
   protected AbstractMessageDispatcher(EventBroadcaster eventBroadcaster, File dataDir) {
     myDataDir = dataDir;
     myEventListener = new MyEventListener(eventBroadcaster);
     myEventBroadcaster = eventBroadcaster;
     load();
+    myDelayedSaver = new DelayedSaver(getMessagesDir(), this::save);
   }
 
   @Override
   public void dispose() {
     myEventListener.dispose();
+    myDelayedSaver.dispose();
     LOG.debug("Disposed.");
   }
 
@@ -53,18 +68,23 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
     }
     boolean result = message.send(user);
 
+    boolean changed = false;
     synchronized (myUser2MessagesLock) {
       List<Message> userMessages = getMessages(user);
       if (result) {
-        userMessages.remove(message);
+        changed = userMessages.remove(message);
         if (userMessages.size() == 0) {
           myUser2Messages.remove(user);
         }
       }
       else if (!userMessages.contains(message)) {
         userMessages.add(message);
+        changed = true;
       }
     }
+    if (changed) {
+      scheduleSave(user);
+    }
 
     if (LOG.isDebugEnabled()) {
       LOG.debug("End   dispatching " + message + " to " + user);
@@ -106,11 +126,7 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
 
   @Override
   public boolean sendNow(User user, Message message) {
-    boolean result = performDispatch(user, message);
-    if (result) {
-      save();
-    }
-    return result;
+    return performDispatch(user, message);
   }
 
   protected void addPendingMessage(User user, Message message) {
@@ -123,9 +139,12 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
           LOG.debug("Added pending message " + message + "\nfor user " + user);
         }
         userMessages.add(message);
-        save();
+      }
+      else {
+        return;
       }
     }
+    scheduleSave(user);
   }
 
   private List<Message> getMessages(User user) {
@@ -140,11 +159,33 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
   }
 
   protected final void load() {
+    DelayedSaver.flush(getMessagesDir());
+
+    File legacyFile = new File(myDataDir, getEventsFileName());
     synchronized (myUser2MessagesLock) {
-      Object pendingEventsStorable = XStreamUtil.fromXml(getXStream(), getFileName(), false);
+      Map<User, List<Message>> user2Messages = new HashMap<>();
+      Object pendingEventsStorable = XStreamUtil.fromXml(getXStream(), legacyFile.getAbsolutePath(), false);
       if (pendingEventsStorable instanceof MessagesStorable) {
-        loadFromStorableMessages((MessagesStorable)pendingEventsStorable);
+        user2Messages.putAll(((MessagesStorable)pendingEventsStorable).getUser2Messages());
+        myChangedUsers.addAll(user2Messages.keySet());
       }
+
+      File[] userFiles = getMessagesDir().listFiles();
+      if (userFiles != null) {
+        for (File userFile : userFiles) {
+          Object userStorable = XStreamUtil.fromXml(getXStream(), userFile.getAbsolutePath(), false);
+          if (userStorable instanceof MessagesStorable) {
+            user2Messages.putAll(((MessagesStorable)userStorable).getUser2Messages());
+          }
+        }
+      }
+      loadFromStorableMessages(new MessagesStorable(user2Messages));
+    }
+
+    if (legacyFile.isFile()) {
+      // move messages stored by the previous versions to the per-user files
+      save();
+      legacyFile.delete();
     }
   }
 
@@ -153,31 +194,74 @@ public abstract class AbstractMessageDispatcher implements MessageDispatcher, Di
     myUser2Messages.putAll(messagesStorable.getUser2Messages());
   }
 
-  private String getFileName() {
-    return new File(myDataDir, getEventsFileName()).getAbsolutePath();
+  private File getMessagesDir() {
+    return new File(myDataDir, StringUtil.trimEnd(getEventsFileName(), ".xml"));
+  }
+
+  private File getUserFile(User user) {
+    String name = user.getName();
+    try {
+      name = URLEncoder.encode(name, StandardCharsets.UTF_8.name());
+    }
+    catch (UnsupportedEncodingException e) {
+      LOG.error(e);
+    }
+    // the hash distinguishes names which differ only in case
+    return new File(getMessagesDir(), name + '.' + Integer.toHexString(user.getName().hashCode()) + ".xml");
   }
 
   private void removeUser(User user) {
     synchronized (myUser2MessagesLock) {
-      myUser2Messages.remove(user);
-      save();
+      if (myUser2Messages.remove(user) == null) return;
+    }
+    scheduleSave(user);
+  }
+
+  private void scheduleSave(User user) {
+    synchronized (myUser2MessagesLock) {
+      myChangedUsers.add(user);
+    }
+    if (myDelayedSaver != null) {
+      myDelayedSaver.schedule();
     }
   }
 
+  /**
+   * Writes the queues changed since the last save.
+   */
   protected void save() {
     if (myDataDir == null || !myDataDir.exists()) return;
 
     LOG.debug("Save start");
-    synchronized (myUser2MessagesLock) {
-      XStreamUtil.toXml(getXStream(), getFileName(), createStorableMessages());
+    synchronized (mySaveLock) {
+      Map<User, List<Message>> changedQueues = new HashMap<>();
+      synchronized (myUser2MessagesLock) {
+        for (User user : myChangedUsers) {
+          List<Message> messages = myUser2Messages.get(user);
+          changedQueues.put(user, messages == null ? null : new ArrayList<>(messages));
+        }
+        myChangedUsers.clear();
+      }
+
+      File messagesDir = getMessagesDir();
+      if (!changedQueues.isEmpty() && !messagesDir.isDirectory() && !messagesDir.mkdirs()) {
+        LOG.info("Cannot create " + messagesDir);
+        return;
+      }
+      for (Map.Entry<User, List<Message>> entry : changedQueues.entrySet()) {
+        File userFile = getUserFile(entry.getKey());
+        if (entry.getValue() == null || entry.getValue().isEmpty()) {
+          userFile.delete();
+        }
+        else {
+          XStreamUtil.toXml(getXStream(), userFile.getAbsolutePath(),
+                            new MessagesStorable(new HashMap<>(Collections.singletonMap(entry.getKey(), entry.getValue()))));
+        }
+      }
     }
     LOG.debug("Save finish");
   }
 
-  protected MessagesStorable createStorableMessages() {
-    return new MessagesStorable(myUser2Messages);
-  }
-
   private XStream getXStream() {
     if (myXStream == null) {
       myXStream = XStreamUtil.createXStream();
@@ -7,32 +7,55 @@ import jetbrains.communicator.core.EventVisitor;
 import jetbrains.communicator.core.IDEtalkAdapter;
 import jetbrains.communicator.core.IDEtalkEvent;
 import jetbrains.communicator.core.users.GroupEvent;
+import jetbrains.communicator.core.users.User;
 import jetbrains.communicator.core.users.UserEvent;
 import jetbrains.communicator.ide.IDEFacade;
+import jetbrains.communicator.util.DelayedSaver;
 import jetbrains.communicator.util.XStreamUtil;
+import org.apache.log4j.Logger;
 
-import java.io.File;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 /**
+ * Keeps the whole model in {@link #FILE_NAME} and appends changes of separate users and of the group list
+ * to {@link #JOURNAL_FILE_NAME}, so that a change doesn't rewrite the whole model. Changes are collected and written
+ * in the background by {@link DelayedSaver}; the journal is merged into the model file when it grows too big.
+ *
  * @author Kir
  */
 public class PersistentUserModelImpl extends UserModelImpl {
+  private static final Logger LOG = Logger.getLogger(PersistentUserModelImpl.class);
 
   public static final String FILE_NAME = "userModel.xml";
+  public static final String JOURNAL_FILE_NAME = "userModel.journal";
+
+  private static final long MIN_JOURNAL_SIZE_TO_COMPACT = 64 * 1024;
 
   private final transient File myDataDir;
   private final transient XStream myXStream;
   private final transient IDEtalkAdapter mySaver;
+  private final transient DelayedSaver myDelayedSaver;
   private transient boolean mySaved;
 
+  private final transient Object myJournalLock = new Object();
+  private final transient Set<User> myChangedUsers = new HashSet<>();
+  private final transient Set<User> myRemovedUsers = new HashSet<>();
+  private transient boolean myGroupsChanged;
+
   public PersistentUserModelImpl(EventBroadcaster broadcaster, IDEFacade ideFacade) {
     super(broadcaster);
     myDataDir = ideFacade.getConfigDir();
     myXStream = XStreamUtil.createXStream();
     myXStream.alias("user", UserImpl.class);
     myXStream.alias("users", getClass());
+    myXStream.alias("userUpdated", UserUpdated.class);
+    myXStream.alias("userRemoved", UserRemoved.class);
+    myXStream.alias("groupsUpdated", GroupsUpdated.class);
 
     readAll();
+    myDelayedSaver = new DelayedSaver(getUsersFile(), this::saveChanges);
 
     mySaver = new IDEtalkAdapter() {
       @Override
@@ -40,12 +63,21 @@ public class PersistentUserModelImpl extends UserModelImpl {
         event.accept(new EventVisitor(){
           @Override public void visitUserAdded(UserEvent.Added event) {
             super.visitUserAdded(event);
-            saveAll();
+            synchronized (myUsersGroupsLock) {
+              myRemovedUsers.remove(event.getUser());
+              myChangedUsers.add(event.getUser());
+              myGroupsChanged = true;
+            }
+            scheduleSave();
           }
 
           @Override public void visitUserRemoved(UserEvent.Removed event) {
             super.visitUserRemoved(event);
-            saveAll();
+            synchronized (myUsersGroupsLock) {
+              myChangedUsers.remove(event.getUser());
+              myRemovedUsers.add(event.getUser());
+            }
+            scheduleSave();
           }
 
           @Override public void visitUserUpdated(UserEvent.Updated event) {
@@ -55,13 +87,23 @@ public class PersistentUserModelImpl extends UserModelImpl {
                 BaseUserImpl.DISPLAY_NAME.equals(event.getPropertyName()) ||
                 BaseUserImpl.GROUP.equals(event.getPropertyName())
                 ) {
-              saveAll();
+              synchronized (myUsersGroupsLock) {
+                myChangedUsers.add(event.getUser());
+                myGroupsChanged |= BaseUserImpl.GROUP.equals(event.getPropertyName());
+              }
+              scheduleSave();
             }
           }
 
           @Override public void visitGroupEvent(GroupEvent event) {
             super.visitGroupEvent(event);
-            saveAll();
+            // users of a renamed group are moved without user events
+            User[] movedUsers = event instanceof GroupEvent.Updated ? getUsers(((GroupEvent.Updated)event).getNewGroup()) : new User[0];
+            synchronized (myUsersGroupsLock) {
+              myChangedUsers.addAll(Arrays.asList(movedUsers));
+              myGroupsChanged = true;
+            }
+            scheduleSave();
           }
         });
       }
@@ -71,33 +113,150 @@ public class PersistentUserModelImpl extends UserModelImpl {
 
   @Override
   public void dispose() {
+    myDelayedSaver.dispose();
     synchronized(myUsersGroupsLock) {
       myUsers.clear();
       myGroups.clear();
     }
-    new File(getUsersFileName()).delete();
+    getUsersFile().delete();
+    getJournalFile().delete();
     myBroadcaster.removeListener(mySaver);
     super.dispose();
   }
 
+  private void scheduleSave() {
+    mySaved = true;
+    myDelayedSaver.schedule();
+  }
+
+  /**
+   * Writes the whole model and drops the journal.
+   */
   void saveAll() {
-    synchronized (myUsersGroupsLock) {
-      XStreamUtil.toXml(myXStream, getUsersFileName(), this);
+    synchronized (myJournalLock) {
+      synchronized (myUsersGroupsLock) {
+        myChangedUsers.clear();
+        myRemovedUsers.clear();
+        myGroupsChanged = false;
+        XStreamUtil.toXml(myXStream, getUsersFile().getAbsolutePath(), this);
+      }
+      getJournalFile().delete();
     }
     mySaved = true;
   }
 
+  /**
+   * Appends the changes collected since the last save to the journal.
+   */
+  void saveChanges() {
+    synchronized (myJournalLock) {
+      File journalFile = getJournalFile();
+      if (journalFile.length() > Math.max(MIN_JOURNAL_SIZE_TO_COMPACT, 2 * getUsersFile().length())) {
+        saveAll();
+        return;
+      }
+
+      List<byte[]> records = new ArrayList<>();
+      synchronized (myUsersGroupsLock) {
+        for (User user : myRemovedUsers) {
+          records.add(toBytes(new UserRemoved(user)));
+        }
+        for (User user : myChangedUsers) {
+          if (myUsers.contains(user)) {
+            records.add(toBytes(new UserUpdated(user)));
+          }
+        }
+        if (myGroupsChanged) {
+          records.add(toBytes(new GroupsUpdated(myGroups)));
+        }
+        myChangedUsers.clear();
+        myRemovedUsers.clear();
+        myGroupsChanged = false;
+      }
+      if (records.isEmpty()) return;
+
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)))) {
+        for (byte[] record : records) {
+          out.writeInt(record.length);
+          out.write(record);
+        }
+      }
+      catch (IOException e) {
+        LOG.info("Cannot write " + journalFile + ", saving the whole model", e);
+        saveAll();
+      }
+    }
+  }
+
+  private byte[] toBytes(Object record) {
+    return myXStream.toXML(record).getBytes(StandardCharsets.UTF_8);
+  }
+
   private void readAll() {
-    Object persistentModel = XStreamUtil.fromXml(myXStream, getUsersFileName(), false);
+    DelayedSaver.flush(getUsersFile());
+
+    Object persistentModel = XStreamUtil.fromXml(myXStream, getUsersFile().getAbsolutePath(), false);
     if (persistentModel instanceof PersistentUserModelImpl) {
       PersistentUserModelImpl model = (PersistentUserModelImpl) persistentModel;
       myGroups.addAll(model.myGroups);
       myUsers.addAll(model.myUsers);
     }
+    if (!readJournal()) {
+      // new records would be appended after the broken one and lost on the next read
+      saveAll();
+      mySaved = false;
+    }
+  }
+
+  /**
+   * @return false if the journal ends with a record which wasn't written completely or can't be read
+   */
+  private boolean readJournal() {
+    File journalFile = getJournalFile();
+    if (!journalFile.isFile()) return true;
+
+    long journalLength = journalFile.length();
+    long readLength = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+      while (readLength < journalLength) {
+        byte[] record = new byte[in.readInt()];
+        in.readFully(record);
+        applyRecord(myXStream.fromXML(new String(record, StandardCharsets.UTF_8)));
+        readLength += 4 + record.length;
+      }
+      return true;
+    }
+    catch (EOFException e) {
+      LOG.info("Incomplete record at " + readLength + " in " + journalFile);
+    }
+    catch (Exception e) {
+      LOG.info("Error reading " + journalFile, e);
+    }
+    return false;
+  }
+
+  private void applyRecord(Object record) {
+    if (record instanceof UserUpdated) {
+      User user = ((UserUpdated)record).myUser;
+      myUsers.remove(user);
+      myUsers.add(user);
+      myGroups.add(user.getGroup());
+    }
+    else if (record instanceof UserRemoved) {
+      myUsers.remove(((UserRemoved)record).myUser);
+    }
+    else if (record instanceof GroupsUpdated) {
+      myGroups.clear();
+      myGroups.addAll(((GroupsUpdated)record).myGroups);
+    }
+  }
+
+  private File getUsersFile() {
+    return new File(myDataDir, FILE_NAME);
   }
 
-  private String getUsersFileName() {
-    return new File(myDataDir, FILE_NAME).getAbsolutePath();
+  private File getJournalFile() {
+    return new File(myDataDir, JOURNAL_FILE_NAME);
   }
 
   public boolean testSaved() {
@@ -105,4 +264,28 @@ public class PersistentUserModelImpl extends UserModelImpl {
     mySaved = false;
     return result;
   }
+
+  private static final class UserUpdated {
+    private final User myUser;
+
+    private UserUpdated(User user) {
+      myUser = user;
+    }
+  }
+
+  private static final class UserRemoved {
+    private final User myUser;
+
+    private UserRemoved(User user) {
+      myUser = user;
+    }
+  }
+
+  private static final class GroupsUpdated {
+    private final Set<String> myGroups;
+
+    private GroupsUpdated(Collection<String> groups) {
+      myGroups = new HashSet<>(groups);
+    }
+  }
 }
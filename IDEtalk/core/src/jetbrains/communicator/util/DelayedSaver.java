@@ -0,0 +1,80 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces save requests for a file: after {@link #schedule()} the save action runs once on a background thread
+ * in {@link #DELAY_MS}, however many times it was requested meanwhile.
+ * Before the file is read, {@link #flush(File)} performs pending saves of all the savers of this file.
+ */
+public final class DelayedSaver {
+  private static final Logger LOG = Logger.getLogger(DelayedSaver.class);
+
+  public static final long DELAY_MS = 500;
+
+  private static final ScheduledExecutorService ourExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "IDEtalk Saver");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private static final Set<DelayedSaver> ourSavers = ConcurrentHashMap.newKeySet();
+
+  private final File myFile;
+  private final Runnable mySaveAction;
+  private final AtomicBoolean myScheduled = new AtomicBoolean();
+  private final Object mySaveLock = new Object();
+
+  public DelayedSaver(File file, Runnable saveAction) {
+    myFile = file.getAbsoluteFile();
+    mySaveAction = saveAction;
+    ourSavers.add(this);
+  }
+
+  public void schedule() {
+    if (myScheduled.compareAndSet(false, true)) {
+      ourExecutor.schedule(this::flush, DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Runs the pending save, if any, in the calling thread. Waits for a save which is already running.
+   */
+  public void flush() {
+    synchronized (mySaveLock) {
+      if (myScheduled.getAndSet(false)) {
+        try {
+          mySaveAction.run();
+        }
+        catch (RuntimeException e) {
+          LOG.error("Cannot save " + myFile, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Performs the pending save, if any, in the calling thread and stops serving {@link #flush(File)} for this saver.
+   */
+  public void dispose() {
+    flush();
+    ourSavers.remove(this);
+  }
+
+  public static void flush(File file) {
+    File absoluteFile = file.getAbsoluteFile();
+    for (DelayedSaver saver : ourSavers) {
+      if (saver.myFile.equals(absoluteFile)) {
+        saver.flush();
+      }
+    }
+  }
+}
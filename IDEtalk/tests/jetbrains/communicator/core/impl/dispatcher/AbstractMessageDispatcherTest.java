@@ -23,6 +23,8 @@ import jetbrains.communicator.mock.MockMessage;
 import jetbrains.communicator.mock.MockUser;
 import jetbrains.communicator.p2p.commands.P2PNetworkMessage;
 
+import java.io.File;
+
 /**
  * @author kir
  */
@@ -146,4 +148,28 @@ public class AbstractMessageDispatcherTest extends BaseTestCase {
     dispatcher.dispose();
   }
 
+  public void testWriteVolumePerMessage() {
+    for (int i = 0; i < 100; i++) {
+      myDispatcher.performDispatch(new MockUser("user" + i, null), new P2PNetworkMessage("foo", "foo2", new String[]{"test" + i}));
+    }
+    myDispatcher.save();
+    File messagesDir = new File(myIdeFacade.getCacheDir(), "test");
+    long othersLength = getOtherQueuesLength(messagesDir);
+
+    myDispatcher.performDispatch(myUser, new P2PNetworkMessage("foo", "foo2", new String[]{"new"}));
+    myDispatcher.save();
+    File[] userFiles = messagesDir.listFiles(file -> file.getName().startsWith("user."));
+    assertEquals(1, userFiles.length);
+    long written = userFiles[0].length();
+    assertEquals("queues of other users should not be rewritten", othersLength, getOtherQueuesLength(messagesDir));
+    assertTrue("written " + written + " of " + othersLength, written * 50 < othersLength);
+  }
+
+  private static long getOtherQueuesLength(File messagesDir) {
+    long result = 0;
+    for (File queueFile : messagesDir.listFiles(file -> !file.getName().startsWith("user."))) {
+      result += queueFile.length();
+    }
+    return result;
+  }
 }
\ No newline at end of file
@@ -25,7 +25,10 @@ import jetbrains.communicator.mock.MockIDEFacade;
 import jetbrains.communicator.mock.MockTransport;
 import jetbrains.communicator.mock.MockUser;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -109,6 +112,55 @@ public class PersistentUserModelImplTest extends BaseTestCase {
     assertEquals("a group", groups[0]);
   }
 
+  public void testWriteVolumePerEvent() {
+    for (int i = 0; i < 500; i++) {
+      myUserModel.addUser(new MockUser("user" + i, "group" + i % 10));
+    }
+    myUserModel.saveAll();
+    File modelFile = new File(myTempDir, PersistentUserModelImpl.FILE_NAME);
+    File journalFile = new File(myTempDir, PersistentUserModelImpl.JOURNAL_FILE_NAME);
+    long modelLength = modelFile.length();
+    assertFalse(journalFile.exists());
+
+    User changedUser = myUserModel.getAllUsers()[0];
+    changedUser.setDisplayName("new name", myUserModel);
+    myUserModel.saveChanges();
+    long journalLength = journalFile.length();
+    assertEquals("model file should not be rewritten", modelLength, modelFile.length());
+    assertTrue("a change should append about one user, written " + journalLength + " of " + modelLength,
+               journalLength > 0 && journalLength * 100 < modelLength);
+
+    User removedUser = myUserModel.getAllUsers()[1];
+    myUserModel.removeUser(removedUser);
+    myUserModel.saveChanges();
+    assertTrue(journalFile.length() - journalLength < journalLength * 2);
+
+    PersistentUserModelImpl modelInstance = createModelInstance();
+    assertEquals(499, modelInstance.getAllUsers().length);
+    assertNull(modelInstance.findUser(removedUser.getName(), removedUser.getTransportCode()));
+    assertEquals("new name", modelInstance.findUser(changedUser.getName(), changedUser.getTransportCode()).getDisplayName());
+  }
+
+  public void testChangesAfterIncompleteRecord() throws IOException {
+    myUserModel.addUser(new MockUser("user", "group"));
+    myUserModel.saveChanges();
+    File journalFile = new File(myTempDir, PersistentUserModelImpl.JOURNAL_FILE_NAME);
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journalFile, true))) {
+      out.writeInt(100);
+      out.write(new byte[10]);
+    }
+
+    PersistentUserModelImpl modelInstance = createModelInstance();
+    assertEquals(1, modelInstance.getAllUsers().length);
+    User user = modelInstance.getAllUsers()[0];
+    user.setDisplayName("new name", modelInstance);
+    modelInstance.saveChanges();
+
+    User[] users = createModelInstance().getAllUsers();
+    assertEquals(1, users.length);
+    assertEquals("new name", users[0].getDisplayName());
+  }
+
   public void testConcurrentModifications() {
     Runnable createUserCommand = () -> {
       User user = myUserModel.createUser("bob" + System.nanoTime(), MockTransport.NAME);
@@ -5,6 +5,7 @@ import com.intellij.flex.bc.FlexCompilerConfigTest;
 import com.intellij.flex.bc.FlexProjectConfigTest;
 import com.intellij.flex.codeInsight.*;
 import com.intellij.flex.completion.*;
+import com.intellij.flex.debugger.FdbOutputBufferTest;
 import com.intellij.flex.editor.FlexEditorTest;
 import com.intellij.flex.editor.FlexExtendSelectionTest;
 import com.intellij.flex.editor.FlexLiveTemplatesTest;
@@ -55,6 +56,9 @@ public class FlexTestSuite {
     testSuite.addTestSuite(FlexCompletionTest.class);
     testSuite.addTestSuite(FlexCssCompletionTest.class);
 
+    //com.intellij.flex.debugger.*
+    testSuite.addTestSuite(FdbOutputBufferTest.class);
+
     //com.intellij.flex.editor.*
     testSuite.addTestSuite(FlexEditorTest.class);
     testSuite.addTestSuite(FlexExtendSelectionTest.class);
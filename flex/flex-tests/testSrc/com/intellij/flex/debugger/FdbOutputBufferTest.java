@@ -0,0 +1,108 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.flex.debugger;
+
+import com.intellij.lang.javascript.flex.debug.FdbOutputBuffer;
+import com.intellij.testFramework.PlatformTestUtil;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FdbOutputBufferTest extends TestCase {
+
+  public void testPromptSplitBetweenReads() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    append(buffer, "$1 = 5\n(fd");
+    assertNull(buffer.nextChunk(false, true));
+
+    append(buffer, "b) ");
+    assertEquals("$1 = 5\n", buffer.nextChunk(false, true));
+    assertTrue(buffer.isLastChunkEndedWithPrompt());
+    assertNull(buffer.nextChunk(true, true));
+  }
+
+  public void testConfirmation() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    append(buffer, "Do you want to attempt to halt execution? (y or n) ");
+    assertEquals("Do you want to attempt to halt execution? ", buffer.nextChunk(false, true));
+    assertTrue(buffer.isLastChunkEndedWithPrompt());
+  }
+
+  public void testSeveralResponsesInOneRead() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    append(buffer, "#0   this = [Object 1, class='Main'].Main/foo() at Main.as:5\n(fdb) $1 = 2\n(fdb) ");
+    assertEquals("#0   this = [Object 1, class='Main'].Main/foo() at Main.as:5\n", buffer.nextChunk(false, true));
+    assertEquals("$1 = 2\n", buffer.nextChunk(false, true));
+    assertNull(buffer.nextChunk(false, true));
+  }
+
+  public void testRunningOutput() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    append(buffer, "[trace] first\n[trace] sec");
+    assertNull(buffer.nextChunk(false, true));
+    assertNull(buffer.nextChunk(true, false));
+    assertEquals("[trace] first\n[trace] sec", buffer.nextChunk(true, true));
+    assertFalse(buffer.isLastChunkEndedWithPrompt());
+  }
+
+  public void testWaitingForPlayer() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    append(buffer, "Waiting for Player to connect\n");
+    assertEquals("Waiting for Player to connect\n", buffer.nextChunk(false, false));
+  }
+
+  public void testTraceFloodIsStreamed() {
+    final FdbOutputBuffer buffer = new FdbOutputBuffer();
+    final StringBuilder text = new StringBuilder();
+    while (text.length() < 3 * FdbOutputBuffer.STREAMING_CHUNK_SIZE) {
+      text.append("[trace] x = ").append(text.length()).append('\n');
+    }
+    text.append("[trace] incomplete");
+    append(buffer, text.toString());
+
+    final String chunk = buffer.nextChunk(true, false);
+    assertNotNull(chunk);
+    assertTrue(chunk.endsWith("\n"));
+    assertTrue(text.toString().startsWith(chunk));
+    assertNull(buffer.nextChunk(true, false));
+    assertEquals(text.substring(chunk.length()), buffer.nextChunk(true, true));
+  }
+
+  public void testThroughput() {
+    final StringBuilder text = new StringBuilder();
+    int promptCount = 0;
+    for (int i = 0; text.length() < 16 * 1024 * 1024; i++) {
+      text.append("[trace] Main/onEnterFrame(): frame ").append(i).append(" (Trying W)\n");
+      if (i % 1000 == 999) {
+        text.append("(fdb) ");
+        promptCount++;
+      }
+    }
+    final char[] chars = text.toString().toCharArray();
+    final String expected = text.toString().replace("(fdb) ", "");
+    final int expectedPromptCount = promptCount;
+
+    PlatformTestUtil.startPerformanceTest("fdb output reading", 1500, () -> {
+      final FdbOutputBuffer buffer = new FdbOutputBuffer();
+      final List<String> chunks = new ArrayList<>();
+      int prompts = 0;
+      for (int offset = 0; offset < chars.length; offset += 8192) {
+        final int length = Math.min(8192, chars.length - offset);
+        buffer.append(chars, offset, length);
+
+        String chunk;
+        while ((chunk = buffer.nextChunk(true, offset + length == chars.length)) != null) {
+          chunks.add(chunk);
+          if (buffer.isLastChunkEndedWithPrompt()) prompts++;
+        }
+      }
+
+      assertEquals(expectedPromptCount, prompts);
+      assertEquals(expected, String.join("", chunks));
+    }).assertTiming();
+  }
+
+  private static void append(FdbOutputBuffer buffer, String text) {
+    buffer.append(text.toCharArray(), 0, text.length());
+  }
+}
@@ -33,6 +33,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.LibraryOrderEntry;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.roots.OrderEnumerator;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.util.ModificationTracker;
@@ -52,10 +53,7 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * @author Maxim.Mossienko
@@ -143,16 +141,16 @@ public class CodeContext {
     final FlexBuildConfiguration bc = FlexBuildConfigurationManager.getInstance(module).getActiveConfiguration();
     if (bc == null) return CodeContextHolder.EMPTY;
 
-    CodeContext codeContext;
+    if (isStdNamespace(namespace)) {
+      return getStdCodeContext(namespace, module, bc);
+    }
 
-    synchronized (CodeContext.class) {
-      if (isStdNamespace(namespace)) {
-        return getStdCodeContext(namespace, module, bc);
-      }
+    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
+    CodeContext codeContext = contextHolder.getCodeContext(namespace, module);
+    if (codeContext != null) return codeContext;
 
-      final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
+    synchronized (contextHolder.getNamespaceLock(namespace, module)) {
       codeContext = contextHolder.getCodeContext(namespace, module);
-
       if (codeContext == null) {
         codeContext = createCodeContext(namespace, module, bc);
         if (codeContext.getAllDescriptorsSize() > 0) {
@@ -165,6 +163,47 @@ public class CodeContext {
     return codeContext;
   }
 
+  /**
+   * Everything from the module configuration that contexts of the module are built from, except for the files
+   * which are tracked by the {@link #getDependencies() dependencies} of the contexts.
+   */
+  @NotNull
+  static List<String> getInputsFingerprint(@NotNull final Module module) {
+    final List<String> result = new ArrayList<>();
+    final FlexBuildConfiguration bc = FlexBuildConfigurationManager.getInstance(module).getActiveConfiguration();
+    if (bc != null) {
+      addInputsFingerprint(module, bc, result);
+      for (DependencyEntry entry : bc.getDependencies().getEntries()) {
+        result.add(entry.getDependencyType().getLinkageType().toString());
+        if (entry instanceof BuildConfigurationEntry) {
+          final FlexBuildConfiguration bcDependency = ((BuildConfigurationEntry)entry).findBuildConfiguration();
+          if (bcDependency != null) {
+            result.add(bcDependency.getOutputType().toString());
+            addInputsFingerprint(module, bcDependency, result);
+          }
+        }
+      }
+
+      final Sdk sdk = bc.getSdk();
+      if (sdk != null) {
+        result.add(sdk.getHomePath());
+        Collections.addAll(result, sdk.getRootProvider().getUrls(OrderRootType.CLASSES));
+      }
+    }
+    Collections.addAll(result, OrderEnumerator.orderEntries(module).recursively().classes().getUrls());
+    Collections.addAll(result, OrderEnumerator.orderEntries(module).recursively().sources().getUrls());
+    return result;
+  }
+
+  private static void addInputsFingerprint(final Module module, final FlexBuildConfiguration bc, final List<String> result) {
+    result.add(bc.getName());
+    result.add(bc.getCompilerOptions().getAdditionalConfigFilePath());
+    FlexUtils.processCompilerOption(module, bc, "compiler.namespaces.namespace", namespaceAndManifest -> {
+      result.add(namespaceAndManifest.first + "=" + namespaceAndManifest.second);
+      return true;
+    });
+  }
+
   public static boolean isStdNamespace(final String namespace) {
     return FlexUtils.isMxmlNs(namespace);
   }
@@ -210,7 +249,9 @@ public class CodeContext {
     return codeContext;
   }
 
-  private static void handleSwcFromSdk(final Module module, @NotNull final FlexBuildConfiguration bc) {
+  private static void handleSwcFromSdk(final Module module,
+                                       @NotNull final FlexBuildConfiguration bc,
+                                       final Map<String, CodeContext> standardContexts) {
     final Sdk sdk = bc.getSdk();
     if (sdk == null) return;
 
@@ -218,7 +259,7 @@ public class CodeContext {
     for (final VirtualFile file : sdk.getRootProvider().getFiles(OrderRootType.CLASSES)) {
       final String swcPath = VirtualFileManager.extractPath(StringUtil.trimEnd(file.getUrl(), JarFileSystem.JAR_SEPARATOR));
       if (BCUtils.getSdkEntryLinkageType(swcPath, bc) != null) {
-        handleFileDependency(module, contextsOfModule, file);
+        handleFileDependency(module, contextsOfModule, standardContexts, file);
       }
     }
     final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
@@ -230,6 +271,21 @@ public class CodeContext {
   private static CodeContext createCodeContextFromLibraries(final String namespace,
                                                             final Module module,
                                                             final FlexBuildConfiguration bc) {
+    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
+    synchronized (contextHolder.getLibrariesLock(module)) {
+      // contexts of all the library namespaces are created at once, maybe while we were waiting
+      final CodeContext codeContext = contextHolder.getCodeContext(namespace, module);
+      if (codeContext != null) return codeContext;
+
+      // standard contexts get their library components when they are created, see getStdCodeContext()
+      return createCodeContextFromLibraries(namespace, module, bc, new THashMap<>());
+    }
+  }
+
+  private static CodeContext createCodeContextFromLibraries(final String namespace,
+                                                            final Module module,
+                                                            final FlexBuildConfiguration bc,
+                                                            final Map<String, CodeContext> standardContexts) {
     final Map<String, CodeContext> contextsOfModule = new THashMap<>();
     final ModuleRootManager rootManager = ModuleRootManager.getInstance(module);
 
@@ -241,14 +297,14 @@ public class CodeContext {
       if (entry instanceof BuildConfigurationEntry) {
         final FlexBuildConfiguration bcDependency = ((BuildConfigurationEntry)entry).findBuildConfiguration();
         if (bcDependency != null && bcDependency.getOutputType() == OutputType.Library) {
-          addComponentsFromManifests(module, contextsOfModule, bcDependency, true);
+          addComponentsFromManifests(module, contextsOfModule, standardContexts, bcDependency, true);
         }
       }
       else if (entry instanceof ModuleLibraryEntry) {
         final LibraryOrderEntry orderEntry = FlexProjectRootsUtil.findOrderEntry((ModuleLibraryEntry)entry, rootManager);
         if (orderEntry != null) {
           for (VirtualFile file : orderEntry.getRootFiles(OrderRootType.CLASSES)) {
-            handleFileDependency(module, contextsOfModule, file);
+            handleFileDependency(module, contextsOfModule, standardContexts, file);
           }
         }
       }
@@ -256,13 +312,13 @@ public class CodeContext {
         final Library library = FlexProjectRootsUtil.findOrderEntry(module.getProject(), (SharedLibraryEntry)entry);
         if (library != null) {
           for (VirtualFile file : library.getFiles(OrderRootType.CLASSES)) {
-            handleFileDependency(module, contextsOfModule, file);
+            handleFileDependency(module, contextsOfModule, standardContexts, file);
           }
         }
       }
     }
 
-    addComponentsFromManifests(module, contextsOfModule, bc, false);
+    addComponentsFromManifests(module, contextsOfModule, standardContexts, bc, false);
 
     final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
     for (Map.Entry<String, CodeContext> entry : contextsOfModule.entrySet()) {
@@ -276,8 +332,11 @@ public class CodeContext {
     return codeContext;
   }
 
-  private static void addComponentsFromManifests(final Module module, final Map<String, CodeContext> contextsOfModule,
-                                                 final FlexBuildConfiguration bc, boolean onlyIncludedInSwc) {
+  private static void addComponentsFromManifests(final Module module,
+                                                 final Map<String, CodeContext> contextsOfModule,
+                                                 final Map<String, CodeContext> standardContexts,
+                                                 final FlexBuildConfiguration bc,
+                                                 boolean onlyIncludedInSwc) {
     final String configFilePath = bc.getCompilerOptions().getAdditionalConfigFilePath();
     final VirtualFile configFile = StringUtil.isEmptyOrSpaces(configFilePath)
                                    ? null
@@ -288,7 +347,7 @@ public class CodeContext {
 
       final VirtualFile manifestFile = VfsUtilCore.findRelativeFile(info.manifest, configFile);
       if (manifestFile != null && !manifestFile.isDirectory()) {
-        processManifestFile(module, contextsOfModule, manifestFile, info.namespace, configFile);
+        processManifestFile(module, contextsOfModule, standardContexts, manifestFile, info.namespace, configFile);
       }
     }
 
@@ -296,13 +355,16 @@ public class CodeContext {
       // namespaces configured in IDEA are always included in SWC
       final VirtualFile manifestFile = VfsUtilCore.findRelativeFile(namespaceAndManifest.second, configFile);
       if (manifestFile != null && !manifestFile.isDirectory()) {
-        processManifestFile(module, contextsOfModule, manifestFile, namespaceAndManifest.first, configFile);
+        processManifestFile(module, contextsOfModule, standardContexts, manifestFile, namespaceAndManifest.first, configFile);
       }
       return true;
     });
   }
 
-  private static void handleFileDependency(Module module, Map<String, CodeContext> contextsOfModule, VirtualFile file) {
+  private static void handleFileDependency(Module module,
+                                           Map<String, CodeContext> contextsOfModule,
+                                           Map<String, CodeContext> standardContexts,
+                                           VirtualFile file) {
     if (FileTypeRegistry.getInstance().isFileOfType(file, ArchiveFileType.INSTANCE) &&
         ("swc".equalsIgnoreCase(file.getExtension()) ||
          "ane".equalsIgnoreCase(file.getExtension()) ||
@@ -313,15 +375,16 @@ public class CodeContext {
       final VirtualFile catalog = jarRoot.findChild("catalog.xml");
       if (catalog == null) return;
 
-      processCatalogFile(module, contextsOfModule, catalog);
+      processCatalogFile(module, contextsOfModule, standardContexts, catalog);
     }
   }
 
   private static void processCatalogFile(final Module module,
                                          final Map<String, CodeContext> contextsOfModule,
+                                         final Map<String, CodeContext> standardContexts,
                                          final VirtualFile catalogFile) {
     SwcCatalogXmlUtil.processComponentsFromCatalogXml(catalogFile, componentFromCatalogXml -> {
-      CodeContext codeContext = identifyCodeContext(module, contextsOfModule, componentFromCatalogXml.myUri);
+      CodeContext codeContext = identifyCodeContext(module, contextsOfModule, standardContexts, componentFromCatalogXml.myUri);
       codeContext.addDependency(catalogFile);
       codeContext.putDescriptor(componentFromCatalogXml.myName,
                                 new ClassBackedElementDescriptor(componentFromCatalogXml.myName,
@@ -334,32 +397,26 @@ public class CodeContext {
     });
   }
 
-  private static CodeContext identifyCodeContext(Module module, Map<String, CodeContext> contextsOfModule, String uri) {
-    CodeContext codeContext;
-    if (isStdNamespace(uri)) {
-      final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
-      codeContext = contextHolder.getStandardContext(uri, module);
-      if (codeContext == null) {
-        codeContext = new CodeContext(uri, module);
-        contextHolder.putStandardContext(uri, module, codeContext);
-      }
-    }
-    else {
-      codeContext = contextsOfModule.get(uri);
-      if (codeContext == null) {
-        codeContext = new CodeContext(uri, module);
-        contextsOfModule.put(uri, codeContext);
-      }
+  private static CodeContext identifyCodeContext(Module module,
+                                                 Map<String, CodeContext> contextsOfModule,
+                                                 Map<String, CodeContext> standardContexts,
+                                                 String uri) {
+    final Map<String, CodeContext> contexts = isStdNamespace(uri) ? standardContexts : contextsOfModule;
+    CodeContext codeContext = contexts.get(uri);
+    if (codeContext == null) {
+      codeContext = new CodeContext(uri, module);
+      contexts.put(uri, codeContext);
     }
     return codeContext;
   }
 
   private static void processManifestFile(final Module module,
                                           final Map<String, CodeContext> contextsOfModule,
+                                          final Map<String, CodeContext> standardContexts,
                                           final VirtualFile manifestFile,
                                           final String uri,
                                           final @Nullable ModificationTracker dependency) {
-    final CodeContext codeContext = identifyCodeContext(module, contextsOfModule, uri);
+    final CodeContext codeContext = identifyCodeContext(module, contextsOfModule, standardContexts, uri);
     if (dependency != null) {
       codeContext.addDependency(dependency);
     }
@@ -389,11 +446,20 @@ public class CodeContext {
   private static CodeContext getStdCodeContext(final String namespace, final Module module, final FlexBuildConfiguration bc) {
     final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
 
-    if (!contextHolder.areSdkComponentsHandledForModule(module)) { // handleAllStandardManifests only once per module
-      handleAllStandardManifests(module, bc);
-      handleSwcFromSdk(module, bc); //swc files attached to Flex SDK may contribute to standard context
-      createCodeContextFromLibraries(namespace, module, bc); // other libraries may contribute to standard context
-      contextHolder.setSdkComponentsHandledForModule(module);
+    if (!contextHolder.areSdkComponentsHandledForModule(module)) {
+      synchronized (contextHolder.getLibrariesLock(module)) {
+        if (!contextHolder.areSdkComponentsHandledForModule(module)) { // handleAllStandardManifests only once per module
+          // standard contexts are filled from several sources and published when complete
+          final Map<String, CodeContext> standardContexts = new THashMap<>();
+          handleAllStandardManifests(module, bc, standardContexts);
+          handleSwcFromSdk(module, bc, standardContexts); //swc files attached to Flex SDK may contribute to standard context
+          createCodeContextFromLibraries(namespace, module, bc, standardContexts); // other libraries may contribute to standard context
+          for (Map.Entry<String, CodeContext> entry : standardContexts.entrySet()) {
+            contextHolder.putStandardContext(entry.getKey(), module, entry.getValue());
+          }
+          contextHolder.setSdkComponentsHandledForModule(module);
+        }
+      }
     }
 
     final CodeContext context = contextHolder.getStandardContext(namespace, module);
@@ -456,7 +522,9 @@ public class CodeContext {
     return descriptor;
   }
 
-  private static void handleAllStandardManifests(final Module module, @NotNull final FlexBuildConfiguration bc) {
+  private static void handleAllStandardManifests(final Module module,
+                                                 @NotNull final FlexBuildConfiguration bc,
+                                                 final Map<String, CodeContext> standardContexts) {
     final Sdk sdk = bc.getSdk();
     final String homePath = sdk == null ? null : sdk.getHomePath();
     final VirtualFile sdkHome = homePath == null ? null : LocalFileSystem.getInstance().findFileByPath(homePath);
@@ -466,7 +534,7 @@ public class CodeContext {
       final VirtualFile manifestFile = VfsUtilCore.findRelativeFile(relativePath, sdkHome);
 
       if (manifestFile != null) {
-        handleStandardManifest(module, namespace1, manifestFile, sdkHome);
+        handleStandardManifest(module, namespace1, manifestFile, sdkHome, standardContexts);
       }
     });
   }
@@ -474,15 +542,9 @@ public class CodeContext {
   private static void handleStandardManifest(final Module module,
                                              final String namespace,
                                              final VirtualFile manifestFile,
-                                             final VirtualFile flexSdkRoot) {
-    final CodeContextHolder contextHolder = CodeContextHolder.getInstance(module.getProject());
-    CodeContext _context = contextHolder.getStandardContext(namespace, module);
-    if (_context == null) {
-      _context = new CodeContext(namespace, module);
-      contextHolder.putStandardContext(namespace, module, _context);
-    }
-
-    final CodeContext context = _context;
+                                             final VirtualFile flexSdkRoot,
+                                             final Map<String, CodeContext> standardContexts) {
+    final CodeContext context = identifyCodeContext(module, standardContexts, standardContexts, namespace);
     context.addDependency(flexSdkRoot);
 
     processManifestFile(manifestFile, context);
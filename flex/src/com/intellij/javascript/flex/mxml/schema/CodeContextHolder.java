@@ -4,44 +4,48 @@ package com.intellij.javascript.flex.mxml.schema;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
-import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Code contexts are kept per module. Contexts are published only when completely built, so they are read without locking,
+ * while building is serialized per (module, namespace), see {@link #getNamespaceLock(String, Module)},
+ * and per module for the namespaces which come from libraries and SDK, see {@link #getLibrariesLock(Module)}.
+ */
 public class CodeContextHolder {
-  private final Set<Module> myModulesWithSdkComponentsHandled = new HashSet<>();
-  private final Map<String, Map<Module, CodeContext>> myStandardContexts = new HashMap<>();
-  private final Map<String, Map<Module, CodeContext>> myNSToCodeContextMap = new THashMap<>();
+  private final ConcurrentMap<Module, ModuleContexts> myModuleContexts = new ConcurrentHashMap<>();
   static final CodeContext EMPTY = new CodeContext(null, null);
 
-  synchronized void clear() {
-    myNSToCodeContextMap.clear();
-    myStandardContexts.clear();
-    myModulesWithSdkComponentsHandled.clear();
+  /**
+   * Drops contexts of the modules which are disposed or whose inputs (see {@link CodeContext#getInputsFingerprint(Module)}) changed.
+   */
+  void clearOutdated() {
+    for (Map.Entry<Module, ModuleContexts> entry : myModuleContexts.entrySet()) {
+      final Module module = entry.getKey();
+      if (module.isDisposed() || !entry.getValue().myInputsFingerprint.equals(CodeContext.getInputsFingerprint(module))) {
+        myModuleContexts.remove(module, entry.getValue());
+      }
+    }
   }
 
   @Nullable
-  public synchronized CodeContext getCodeContext(@NotNull final String namespace, @NotNull final Module module) {
-    final Map<Module, CodeContext> map = myNSToCodeContextMap.get(namespace);
-    if (map != null) return map.get(module);
-    return null;
+  public CodeContext getCodeContext(@NotNull final String namespace, @NotNull final Module module) {
+    final ModuleContexts contexts = myModuleContexts.get(module);
+    return contexts == null ? null : contexts.myContexts.get(namespace);
   }
 
-  public synchronized void putCodeContext(@NotNull final String namespace, @NotNull final Module module, @NotNull final CodeContext codeContext) {
-    Map<Module, CodeContext> map = myNSToCodeContextMap.get(namespace);
-    if (map == null) {
-      map = new THashMap<>();
-      myNSToCodeContextMap.put(namespace, map);
-    }
-    map.put(module, codeContext);
+  public void putCodeContext(@NotNull final String namespace, @NotNull final Module module, @NotNull final CodeContext codeContext) {
+    getModuleContexts(module).myContexts.put(namespace, codeContext);
   }
 
-  public synchronized void clearCodeContext(@NotNull final String namespace, @NotNull final Module module) {
-    Map<Module, CodeContext> map = myNSToCodeContextMap.get(namespace);
-    if (map != null) {
-      map.remove(module);
+  public void clearCodeContext(@NotNull final String namespace, @NotNull final Module module) {
+    final ModuleContexts contexts = myModuleContexts.get(module);
+    if (contexts != null) {
+      contexts.myContexts.remove(namespace);
     }
   }
 
@@ -50,40 +54,60 @@ public class CodeContextHolder {
   }
 
   @Nullable
-  public synchronized CodeContext getStandardContext(final String namespace, final Module module) {
-    final Map<Module, CodeContext> map = myStandardContexts.get(namespace);
-    return map == null ? null : map.get(module);
+  public CodeContext getStandardContext(final String namespace, final Module module) {
+    final ModuleContexts contexts = myModuleContexts.get(module);
+    return contexts == null ? null : contexts.myStandardContexts.get(namespace);
   }
 
-  public synchronized Collection<String> getNamespaces(final Module module) {
-    final List<String> result = new ArrayList<>();
-    for (final Map.Entry<String, Map<Module, CodeContext>> entry : myStandardContexts.entrySet()) {
-      if (entry.getValue().containsKey(module)) {
-        result.add(entry.getKey());
-      }
-    }
-    for (final Map.Entry<String, Map<Module, CodeContext>> entry : myNSToCodeContextMap.entrySet()) {
-      if (entry.getValue().containsKey(module)) {
-        result.add(entry.getKey());
-      }
-    }
+  public Collection<String> getNamespaces(final Module module) {
+    final ModuleContexts contexts = myModuleContexts.get(module);
+    if (contexts == null) return Collections.emptyList();
+
+    final List<String> result = new ArrayList<>(contexts.myStandardContexts.keySet());
+    result.addAll(contexts.myContexts.keySet());
     return result;
   }
 
-  synchronized void putStandardContext(final String namespace, final Module module, final CodeContext codeContext) {
-    Map<Module, CodeContext> map = myStandardContexts.get(namespace);
-    if (map == null) {
-      map = new HashMap<>();
-      myStandardContexts.put(namespace, map);
-    }
-    map.put(module, codeContext);
+  void putStandardContext(final String namespace, final Module module, final CodeContext codeContext) {
+    getModuleContexts(module).myStandardContexts.put(namespace, codeContext);
   }
 
-  synchronized boolean areSdkComponentsHandledForModule(final Module module) {
-    return myModulesWithSdkComponentsHandled.contains(module);
+  boolean areSdkComponentsHandledForModule(final Module module) {
+    final ModuleContexts contexts = myModuleContexts.get(module);
+    return contexts != null && contexts.mySdkComponentsHandled;
   }
 
-  synchronized boolean setSdkComponentsHandledForModule(final Module module) {
-    return myModulesWithSdkComponentsHandled.add(module);
+  void setSdkComponentsHandledForModule(final Module module) {
+    getModuleContexts(module).mySdkComponentsHandled = true;
+  }
+
+  @NotNull
+  Object getNamespaceLock(@NotNull final String namespace, @NotNull final Module module) {
+    return getModuleContexts(module).myNamespaceLocks.computeIfAbsent(namespace, __ -> new Object());
+  }
+
+  /**
+   * Guards scanning of SDK, libraries and manifests of the module, which produces contexts of several namespaces at once.
+   */
+  @NotNull
+  Object getLibrariesLock(@NotNull final Module module) {
+    return getModuleContexts(module);
+  }
+
+  @NotNull
+  private ModuleContexts getModuleContexts(@NotNull final Module module) {
+    return myModuleContexts.computeIfAbsent(module, ModuleContexts::new);
+  }
+
+  private static final class ModuleContexts {
+    private final ConcurrentMap<String, CodeContext> myContexts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CodeContext> myStandardContexts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Object> myNamespaceLocks = new ConcurrentHashMap<>();
+    private final List<String> myInputsFingerprint;
+    private volatile boolean mySdkComponentsHandled;
+
+    private ModuleContexts(@NotNull Module module) {
+      myInputsFingerprint = CodeContext.getInputsFingerprint(module);
+    }
   }
 }
@@ -8,6 +8,6 @@ import org.jetbrains.annotations.NotNull;
 public class CodeContextRootsChangedListener implements ModuleRootListener {
   @Override
   public void rootsChanged(@NotNull ModuleRootEvent event) {
-    CodeContextHolder.getInstance(event.getProject()).clear();
+    CodeContextHolder.getInstance(event.getProject()).clearOutdated();
   }
 }
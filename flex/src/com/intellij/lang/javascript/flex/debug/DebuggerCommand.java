@@ -42,6 +42,13 @@ class DebuggerCommand {
     return CommandOutputProcessingMode.DONE;
   }
 
+  /**
+   * Called when the response is not read up to the end, i.e. {@link #onTextAvailable(String)} has not returned
+   * {@link CommandOutputProcessingMode#DONE} because the session has been terminated or fdb output could not be read.
+   */
+  void onAborted() {
+  }
+
   @Override
   public String toString() {
     return getClass().getName();
@@ -0,0 +1,159 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Splits fdb output into chunks: responses terminated by the {@code (fdb) } prompt or the {@code (y or n)} question, and
+ * output printed while the player is running (trace, faults). Every char is scanned for markers once and consumed text is
+ * dropped in amortized constant time, so the cost is linear in the output size however it is split into reads.
+ */
+public final class FdbOutputBuffer {
+  @NonNls static final String FDB_MARKER = "(fdb) ";
+  @NonNls static final String CONFIRMATION_MARKER = "(y or n)";
+  @NonNls static final String WAITING_PLAYER_MARKER_1 = "Waiting for Player to connect";
+  @NonNls static final String WAITING_PLAYER_MARKER_2 = "Trying to connect to Player";
+
+  /**
+   * Output that is not terminated by a prompt is handed out in line-aligned chunks of about this size even if more is coming,
+   * so that trace output of a running player reaches the console while the player is still flooding it.
+   */
+  public static final int STREAMING_CHUNK_SIZE = 8192;
+
+  private final StringBuilder myText = new StringBuilder();
+  private int myStart;
+  private int myScanPos;
+  private int myLastNewLine = -1;
+  private int myPromptIndex = -1;
+  private int myPromptLength;
+  private boolean myWaitingForPlayer;
+  private boolean myLastChunkEndedWithPrompt;
+
+  public void append(char[] chars, int offset, int length) {
+    myText.append(chars, offset, length);
+  }
+
+  /**
+   * @param flushWithoutPrompt whether the text not terminated by a prompt may be returned (the player is running)
+   * @param inputDrained       whether no more output is available at the moment
+   * @return next chunk without the terminating prompt, or {@code null} if more output is needed
+   */
+  @Nullable
+  public String nextChunk(boolean flushWithoutPrompt, boolean inputDrained) {
+    scan();
+
+    if (myPromptIndex != -1) {
+      final String result = myText.substring(myStart, myPromptIndex);
+      consume(myPromptIndex + myPromptLength);
+      myLastChunkEndedWithPrompt = true;
+      return result;
+    }
+
+    final int end = myText.length();
+    if (myStart == end) return null;
+
+    if (myWaitingForPlayer || flushWithoutPrompt && inputDrained) {
+      final String result = myText.substring(myStart, end);
+      consume(end);
+      myLastChunkEndedWithPrompt = false;
+      return result;
+    }
+
+    if (flushWithoutPrompt && end - myStart >= STREAMING_CHUNK_SIZE && myLastNewLine >= myStart) {
+      final String result = myText.substring(myStart, myLastNewLine + 1);
+      consume(myLastNewLine + 1);
+      myLastChunkEndedWithPrompt = false;
+      return result;
+    }
+
+    return null;
+  }
+
+  /**
+   * @return whether the chunk returned by the last {@link #nextChunk(boolean, boolean)} call was terminated by a prompt,
+   * i.e. fdb waits for input
+   */
+  public boolean isLastChunkEndedWithPrompt() {
+    return myLastChunkEndedWithPrompt;
+  }
+
+  private void scan() {
+    if (myPromptIndex != -1) return;
+
+    final int end = myText.length();
+    for (int i = myScanPos; i < end; i++) {
+      final char c = myText.charAt(i);
+      final String marker;
+      final boolean prompt;
+      if (c == '\n') {
+        myLastNewLine = i;
+        continue;
+      }
+      else if (c == '(') {
+        marker = i + 1 < end && myText.charAt(i + 1) == 'y' ? CONFIRMATION_MARKER : FDB_MARKER;
+        prompt = true;
+      }
+      else if (c == 'W') {
+        marker = WAITING_PLAYER_MARKER_1;
+        prompt = false;
+      }
+      else if (c == 'T') {
+        marker = WAITING_PLAYER_MARKER_2;
+        prompt = false;
+      }
+      else {
+        continue;
+      }
+
+      final int matched = matchedLength(i, marker);
+      if (matched == marker.length()) {
+        if (prompt) {
+          myPromptIndex = i;
+          myPromptLength = marker.length();
+          myScanPos = i;
+          return;
+        }
+        myWaitingForPlayer = true;
+      }
+      else if (i + matched == end) {
+        // the marker may be completed by the next read
+        myScanPos = i;
+        return;
+      }
+    }
+    myScanPos = end;
+  }
+
+  private int matchedLength(int index, String marker) {
+    final int length = Math.min(marker.length(), myText.length() - index);
+    for (int i = 0; i < length; i++) {
+      if (myText.charAt(index + i) != marker.charAt(i)) return i;
+    }
+    return length;
+  }
+
+  private void consume(int end) {
+    myStart = end;
+    myPromptIndex = -1;
+    myWaitingForPlayer = false;
+    if (myScanPos < myStart) myScanPos = myStart;
+
+    int firstNonSpace = myStart;
+    while (firstNonSpace < myText.length() && myText.charAt(firstNonSpace) == ' ') firstNonSpace++;
+
+    if (firstNonSpace == myText.length()) {
+      myText.setLength(0);
+      myStart = 0;
+      myScanPos = 0;
+      myLastNewLine = -1;
+    }
+    else if (myStart >= myText.length() - myStart) {
+      // the text that is left is not longer than the consumed one, so copying it keeps the total cost linear
+      myText.delete(0, myStart);
+      myScanPos -= myStart;
+      myLastNewLine = myLastNewLine >= myStart ? myLastNewLine - myStart : -1;
+      myStart = 0;
+    }
+  }
+}
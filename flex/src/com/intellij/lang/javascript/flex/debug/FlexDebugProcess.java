@@ -113,9 +113,6 @@ public class FlexDebugProcess extends XDebugProcess {
 
   @NonNls static final String RESOLVED_BREAKPOINT_MARKER = "Resolved breakpoint ";
   @NonNls static final String BREAKPOINT_MARKER = "Breakpoint ";
-  @NonNls private static final String FDB_MARKER = "(fdb) ";
-  @NonNls private static final String WAITING_PLAYER_MARKER_1 = "Waiting for Player to connect";
-  @NonNls private static final String WAITING_PLAYER_MARKER_2 = "Trying to connect to Player";
   @NonNls static final String ATTEMPTING_TO_RESOLVE_BREAKPOINT_MARKER = "Attempting to resolve breakpoint ";
 
   @NonNls private static final String ADL_PREFIX = "[AIR Debug Launcher]: ";
@@ -134,6 +131,7 @@ public class FlexDebugProcess extends XDebugProcess {
 
   private int myCurrentWorker = 0;
   private final KnownFilesInfo myKnownFilesInfo = new KnownFilesInfo(this);
+  private final ObjectMembersCache myObjectMembersCache = new ObjectMembersCache(this);
 
   private String myFdbLaunchCommand;
 
@@ -496,13 +494,27 @@ public class FlexDebugProcess extends XDebugProcess {
     assert Thread.currentThread() == myDebuggerManagerThread;
     final DebuggerCommand command = postCommand();
     if (command == null) return;
+
+    boolean completed = false;
+    try {
+      completed = processCommandOutput(command);
+    }
+    finally {
+      if (!completed) command.onAborted();
+    }
+  }
+
+  /**
+   * @return false if the output was not read up to the end, e.g. because the player session has been terminated
+   */
+  private boolean processCommandOutput(@NotNull DebuggerCommand command) throws IOException, InterruptedException {
     boolean explicitlyContinueRead = false;
 
     do {
       final CommandOutputProcessingType outputProcessingType = command.getOutputProcessingMode();
       if (outputProcessingType == CommandOutputProcessingType.NO_PROCESSING ||
           (outputProcessingType == CommandOutputProcessingType.DEFAULT_PROCESSING && !reader.hasSomeDataPending())) {
-        return;
+        return true;
       }
 
       if (myCheckForUnexpectedStartupStop && !(command instanceof DumpOutputCommand)) {
@@ -522,11 +534,11 @@ public class FlexDebugProcess extends XDebugProcess {
       if (command instanceof QuitCommand) {
         Thread.currentThread().interrupt();  // request to finish
       }
-      if (commandOutput == null) break;
+      if (commandOutput == null) return false;
 
       if (commandOutput.contains("Player session terminated") && !(command instanceof SuspendResumeDebuggerCommand)) {
         handleProbablyUnexpectedStop(commandOutput);
-        break;
+        return false;
       }
 
       commandOutput = commandOutput.trim();
@@ -534,7 +546,7 @@ public class FlexDebugProcess extends XDebugProcess {
 
       if (outputProcessingType == CommandOutputProcessingType.SPECIAL_PROCESSING) {
         log("Processed by " + command);
-        if (command.onTextAvailable(commandOutput) == CommandOutputProcessingMode.DONE) break;
+        if (command.onTextAvailable(commandOutput) == CommandOutputProcessingMode.DONE) return true;
         explicitlyContinueRead = true;
         continue;
       }
@@ -662,6 +674,7 @@ public class FlexDebugProcess extends XDebugProcess {
       if (toInsertContinue) insertCommand(new ContinueCommand());
     }
     while (explicitlyContinueRead || reader.hasSomeDataPending());
+    return true;
   }
 
   private boolean evaluateCondition(@Nullable XExpression expression, FlexStackFrame frame) {
@@ -998,6 +1011,7 @@ public class FlexDebugProcess extends XDebugProcess {
 
     setSuspended(
       command.getOutputProcessingMode() == CommandOutputProcessingType.NO_PROCESSING && command.getEndVMState() == VMState.SUSPENDED);
+    myObjectMembersCache.commandSent(text);
     log("Sent:" + text);
     fdbProcess.getOutputStream().write((text + "\n").getBytes(StandardCharsets.UTF_8));
     try {
@@ -1150,6 +1164,10 @@ public class FlexDebugProcess extends XDebugProcess {
                                NotificationType.ERROR), getSession().getProject());
   }
 
+  ObjectMembersCache getObjectMembersCache() {
+    return myObjectMembersCache;
+  }
+
   void insertCommand(DebuggerCommand command) {
     commandsToWrite.addFirst(command);
   }
@@ -1223,8 +1241,7 @@ public class FlexDebugProcess extends XDebugProcess {
   class MyFdbOutputReader {
     private final InputStreamReader myReader;
     private final char[] buf = new char[8192];
-    private final StringBuilder lastText = new StringBuilder();
-    private int lastTextMarkerScanningStart;
+    private final FdbOutputBuffer myOutputBuffer = new FdbOutputBuffer();
     private final InputStream myInputStream;
 
     MyFdbOutputReader(final InputStream _inputStream) {
@@ -1237,62 +1254,17 @@ public class FlexDebugProcess extends XDebugProcess {
     }
 
     String readLine(boolean nonblock) throws IOException {
-      if (lastText != null) {
-        final String lastText = getNextLine(nonblock);
-        if (lastText != null) return lastText;
-      }
-
       while (true) {
-        int read = myReader.read(buf, 0, buf.length);
-        if (read == -1) return null;
-        lastText.append(buf, 0, read);
-
-        if (read < buf.length) {
-          final String lastText = getNextLine(nonblock);
-          if (lastText != null) return lastText;
+        final String chunk = myOutputBuffer.nextChunk(nonblock, !myReader.ready());
+        if (chunk != null) {
+          setSuspended(myOutputBuffer.isLastChunkEndedWithPrompt());
+          return chunk;
         }
-      }
-    }
-
-    private String getNextLine(boolean allowEmptyMarker) {
-      String result;
-      String marker = FDB_MARKER;
-      int i = lastText.indexOf(marker, lastTextMarkerScanningStart);
-
-      if (i == -1) {
-        marker = "(y or n)";
-        i = lastText.indexOf(marker, lastTextMarkerScanningStart);
-      }
-
-      if (i == -1 &&
-          (allowEmptyMarker ||
-           lastText.indexOf(WAITING_PLAYER_MARKER_1, lastTextMarkerScanningStart) >= 0 ||
-           lastText.indexOf(WAITING_PLAYER_MARKER_2, lastTextMarkerScanningStart) >= 0) &&
-          lastText.length() > 0) {
-        i = lastText.length();
-        marker = "";
-      }
 
-      if (i != -1) {
-        result = lastText.substring(0, i);
-        lastText.delete(0, i + marker.length());
-        lastTextMarkerScanningStart = 0;
-        if (isBlank(lastText)) lastText.setLength(0);
-        setSuspended(marker.length() != 0);
-        return result;
-      }
-      else {
-        lastTextMarkerScanningStart = lastText.length();
-        result = null;
-      }
-      return result;
-    }
-
-    private boolean isBlank(StringBuilder lastText) {
-      for (int i = 0; i < lastText.length(); ++i) {
-        if (lastText.charAt(i) != ' ') return false;
+        int read = myReader.read(buf, 0, buf.length);
+        if (read == -1) return null;
+        myOutputBuffer.append(buf, 0, read);
       }
-      return true;
     }
   }
 
@@ -1604,7 +1576,7 @@ public class FlexDebugProcess extends XDebugProcess {
         return CommandOutputProcessingMode.DONE;
       }
 
-      if (s.contains(WAITING_PLAYER_MARKER_1) || s.contains(WAITING_PLAYER_MARKER_2)) {
+      if (s.contains(FdbOutputBuffer.WAITING_PLAYER_MARKER_1) || s.contains(FdbOutputBuffer.WAITING_PLAYER_MARKER_2)) {
         fdbWaitingForPlayerStateReached = true;
         getSession().rebuildViews();
         notifyFdbWaitingForPlayerStateReached();
@@ -0,0 +1,169 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.flex.debug;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.util.Consumer;
+import com.intellij.util.SmartList;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Caches fdb {@code print #<objectId>.} responses (member listings of objects) while the VM stays suspended.
+ * Requests for object ids that are not cached yet are collected and sent to fdb as a single multi-line command,
+ * so expanding several nodes (or restoring an expanded tree after a step) costs one round trip instead of one per node.
+ * Any command that may change the VM state (see {@link #isReadOnlyCommand(String)}) drops the cache.
+ */
+class ObjectMembersCache {
+  private static final int MAX_BATCH_SIZE = 32;
+
+  private final FlexDebugProcess myDebugProcess;
+
+  private final Map<String, String> myObjectIdToMembers = new THashMap<>();
+  private final Map<String, List<Consumer<String>>> myPendingRequests = new LinkedHashMap<>();
+  private boolean myFetchScheduled;
+  private int myGeneration;
+
+  ObjectMembersCache(@NotNull FlexDebugProcess debugProcess) {
+    myDebugProcess = debugProcess;
+  }
+
+  /**
+   * Passes raw {@code print #<objectId>.} response to the {@code consumer}, in a pooled thread if it is cached
+   * or in the debugger thread once fdb responds, or null if fdb doesn't respond.
+   */
+  void requestMembers(@NotNull String objectId, @NotNull Consumer<String> consumer) {
+    final String cached;
+    synchronized (this) {
+      cached = myObjectIdToMembers.get(objectId);
+      if (cached == null) {
+        final List<Consumer<String>> consumers = myPendingRequests.get(objectId);
+        if (consumers != null) {
+          consumers.add(consumer);
+          return;
+        }
+
+        myPendingRequests.put(objectId, new SmartList<>(consumer));
+        if (myFetchScheduled) return;
+        myFetchScheduled = true;
+      }
+    }
+
+    if (cached != null) {
+      ApplicationManager.getApplication().executeOnPooledThread(() -> consumer.consume(cached));
+    }
+    else {
+      myDebugProcess.sendCommand(new FetchMembersCommand());
+    }
+  }
+
+  void commandSent(@NotNull String commandText) {
+    if (isReadOnlyCommand(commandText)) return;
+
+    synchronized (this) {
+      myGeneration++;
+      myObjectIdToMembers.clear();
+    }
+  }
+
+  /**
+   * @return true for commands that only inspect the suspended VM: printing expressions without assignments and calls, navigation
+   * between frames and {@code info} queries
+   */
+  static boolean isReadOnlyCommand(@NotNull String commandText) {
+    for (String line : commandText.split("\n")) {
+      final boolean readOnly =
+        line.startsWith("print ") ? line.indexOf('=') == -1 && line.indexOf('(') == -1
+                                  : line.startsWith("info ") || line.equals("frame") || line.startsWith("frame ") || line.equals("bt");
+      if (!readOnly) return false;
+    }
+    return true;
+  }
+
+  private class FetchMembersCommand extends DebuggerCommand {
+    private final List<String> myObjectIds = new ArrayList<>();
+    private String myText = "";
+    private int myGenerationAtPost;
+    private int myResponseCount;
+
+    FetchMembersCommand() {
+      super("", CommandOutputProcessingType.SPECIAL_PROCESSING);
+    }
+
+    @NotNull
+    @Override
+    String getText() {
+      return myText;
+    }
+
+    @Override
+    public void post(final FlexDebugProcess flexDebugProcess) throws IOException {
+      synchronized (ObjectMembersCache.this) {
+        myGenerationAtPost = myGeneration;
+        for (String objectId : myPendingRequests.keySet()) {
+          if (myObjectIds.size() == MAX_BATCH_SIZE) break;
+          myObjectIds.add(objectId);
+        }
+      }
+
+      final StringBuilder text = new StringBuilder();
+      for (String objectId : myObjectIds) {
+        if (text.length() > 0) text.append('\n');
+        text.append("print #").append(objectId).append('.');
+      }
+      myText = text.toString();
+      super.post(flexDebugProcess);
+    }
+
+    @Override
+    CommandOutputProcessingMode onTextAvailable(@NonNls String s) {
+      if (myDebugProcess.filterStdResponse(s)) return CommandOutputProcessingMode.PROCEEDING;
+
+      final String objectId = myObjectIds.get(myResponseCount++);
+      final List<Consumer<String>> consumers;
+      synchronized (ObjectMembersCache.this) {
+        consumers = myPendingRequests.remove(objectId);
+        if (myGeneration == myGenerationAtPost && !s.contains("could not be evaluated")) {
+          myObjectIdToMembers.put(objectId, s);
+        }
+      }
+
+      if (consumers != null) {
+        for (Consumer<String> consumer : consumers) {
+          consumer.consume(s);
+        }
+      }
+
+      if (myResponseCount < myObjectIds.size()) return CommandOutputProcessingMode.PROCEEDING;
+
+      final boolean hasMoreRequests;
+      synchronized (ObjectMembersCache.this) {
+        hasMoreRequests = !myPendingRequests.isEmpty();
+        myFetchScheduled = hasMoreRequests;
+      }
+      if (hasMoreRequests) {
+        myDebugProcess.insertCommand(new FetchMembersCommand());
+      }
+      return CommandOutputProcessingMode.DONE;
+    }
+
+    @Override
+    void onAborted() {
+      final List<Consumer<String>> consumers = new ArrayList<>();
+      synchronized (ObjectMembersCache.this) {
+        for (List<Consumer<String>> objectConsumers : myPendingRequests.values()) {
+          consumers.addAll(objectConsumers);
+        }
+        myPendingRequests.clear();
+        myFetchScheduled = false;
+      }
+
+      for (Consumer<String> consumer : consumers) {
+        consumer.consume(null);
+      }
+    }
+  }
+}
@@ -139,6 +139,9 @@ public class FlashUmlDataModel extends DiagramDataModel<Object> {
   private final Collection<DiagramEdge<Object>> myEdgesOld = new HashSet<>();
   private final Collection<DiagramEdge<Object>> myDependencyEdgesOld = new HashSet<>();
 
+  // class nodes by fqn, available while edges are computed in updateDataModel() to make findNode() a lookup
+  @Nullable private Map<String, DiagramNode<Object>> myClassNodeIndex;
+
 
   @Override
   @NotNull
@@ -298,6 +301,34 @@ public class FlashUmlDataModel extends DiagramDataModel<Object> {
       }
     }
 
+    myClassNodeIndex = buildClassNodeIndex();
+    try {
+      updateEdges(classes, interfaces);
+    }
+    finally {
+      myClassNodeIndex = null;
+    }
+
+    //merge!
+    mergeWithBackup(myNodes, myNodesOld);
+    mergeWithBackup(myEdges, myEdgesOld);
+    mergeWithBackup(myDependencyEdges, myDependencyEdgesOld);
+  }
+
+  private Map<String, DiagramNode<Object>> buildClassNodeIndex() {
+    final Map<String, DiagramNode<Object>> index = new HashMap<>();
+    for (DiagramNode<Object> node : myNodes) {
+      if (node instanceof FlashUmlClassNode) {
+        final String fqn = getFqn(getIdentifyingElement(node));
+        if (fqn != null) {
+          index.putIfAbsent(fqn, node);
+        }
+      }
+    }
+    return index;
+  }
+
+  private void updateEdges(final Set<JSClass> classes, final Set<JSClass> interfaces) {
     for (JSClass psiClass : classes) {
       {
         DiagramNode<Object> source = findNode(psiClass);
@@ -383,19 +414,13 @@ public class FlashUmlDataModel extends DiagramDataModel<Object> {
         showDependenciesFor(psiClass, options);
       }
     }
-    //merge!
-    mergeWithBackup(myNodes, myNodesOld);
-    mergeWithBackup(myEdges, myEdgesOld);
-    mergeWithBackup(myDependencyEdges, myDependencyEdgesOld);
   }
 
   private void showDependenciesFor(final JSClass clazz, final EnumSet<FlashUmlDependenciesSettingsOption> options) {
     DiagramNode<Object> mainNode = findNode(clazz);
     if (mainNode == null) return;
 
-    FlashUmlDependencyProvider provider = new FlashUmlDependencyProvider(clazz);
-
-    Collection<Pair<JSClass, FlashUmlRelationship>> list = provider.computeUsedClasses();
+    Collection<Pair<JSClass, FlashUmlRelationship>> list = FlashUmlDependencyProvider.getUsedClasses(clazz);
     for (Pair<JSClass, FlashUmlRelationship> pair : list) {
       if (shouldShow(options, clazz, pair.first, pair.second)) {
         DiagramNode<Object> node = findNode(pair.first);
@@ -540,6 +565,10 @@ public class FlashUmlDataModel extends DiagramDataModel<Object> {
   @Nullable
   public DiagramNode<Object> findNode(Object object) {
     String objectFqn = getFqn(object);
+    final Map<String, DiagramNode<Object>> classNodeIndex = myClassNodeIndex;
+    if (classNodeIndex != null && object instanceof JSClass) {
+      return objectFqn != null ? classNodeIndex.get(objectFqn) : null;
+    }
     for (DiagramNode<Object> node : getNodes()) {
       final String fqn = getFqn(getIdentifyingElement(node));
       if (fqn != null && fqn.equals(objectFqn)) {
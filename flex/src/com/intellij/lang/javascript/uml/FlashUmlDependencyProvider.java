@@ -22,6 +22,9 @@ import com.intellij.psi.css.CssElementVisitor;
 import com.intellij.psi.css.CssFunction;
 import com.intellij.psi.css.CssString;
 import com.intellij.psi.scope.PsiScopeProcessor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import com.intellij.xml.XmlAttributeDescriptor;
@@ -41,6 +44,31 @@ public class FlashUmlDependencyProvider {
     myClazz = clazz;
   }
 
+  /**
+   * Same as {@link #computeUsedClasses()}, but cached until PSI changes, so refreshing a diagram
+   * doesn't resolve all references again. Any PSI change drops the cache, since references of
+   * {@code clazz} may resolve into other files.
+   */
+  public static Collection<Pair<JSClass, FlashUmlRelationship>> getUsedClasses(@NotNull final JSClass clazz) {
+    final List<Pair<SmartPsiElementPointer<JSClass>, FlashUmlRelationship>> cached = CachedValuesManager.getCachedValue(clazz, () -> {
+      final SmartPointerManager pointerManager = SmartPointerManager.getInstance(clazz.getProject());
+      final List<Pair<SmartPsiElementPointer<JSClass>, FlashUmlRelationship>> usedClasses = new ArrayList<>();
+      for (Pair<JSClass, FlashUmlRelationship> pair : new FlashUmlDependencyProvider(clazz).computeUsedClasses()) {
+        usedClasses.add(Pair.create(pointerManager.createSmartPsiElementPointer(pair.first), pair.second));
+      }
+      return CachedValueProvider.Result.create(usedClasses, PsiModificationTracker.MODIFICATION_COUNT);
+    });
+
+    final Collection<Pair<JSClass, FlashUmlRelationship>> result = new ArrayList<>(cached.size());
+    for (Pair<SmartPsiElementPointer<JSClass>, FlashUmlRelationship> pair : cached) {
+      final JSClass usedClass = pair.first.getElement();
+      if (usedClass != null) {
+        result.add(Pair.create(usedClass, pair.second));
+      }
+    }
+    return result;
+  }
+
   public Collection<Pair<JSClass, FlashUmlRelationship>> computeUsedClasses() {
     final Collection<Pair<JSClass, FlashUmlRelationship>> result = new ArrayList<>();
     final JSElementVisitor visitor = new JSElementVisitor() {
@@ -0,0 +1,36 @@
+package com.dmarcotte.handlebars.completion;
+
+import com.dmarcotte.handlebars.index.HbHelperIndex;
+import com.dmarcotte.handlebars.parsing.HbTokenTypes;
+import com.dmarcotte.handlebars.psi.HbMustacheName;
+import com.intellij.codeInsight.completion.*;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ProcessingContext;
+import org.jetbrains.annotations.NotNull;
+
+import static com.intellij.patterns.PlatformPatterns.psiElement;
+
+/**
+ * Completes helper names used in the other templates of the project, see {@link HbHelperIndex}
+ */
+public class HbHelperCompletionContributor extends CompletionContributor {
+  public HbHelperCompletionContributor() {
+    extend(CompletionType.BASIC, psiElement(HbTokenTypes.ID).withSuperParent(2, psiElement(HbTokenTypes.PATH)),
+           new CompletionProvider<CompletionParameters>() {
+             @Override
+             protected void addCompletions(@NotNull CompletionParameters parameters,
+                                           @NotNull ProcessingContext context,
+                                           @NotNull CompletionResultSet result) {
+               HbMustacheName mustacheName = PsiTreeUtil.getParentOfType(parameters.getPosition(), HbMustacheName.class);
+               if (mustacheName == null || HbHelperIndex.getHelperName(mustacheName) == null) return;
+
+               GlobalSearchScope scope = GlobalSearchScope.allScope(parameters.getPosition().getProject());
+               for (String name : HbHelperIndex.getHelperNames(scope)) {
+                 result.addElement(LookupElementBuilder.create(name));
+               }
+             }
+           });
+  }
+}
@@ -0,0 +1,116 @@
+package com.dmarcotte.handlebars.index;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.file.HbFileType;
+import com.dmarcotte.handlebars.psi.*;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Names of the helpers used in templates, i.e. {@code foo} in {@code {{foo bar}}} and {@code {{#foo bar}}...{{/foo}}}.
+ * Mustaches without parameters are not indexed since {@code {{foo}}} and {@code {{#foo}}} are usually plain context lookups,
+ * decorators like {@code {{#*inline "name"}}} are not indexed either.
+ */
+public class HbHelperIndex extends ScalarIndexExtension<String> {
+  public static final ID<String, Void> NAME = ID.create("HbHelperIndex");
+
+  private static final Pattern HELPER_NAME = Pattern.compile("[\\w$-]+");
+
+  @NotNull
+  @Override
+  public ID<String, Void> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, Void, FileContent> getIndexer() {
+    return inputData -> {
+      Map<String, Void> result = new THashMap<>();
+      PsiFile file = inputData.getPsiFile().getViewProvider().getPsi(HbLanguage.INSTANCE);
+      if (file != null) {
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+          @Override
+          public void visitElement(@NotNull PsiElement element) {
+            if (element instanceof HbMustacheName && isHelperCall((HbMustacheName)element)) {
+              String name = getHelperName((HbMustacheName)element);
+              if (name != null) {
+                result.put(name, null);
+              }
+            }
+            super.visitElement(element);
+          }
+        });
+      }
+      return result;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(HbFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  /**
+   * @return helper name if the given mustache name is in the helper position of a simple or an open block mustache
+   */
+  @Nullable
+  public static String getHelperName(@NotNull HbMustacheName mustacheName) {
+    PsiElement parent = mustacheName.getParent();
+    if (!(parent instanceof HbSimpleMustache || parent instanceof HbOpenBlockMustache)) {
+      return null;
+    }
+
+    String name = mustacheName.getName();
+    return name != null && HELPER_NAME.matcher(name).matches() && !"this".equals(name) ? name : null;
+  }
+
+  private static boolean isHelperCall(@NotNull HbMustacheName mustacheName) {
+    PsiElement mustache = mustacheName.getParent();
+    PsiElement open = mustache.getFirstChild();
+    return (PsiTreeUtil.getNextSiblingOfType(mustacheName, HbParam.class) != null ||
+            PsiTreeUtil.getNextSiblingOfType(mustacheName, HbHash.class) != null) &&
+           open != null && !open.textContains('*');
+  }
+
+  @NotNull
+  public static Set<String> getHelperNames(@NotNull GlobalSearchScope scope) {
+    Set<String> result = new THashSet<>();
+    FileBasedIndex.getInstance().processAllKeys(NAME, name -> {
+      result.add(name);
+      return true;
+    }, scope, null);
+    return result;
+  }
+}
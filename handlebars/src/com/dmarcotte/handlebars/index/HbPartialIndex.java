@@ -0,0 +1,189 @@
+package com.dmarcotte.handlebars.index;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.file.HbFileType;
+import com.dmarcotte.handlebars.psi.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps short partial names (the last segment of {@code {{> path/to/partial}}} without a leading {@code _} or {@code -})
+ * to the templates which declare a partial with this name (i.e. are named so or contain {@code {{#*inline "name"}}})
+ * and to the templates which use it,
+ * so that partial resolution, find usages and completion don't have to parse every template in the scope.
+ */
+public class HbPartialIndex extends FileBasedIndexExtension<String, Integer> {
+  public static final ID<String, Integer> NAME = ID.create("HbPartialIndex");
+
+  /**
+   * The file itself is a partial with this short name
+   */
+  public static final int DECLARATION = 1;
+  /**
+   * The file contains partial mustaches with this short name
+   */
+  public static final int USAGE = 2;
+  /**
+   * The file declares an inline partial with this short name
+   */
+  public static final int INLINE_DECLARATION = 4;
+
+  @NotNull
+  @Override
+  public ID<String, Integer> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, Integer, FileContent> getIndexer() {
+    return inputData -> {
+      Map<String, Integer> result = new THashMap<>();
+      String declaredName = getShortName(FileUtil.getNameWithoutExtension(inputData.getFileName()));
+      if (!declaredName.isEmpty()) {
+        result.put(declaredName, DECLARATION);
+      }
+
+      PsiFile file = inputData.getPsiFile().getViewProvider().getPsi(HbLanguage.INSTANCE);
+      if (file != null) {
+        file.accept(new PsiRecursiveElementWalkingVisitor() {
+          @Override
+          public void visitElement(@NotNull PsiElement element) {
+            if (element instanceof HbPartialName) {
+              String name = getPartialName((HbPartialName)element);
+              if (name != null) {
+                result.merge(getShortName(name), USAGE, (oldKinds, kind) -> oldKinds | kind);
+              }
+              return;
+            }
+            if (element instanceof HbOpenBlockMustache) {
+              String name = getInlinePartialName((HbOpenBlockMustache)element);
+              if (name != null) {
+                result.merge(getShortName(name), INLINE_DECLARATION, (oldKinds, kind) -> oldKinds | kind);
+              }
+            }
+            super.visitElement(element);
+          }
+        });
+      }
+      return result;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<Integer> getValueExternalizer() {
+    return new DataExternalizer<Integer>() {
+      @Override
+      public void save(@NotNull DataOutput out, Integer value) throws IOException {
+        DataInputOutputUtil.writeINT(out, value);
+      }
+
+      @Override
+      public Integer read(@NotNull DataInput in) throws IOException {
+        return DataInputOutputUtil.readINT(in);
+      }
+    };
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(HbFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  /**
+   * @return partial name as written in the template without quotes, or null for dynamic partials ({@code {{> (lookup ...)}}})
+   */
+  @Nullable
+  public static String getPartialName(@NotNull HbPartialName partialName) {
+    String text = StringUtil.unquoteString(partialName.getText());
+    return text.isEmpty() || text.startsWith("(") ? null : text;
+  }
+
+  /**
+   * @return name of the partial declared by {@code {{#*inline "name"}}}, or null if the mustache is not an inline partial declaration
+   */
+  @Nullable
+  public static String getInlinePartialName(@NotNull HbOpenBlockMustache mustache) {
+    PsiElement open = mustache.getFirstChild();
+    if (open == null || !open.textContains('*') || !"inline".equals(mustache.getName())) return null;
+
+    HbParam param = PsiTreeUtil.getChildOfType(mustache, HbParam.class);
+    HbStringLiteral literal = param != null ? PsiTreeUtil.findChildOfType(param, HbStringLiteral.class) : null;
+    String name = literal != null ? StringUtil.unquoteString(literal.getText()) : null;
+    return StringUtil.isEmpty(name) ? null : name;
+  }
+
+  @NotNull
+  public static String getShortName(@NotNull String partialName) {
+    String name = partialName.substring(partialName.lastIndexOf('/') + 1);
+    return StringUtil.trimLeading(StringUtil.trimLeading(name, '_'), '-');
+  }
+
+  /**
+   * Passes to the {@code processor} the templates which have any of the {@code kind} bits
+   * (see {@link #DECLARATION}, {@link #USAGE} and {@link #INLINE_DECLARATION}) of the partial with the given short name.
+   */
+  public static boolean processFiles(@NotNull String shortName,
+                                     int kind,
+                                     @NotNull GlobalSearchScope scope,
+                                     @NotNull Processor<? super VirtualFile> processor) {
+    return FileBasedIndex.getInstance().processValues(
+      NAME, shortName, null, (file, kinds) -> (kinds & kind) == 0 || processor.process(file), scope);
+  }
+
+  /**
+   * @return short names of the partials declared in the given scope, including the inline ones
+   */
+  @NotNull
+  public static Set<String> getDeclaredNames(@NotNull Project project, @NotNull GlobalSearchScope scope) {
+    Set<String> result = new THashSet<>();
+    FileBasedIndex.getInstance().processAllKeys(NAME, name -> {
+      if (!processFiles(name, DECLARATION | INLINE_DECLARATION, scope, file -> false)) {
+        result.add(name);
+      }
+      return true;
+    }, scope, null);
+    return result;
+  }
+}
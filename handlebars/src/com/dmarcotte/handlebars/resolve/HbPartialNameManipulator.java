@@ -0,0 +1,29 @@
+package com.dmarcotte.handlebars.resolve;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.file.HbFileType;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.AbstractElementManipulator;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class HbPartialNameManipulator extends AbstractElementManipulator<HbPartialName> {
+  @Nullable
+  @Override
+  public HbPartialName handleContentChange(@NotNull HbPartialName element, @NotNull TextRange range, String newContent)
+    throws IncorrectOperationException {
+    String newText = range.replace(element.getText(), newContent);
+    PsiFile file = PsiFileFactory.getInstance(element.getProject())
+      .createFileFromText("dummy.hbs", HbFileType.INSTANCE, "{{> " + newText + "}}");
+    HbPartialName newElement = PsiTreeUtil.findChildOfType(file.getViewProvider().getPsi(HbLanguage.INSTANCE), HbPartialName.class);
+    if (newElement == null || !newText.equals(newElement.getText())) {
+      throw new IncorrectOperationException("Invalid partial name: " + newText);
+    }
+    return (HbPartialName)element.replace(newElement);
+  }
+}
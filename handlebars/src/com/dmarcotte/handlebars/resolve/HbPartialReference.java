@@ -0,0 +1,116 @@
+package com.dmarcotte.handlebars.resolve;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.index.HbPartialIndex;
+import com.dmarcotte.handlebars.psi.HbOpenBlockMustache;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.dmarcotte.handlebars.psi.HbStringLiteral;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reference from {@code {{> path/to/name}}} to the templates named {@code name}, {@code _name} or {@code -name}
+ * located in a {@code path/to} directory (or in the directory relative to the current template if the path starts with a dot),
+ * or to the {@code {{#*inline "name"}}} declarations, which take precedence when declared in the current template.
+ * Candidates are looked up in {@link HbPartialIndex}. The reference is soft since partials may be registered from scripts too.
+ */
+public class HbPartialReference extends PsiPolyVariantReferenceBase<HbPartialName> {
+  private static final ResolveCache.PolyVariantResolver<HbPartialReference> RESOLVER =
+    (reference, incompleteCode) -> reference.doResolve();
+
+  private final String myPartialName;
+
+  HbPartialReference(@NotNull HbPartialName element, @NotNull TextRange rangeInElement, @NotNull String partialName) {
+    super(element, rangeInElement, true);
+    myPartialName = partialName;
+  }
+
+  @Override
+  public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
+    return ResolveCache.getInstance(myElement.getProject()).resolveWithCaching(this, RESOLVER, false, incompleteCode);
+  }
+
+  private ResolveResult @NotNull [] doResolve() {
+    Project project = myElement.getProject();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    String directoryPath = myPartialName.substring(0, myPartialName.lastIndexOf('/') + 1);
+    VirtualFile relativeDirectory = findRelativeDirectory(directoryPath);
+    if (relativeDirectory == null && directoryPath.startsWith(".")) return ResolveResult.EMPTY_ARRAY;
+
+    String shortName = HbPartialIndex.getShortName(myPartialName);
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+    List<ResolveResult> result = new ArrayList<>();
+    if (directoryPath.isEmpty()) {
+      PsiFile currentFile = myElement.getContainingFile();
+      addInlineDeclarations(currentFile, result);
+      if (!result.isEmpty()) return result.toArray(ResolveResult.EMPTY_ARRAY);
+
+      VirtualFile currentVirtualFile = currentFile.getOriginalFile().getVirtualFile();
+      HbPartialIndex.processFiles(shortName, HbPartialIndex.INLINE_DECLARATION, scope, file -> {
+        PsiFile psiFile = file.equals(currentVirtualFile) ? null : psiManager.findFile(file);
+        if (psiFile != null) {
+          addInlineDeclarations(psiFile, result);
+        }
+        return true;
+      });
+    }
+
+    HbPartialIndex.processFiles(shortName, HbPartialIndex.DECLARATION, scope, file -> {
+      VirtualFile parent = file.getParent();
+      boolean matches = relativeDirectory != null ? relativeDirectory.equals(parent)
+                                                  : parent != null && (parent.getPath() + "/").endsWith("/" + directoryPath);
+      PsiFile psiFile = matches ? psiManager.findFile(file) : null;
+      if (psiFile != null) {
+        result.add(new PsiElementResolveResult(psiFile));
+      }
+      return true;
+    });
+    return result.toArray(ResolveResult.EMPTY_ARRAY);
+  }
+
+  private void addInlineDeclarations(@NotNull PsiFile file, @NotNull List<ResolveResult> result) {
+    PsiFile hbFile = file.getViewProvider().getPsi(HbLanguage.INSTANCE);
+    if (hbFile == null) return;
+
+    for (HbOpenBlockMustache mustache : PsiTreeUtil.findChildrenOfType(hbFile, HbOpenBlockMustache.class)) {
+      if (myPartialName.equals(HbPartialIndex.getInlinePartialName(mustache))) {
+        HbStringLiteral literal = PsiTreeUtil.findChildOfType(mustache, HbStringLiteral.class);
+        result.add(new PsiElementResolveResult(literal != null ? literal : mustache));
+      }
+    }
+  }
+
+  @Nullable
+  private VirtualFile findRelativeDirectory(@NotNull String directoryPath) {
+    if (!directoryPath.startsWith(".")) return null;
+
+    VirtualFile file = myElement.getContainingFile().getOriginalFile().getVirtualFile();
+    VirtualFile directory = file != null ? file.getParent() : null;
+    return directory != null ? directory.findFileByRelativePath(StringUtil.trimEnd(directoryPath, "/")) : null;
+  }
+
+  @Override
+  public Object @NotNull [] getVariants() {
+    Project project = myElement.getProject();
+    return ArrayUtil.toStringArray(HbPartialIndex.getDeclaredNames(project, GlobalSearchScope.allScope(project)));
+  }
+
+  @Override
+  public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+    return super.handleElementRename(FileUtil.getNameWithoutExtension(newElementName));
+  }
+}
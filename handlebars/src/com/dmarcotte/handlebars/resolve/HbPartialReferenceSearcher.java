@@ -0,0 +1,67 @@
+package com.dmarcotte.handlebars.resolve;
+
+import com.dmarcotte.handlebars.HbLanguage;
+import com.dmarcotte.handlebars.index.HbPartialIndex;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.dmarcotte.handlebars.psi.HbPsiFile;
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds partial usages of a template. Only the templates which {@link HbPartialIndex} reports as using a partial
+ * with the template's name are parsed.
+ */
+public class HbPartialReferenceSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+  public HbPartialReferenceSearcher() {
+    super(true);
+  }
+
+  @Override
+  public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters,
+                           @NotNull Processor<? super PsiReference> consumer) {
+    PsiElement target = queryParameters.getElementToSearch();
+    if (!(target instanceof HbPsiFile)) return;
+    VirtualFile virtualFile = ((HbPsiFile)target).getVirtualFile();
+    if (virtualFile == null) return;
+
+    PsiManager psiManager = target.getManager();
+    String shortName = HbPartialIndex.getShortName(virtualFile.getNameWithoutExtension());
+    SearchScope scope = queryParameters.getEffectiveSearchScope();
+    if (scope instanceof GlobalSearchScope) {
+      HbPartialIndex.processFiles(shortName, HbPartialIndex.USAGE, (GlobalSearchScope)scope, file -> {
+        PsiFile psiFile = psiManager.findFile(file);
+        return psiFile == null || processPartialReferences(psiFile, target, consumer);
+      });
+    }
+    else {
+      for (PsiElement element : ((LocalSearchScope)scope).getScope()) {
+        PsiFile psiFile = element.getContainingFile();
+        if (psiFile != null && !processPartialReferences(psiFile, target, consumer)) return;
+      }
+    }
+  }
+
+  private static boolean processPartialReferences(@NotNull PsiFile file,
+                                                  @NotNull PsiElement target,
+                                                  @NotNull Processor<? super PsiReference> consumer) {
+    PsiFile hbFile = file.getViewProvider().getPsi(HbLanguage.INSTANCE);
+    if (hbFile == null) return true;
+
+    for (HbPartialName partialName : PsiTreeUtil.findChildrenOfType(hbFile, HbPartialName.class)) {
+      for (PsiReference reference : partialName.getReferences()) {
+        if (reference instanceof HbPartialReference && reference.isReferenceTo(target) && !consumer.process(reference)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
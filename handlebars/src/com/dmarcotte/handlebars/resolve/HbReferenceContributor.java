@@ -0,0 +1,29 @@
+package com.dmarcotte.handlebars.resolve;
+
+import com.dmarcotte.handlebars.index.HbPartialIndex;
+import com.dmarcotte.handlebars.psi.HbPartialName;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.*;
+import com.intellij.util.ProcessingContext;
+import org.jetbrains.annotations.NotNull;
+
+import static com.intellij.patterns.PlatformPatterns.psiElement;
+
+public class HbReferenceContributor extends PsiReferenceContributor {
+  @Override
+  public void registerReferenceProviders(@NotNull PsiReferenceRegistrar registrar) {
+    registrar.registerReferenceProvider(psiElement(HbPartialName.class), new PsiReferenceProvider() {
+      @Override
+      public PsiReference @NotNull [] getReferencesByElement(@NotNull PsiElement element, @NotNull ProcessingContext context) {
+        HbPartialName partialName = (HbPartialName)element;
+        String name = HbPartialIndex.getPartialName(partialName);
+        if (name == null) return PsiReference.EMPTY_ARRAY;
+
+        int offset = StringUtil.isQuotedString(partialName.getText()) ? 1 : 0;
+        TextRange range = new TextRange(offset + name.lastIndexOf('/') + 1, offset + name.length());
+        return new PsiReference[]{new HbPartialReference(partialName, range, name)};
+      }
+    });
+  }
+}
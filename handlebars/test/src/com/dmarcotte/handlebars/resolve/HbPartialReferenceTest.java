@@ -0,0 +1,93 @@
+package com.dmarcotte.handlebars.resolve;
+
+import com.dmarcotte.handlebars.psi.HbStringLiteral;
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class HbPartialReferenceTest extends BasePlatformTestCase {
+
+  public void testResolveByName() {
+    PsiFile partial = myFixture.addFileToProject("partials/header.hbs", "<h1>{{title}}</h1>");
+    myFixture.configureByText("page.hbs", "{{> hea<caret>der}}");
+    assertEquals(partial, resolve());
+  }
+
+  public void testResolveByPathAndUnderscore() {
+    myFixture.addFileToProject("other/header.hbs", "");
+    PsiFile partial = myFixture.addFileToProject("partials/_header.hbs", "");
+    myFixture.configureByText("page.hbs", "{{> 'partials/hea<caret>der' title}}");
+    assertEquals(partial, resolve());
+  }
+
+  public void testResolveRelative() {
+    myFixture.addFileToProject("other/header.hbs", "");
+    PsiFile partial = myFixture.addFileToProject("pages/parts/header.hbs", "");
+    myFixture.configureFromExistingVirtualFile(myFixture.addFileToProject("pages/page.hbs", "{{> ./parts/header}}").getVirtualFile());
+    myFixture.getEditor().getCaretModel().moveToOffset(myFixture.getFile().getText().indexOf("header"));
+    assertEquals(partial, resolve());
+  }
+
+  public void testResolveInline() {
+    myFixture.addFileToProject("partials/row.hbs", "");
+    myFixture.configureByText("page.hbs", "{{#*inline \"row\"}}<td/>{{/inline}}{{#each items}}{{> r<caret>ow}}{{/each}}");
+    PsiElement declaration = resolveElement();
+    assertInstanceOf(declaration, HbStringLiteral.class);
+    assertEquals("\"row\"", declaration.getText());
+  }
+
+  public void testFindUsages() {
+    PsiFile partial = myFixture.addFileToProject("partials/header.hbs", "");
+    myFixture.addFileToProject("one.hbs", "{{> header}}{{#> partials/header}}{{/partials/header}}");
+    myFixture.addFileToProject("two.hbs", "{{> other/header}}{{header}}");
+    myFixture.addFileToProject("three.hbs", "{{> footer}}");
+    assertSize(2, ReferencesSearch.search(partial).findAll());
+  }
+
+  public void testRename() {
+    myFixture.addFileToProject("partials/header.hbs", "");
+    myFixture.configureByText("page.hbs", "{{> partials/hea<caret>der}}");
+    myFixture.renameElement(resolve(), "_top.hbs");
+    myFixture.checkResult("{{> partials/_top}}");
+  }
+
+  public void testPartialCompletion() {
+    myFixture.addFileToProject("partials/header.hbs", "");
+    myFixture.addFileToProject("partials/_footer.hbs", "");
+    myFixture.configureByText("page.hbs", "{{> <caret>}}");
+    myFixture.complete(CompletionType.BASIC);
+    assertContainsElements(myFixture.getLookupElementStrings(), "header", "footer");
+  }
+
+  public void testInlinePartialCompletion() {
+    myFixture.addFileToProject("layout.hbs", "{{#*inline 'sidebar'}}{{/inline}}{{> content}}");
+    myFixture.configureByText("page.hbs", "{{> <caret>}}");
+    myFixture.complete(CompletionType.BASIC);
+    assertContainsElements(myFixture.getLookupElementStrings(), "sidebar");
+  }
+
+  public void testHelperCompletion() {
+    myFixture.addFileToProject("one.hbs", "{{format-date created}}{{#my-block items}}{{/my-block}}{{link-to href=url}}" +
+                                          "{{title}}{{#person}}{{/person}}{{#*inline \"row\"}}{{/inline}}{{> not-a-helper}}");
+    myFixture.configureByText("page.hbs", "{{<caret>}}");
+    myFixture.complete(CompletionType.BASIC);
+    assertContainsElements(myFixture.getLookupElementStrings(), "format-date", "my-block", "link-to");
+    assertDoesntContain(myFixture.getLookupElementStrings(), "created", "items", "title", "person", "inline", "not-a-helper");
+  }
+
+  private PsiFile resolve() {
+    return assertInstanceOf(resolveElement(), PsiFile.class);
+  }
+
+  private PsiElement resolveElement() {
+    PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+    assertInstanceOf(reference, HbPartialReference.class);
+    ResolveResult[] results = ((HbPartialReference)reference).multiResolve(false);
+    assertSize(1, results);
+    return results[0].getElement();
+  }
+}
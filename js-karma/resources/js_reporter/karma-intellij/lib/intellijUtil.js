@@ -2,6 +2,8 @@
  * Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
  */
 
+var intellijParameters = require('./karma-intellij-parameters');
+
 var doEscapeCharCode = (function () {
   var obj = {};
 
@@ -104,13 +106,103 @@ function joinList(list, fromInclusive, toExclusive, delimiterChar) {
   return result;
 }
 
+var EVENT_SOCKET_NOT_STARTED = 0
+  , EVENT_SOCKET_CONNECTING = 1
+  , EVENT_SOCKET_CONNECTED = 2
+  , EVENT_SOCKET_FAILED = 3;
+
+var eventSocket = null;
+var eventSocketState = EVENT_SOCKET_NOT_STARTED;
 /**
- * Sends event to the IDE through standard output of karma server process.
+ * Events not known to be handed over to the IDE event channel yet: sent before the socket connected,
+ * or written to the socket but not flushed. They are written to standard output if the channel fails, so none is lost.
+ * @type {Array<{message: String}>}
+ */
+var unsentEvents = [];
+
+function startEventSocket() {
+  var port = parseInt(intellijParameters.getParam('event_port'), 10);
+  if (isNaN(port)) {
+    eventSocketState = EVENT_SOCKET_FAILED;
+    return;
+  }
+  eventSocketState = EVENT_SOCKET_CONNECTING;
+  var socket = require('net').connect(port, '127.0.0.1');
+  socket.on('connect', function () {
+    if (eventSocketState === EVENT_SOCKET_CONNECTING) {
+      eventSocketState = EVENT_SOCKET_CONNECTED;
+      unsentEvents.forEach(writeEventToSocket);
+    }
+  });
+  socket.on('error', function (e) {
+    onEventSocketFailed('' + e);
+  });
+  socket.on('close', function () {
+    onEventSocketFailed('connection closed');
+  });
+  socket.unref();
+  eventSocket = socket;
+  process.on('exit', function () {
+    if (eventSocketState !== EVENT_SOCKET_FAILED) {
+      // neither queued nor unflushed events reach the IDE after exit
+      unsentEvents.forEach(writeEventToStdout);
+    }
+  });
+}
+
+function onEventSocketFailed(reason) {
+  if (eventSocketState === EVENT_SOCKET_FAILED) {
+    return;
+  }
+  eventSocketState = EVENT_SOCKET_FAILED;
+  eventSocket.destroy();
+  eventSocket = null;
+  var events = unsentEvents;
+  unsentEvents = [];
+  if (events.length > 0) {
+    console.error('IntelliJ event channel failed (' + reason + '), falling back to standard output');
+  }
+  events.forEach(writeEventToStdout);
+}
+
+function writeEventToSocket(event) {
+  var payload = Buffer.from(event.message, 'utf8');
+  var header = Buffer.alloc(4);
+  header.writeUInt32BE(payload.length, 0);
+  eventSocket.write(Buffer.concat([header, payload]), function (err) {
+    if (!err && eventSocketState === EVENT_SOCKET_CONNECTED) {
+      var ind = unsentEvents.indexOf(event);
+      if (ind >= 0) {
+        unsentEvents.splice(ind, 1);
+      }
+    }
+  });
+}
+
+function writeEventToStdout(event) {
+  process.stdout.write('##intellij-event[' + event.message + ']\n');
+}
+
+/**
+ * Sends event to the IDE through a dedicated socket, each event framed as 4-byte big-endian payload length and the payload.
+ * Events are kept until the socket connects; if it cannot connect or the connection is lost,
+ * the events not flushed to the socket yet and all subsequent ones go to standard output of karma server process.
  * @param {String} eventType
  * @param {Object} eventBody
  */
 function sendIntellijEvent(eventType, eventBody) {
-  process.stdout.write('##intellij-event[' + eventType + ':' + JSON.stringify(eventBody) + ']\n');
+  var event = {message: eventType + ':' + JSON.stringify(eventBody)};
+  if (eventSocketState === EVENT_SOCKET_NOT_STARTED) {
+    startEventSocket();
+  }
+  if (eventSocketState === EVENT_SOCKET_FAILED) {
+    writeEventToStdout(event);
+    return;
+  }
+  unsentEvents.push(event);
+  if (eventSocketState === EVENT_SOCKET_CONNECTED) {
+    writeEventToSocket(event);
+  }
 }
 
 var toString = {}.toString;
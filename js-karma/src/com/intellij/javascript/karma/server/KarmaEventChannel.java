@@ -0,0 +1,102 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.server;
+
+import com.intellij.javascript.karma.util.StreamEventListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Receives events sent by karma-intellij reporter (see {@code intellijUtil.sendIntellijEvent}) over a loopback socket,
+ * keeping them out of the karma server console.
+ * <p>
+ * Every event is framed as a 4-byte big-endian payload length followed by the UTF-8 encoded payload
+ * {@code <eventType>:<JSON body>}, so no line splitting is needed.
+ */
+public final class KarmaEventChannel {
+  private static final Logger LOG = Logger.getInstance(KarmaEventChannel.class);
+  private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+  private final ServerSocket myServerSocket;
+  private volatile boolean myConnected;
+  private volatile boolean myClosed;
+
+  public KarmaEventChannel() throws IOException {
+    myServerSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+  }
+
+  public int getPort() {
+    return myServerSocket.getLocalPort();
+  }
+
+  /**
+   * @return true if the reporter has connected, i.e. events are no longer expected in the standard output
+   */
+  public boolean isConnected() {
+    return myConnected;
+  }
+
+  /**
+   * Starts accepting the reporter connection; the listener is called in a pooled thread, in the order events were sent.
+   */
+  public void start(@NotNull StreamEventListener listener) {
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      try (Socket socket = myServerSocket.accept()) {
+        myConnected = true;
+        readEvents(new DataInputStream(new BufferedInputStream(socket.getInputStream())), listener);
+      }
+      catch (IOException e) {
+        if (!myClosed) {
+          LOG.info("Karma event channel closed", e);
+        }
+      }
+      finally {
+        myConnected = false;
+        close();
+      }
+    });
+  }
+
+  public void close() {
+    myClosed = true;
+    try {
+      myServerSocket.close();
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+    }
+  }
+
+  static void readEvents(@NotNull DataInputStream input, @NotNull StreamEventListener listener) throws IOException {
+    byte[] buffer = new byte[8192];
+    while (true) {
+      int length;
+      try {
+        length = input.readInt();
+      }
+      catch (EOFException e) {
+        return;
+      }
+      if (length < 0 || length > MAX_FRAME_LENGTH) {
+        throw new IOException("Malformed karma event frame length: " + length);
+      }
+      if (length > buffer.length) {
+        buffer = new byte[Math.max(length, buffer.length * 2)];
+      }
+      input.readFully(buffer, 0, length);
+      String payload = new String(buffer, 0, length, StandardCharsets.UTF_8);
+      int colonInd = payload.indexOf(':');
+      if (colonInd == -1) {
+        LOG.warn("Malformed karma event: " + payload);
+        continue;
+      }
+      listener.on(payload.substring(0, colonInd), payload.substring(colonInd + 1));
+    }
+  }
+}
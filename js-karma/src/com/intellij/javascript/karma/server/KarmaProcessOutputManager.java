@@ -15,6 +15,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
 
 public class KarmaProcessOutputManager {
 
@@ -31,7 +32,13 @@ public class KarmaProcessOutputManager {
   private final List<ArchivedOutputListener> myOutputListeners = new CopyOnWriteArrayList<>();
   private final List<StreamEventListener> myStdOutStreamEventListeners = new CopyOnWriteArrayList<>();
   private final List<Pair<String, Key>> myStdOutCurrentLineChunks = new ArrayList<>();
+  /**
+   * Serializes standard output processing and handling of events received through {@link KarmaEventChannel},
+   * so that listeners see events and output lines one at a time, in the order they arrived.
+   */
+  private final Object myStdOutLock = new Object();
   private final Consumer<? super String> myStdOutLineConsumer;
+  private volatile BooleanSupplier myStdOutLinesNeeded = () -> true;
 
   public KarmaProcessOutputManager(@NotNull ProcessHandler processHandler, @NotNull Consumer<? super String> stdOutLineConsumer) {
     myProcessHandler = processHandler;
@@ -43,7 +50,9 @@ public class KarmaProcessOutputManager {
       @Override
       public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
         if (ProcessOutputType.isStdout(outputType)) {
-          processStandardOutput(event.getText(), outputType);
+          synchronized (myStdOutLock) {
+            processStandardOutput(event.getText(), outputType);
+          }
         }
         else {
           addText(event.getText(), outputType);
@@ -54,6 +63,12 @@ public class KarmaProcessOutputManager {
   }
 
   private void processStandardOutput(@NotNull String text, @NotNull Key type) {
+    // the reporter falls back to standard output when the event channel fails, so text possibly containing
+    // an event (or the beginning of it, continued in the next chunk) still goes through line splitting
+    if (myStdOutCurrentLineChunks.isEmpty() && text.indexOf('#') == -1 && !myStdOutLinesNeeded.getAsBoolean()) {
+      addText(text, type);
+      return;
+    }
     if (handleLineAsEvent(text)) {
       for (Pair<String, Key> chunk : myStdOutCurrentLineChunks) {
         addText(chunk.getFirst(), chunk.getSecond());
@@ -164,4 +179,23 @@ public class KarmaProcessOutputManager {
     myStdOutStreamEventListeners.add(listener);
   }
 
+  /**
+   * Passes an event received through {@link KarmaEventChannel} to the same listeners as events found in the standard output.
+   */
+  void processChannelEvent(@NotNull String eventType, @NotNull String eventBody) {
+    synchronized (myStdOutLock) {
+      for (StreamEventListener listener : myStdOutStreamEventListeners) {
+        listener.on(eventType, eventBody);
+      }
+    }
+  }
+
+  /**
+   * When the condition is false (events are delivered through {@link KarmaEventChannel} and no one needs separate lines),
+   * standard output is archived in chunks as it arrives, without splitting it into lines, unless it may contain an event.
+   */
+  void setStdOutLinesNeeded(@NotNull BooleanSupplier stdOutLinesNeeded) {
+    myStdOutLinesNeeded = stdOutLinesNeeded;
+  }
+
 }
@@ -10,7 +10,6 @@ import com.intellij.javascript.karma.KarmaConfig;
 import com.intellij.javascript.karma.coverage.KarmaCoveragePeer;
 import com.intellij.javascript.karma.execution.KarmaServerSettings;
 import com.intellij.javascript.karma.util.KarmaUtil;
-import com.intellij.javascript.karma.util.StreamEventListener;
 import com.intellij.javascript.nodejs.NodeCommandLineUtil;
 import com.intellij.javascript.nodejs.interpreter.NodeCommandLineConfigurator;
 import com.intellij.javascript.nodejs.library.yarn.YarnPnpNodePackage;
@@ -50,6 +49,7 @@ public final class KarmaServer {
   private final KarmaProcessOutputManager myProcessOutputManager;
   private final KarmaServerState myState;
   private final KarmaCoveragePeer myCoveragePeer;
+  private final KarmaEventChannel myEventChannel;
   private final KarmaServerSettings myServerSettings;
   private final ConsoleCommandLineFolder myCommandLineFolder = new ConsoleCommandLineFolder();
 
@@ -67,12 +67,21 @@ public final class KarmaServer {
   public KarmaServer(@NotNull Project project, @NotNull KarmaServerSettings serverSettings) throws IOException {
     myServerSettings = serverSettings;
     myCoveragePeer = serverSettings.isWithCoverage() ? new KarmaCoveragePeer() : null;
-    KillableColoredProcessHandler processHandler = startServer(project, serverSettings, myCoveragePeer, myCommandLineFolder);
+    myEventChannel = new KarmaEventChannel();
+    KillableColoredProcessHandler processHandler;
+    try {
+      processHandler = startServer(project, serverSettings, myCoveragePeer, myCommandLineFolder, myEventChannel.getPort());
+    }
+    catch (IOException e) {
+      myEventChannel.close();
+      throw e;
+    }
     myProcessHashCode = System.identityHashCode(processHandler.getProcess());
     File configurationFile = myServerSettings.getConfigurationFile();
     myState = new KarmaServerState(this, configurationFile);
     myProcessOutputManager = new KarmaProcessOutputManager(processHandler, myState::onStandardOutputLineAvailable);
     registerStreamEventHandlers();
+    myEventChannel.start(myProcessOutputManager::processChannelEvent);
     myProcessOutputManager.startNotify();
 
     myDisposable = new MyDisposable();
@@ -96,28 +105,29 @@ public final class KarmaServer {
       myCoveragePeer.registerEventHandlers(this);
     }
 
-    myProcessOutputManager.addStreamEventListener(new StreamEventListener() {
-      @Override
-      public void on(@NotNull String eventType, @NotNull String eventBody) {
-        LOG.info("Processing Karma event " + eventType + " " + eventBody);
-        JsonElement jsonElement;
-        try {
-          jsonElement = JsonParser.parseString(eventBody);
-        }
-        catch (Exception e) {
-          LOG.warn("Cannot parse message from karma server:" +
-                   " (eventType: " + eventType + ", eventBody: " + eventBody + ")");
-          return;
-        }
-        StreamEventHandler handler = myHandlers.get(eventType);
-        if (handler != null) {
-          handler.handle(jsonElement);
-        }
-        else {
-          LOG.warn("Cannot find handler for " + eventType);
-        }
-      }
-    });
+    // events come through the event channel, the standard output is used only if the reporter cannot connect to it
+    myProcessOutputManager.addStreamEventListener(this::handleStreamEvent);
+    myProcessOutputManager.setStdOutLinesNeeded(() -> !myEventChannel.isConnected() || myState.isStandardOutputLinesNeeded());
+  }
+
+  private void handleStreamEvent(@NotNull String eventType, @NotNull String eventBody) {
+    LOG.info("Processing Karma event " + eventType + " " + eventBody);
+    JsonElement jsonElement;
+    try {
+      jsonElement = JsonParser.parseString(eventBody);
+    }
+    catch (Exception e) {
+      LOG.warn("Cannot parse message from karma server:" +
+               " (eventType: " + eventType + ", eventBody: " + eventBody + ")");
+      return;
+    }
+    StreamEventHandler handler = myHandlers.get(eventType);
+    if (handler != null) {
+      handler.handle(jsonElement);
+    }
+    else {
+      LOG.warn("Cannot find handler for " + eventType);
+    }
   }
 
   public @NotNull KarmaServerSettings getServerSettings() {
@@ -143,10 +153,11 @@ public final class KarmaServer {
   private static @NotNull KillableColoredProcessHandler startServer(@NotNull Project project,
                                                                     @NotNull KarmaServerSettings serverSettings,
                                                                     @Nullable KarmaCoveragePeer coveragePeer,
-                                                                    @NotNull ConsoleCommandLineFolder commandLineFolder) throws IOException {
+                                                                    @NotNull ConsoleCommandLineFolder commandLineFolder,
+                                                                    int eventPort) throws IOException {
     GeneralCommandLine commandLine = ReadAction.compute(() -> {
       try {
-        return createCommandLine(project, serverSettings, coveragePeer, commandLineFolder);
+        return createCommandLine(project, serverSettings, coveragePeer, commandLineFolder, eventPort);
       }
       catch (ExecutionException e) {
         throw new IOException("Can not create command line", e);
@@ -167,8 +178,8 @@ public final class KarmaServer {
   private static @NotNull GeneralCommandLine createCommandLine(@NotNull Project project,
                                                                @NotNull KarmaServerSettings serverSettings,
                                                                @Nullable KarmaCoveragePeer coveragePeer,
-                                                               @NotNull ConsoleCommandLineFolder commandLineFolder) throws IOException,
-                                                                                                                  ExecutionException {
+                                                               @NotNull ConsoleCommandLineFolder commandLineFolder,
+                                                               int eventPort) throws IOException, ExecutionException {
     NodeCommandLineConfigurator configurator = NodeCommandLineConfigurator.find(serverSettings.getNodeInterpreter());
     GeneralCommandLine commandLine = new GeneralCommandLine();
     serverSettings.getEnvData().configureCommandLine(commandLine, true);
@@ -249,6 +260,7 @@ public final class KarmaServer {
     if (serverSettings.isDebug()) {
       setIntellijParameter(commandLine, "debug", "true");
     }
+    setIntellijParameter(commandLine, "event_port", String.valueOf(eventPort));
     commandLine.setCharset(StandardCharsets.UTF_8);
     configurator.configure(commandLine);
     return commandLine;
@@ -410,6 +422,7 @@ public final class KarmaServer {
 
     private final Runnable myRunnable = ConcurrencyUtil.once(() -> {
       LOG.info("Disposing Karma server " + myProcessHashCode);
+      myEventChannel.close();
       if (myCoveragePeer != null) {
         FileUtil.asyncDelete(myCoveragePeer.getCoverageTempDir());
       }
@@ -132,6 +132,13 @@ public class KarmaServerState {
     return myConfig;
   }
 
+  /**
+   * Standard output lines are scanned for the bound server port and for browsers failed to start only.
+   */
+  boolean isStandardOutputLinesNeeded() {
+    return myBoundServerPort.get() == -1 || !myBrowsersReady.get();
+  }
+
   public void onStandardOutputLineAvailable(@NotNull String line) {
     int serverPort = myBoundServerPort.get();
     if (serverPort == -1) {
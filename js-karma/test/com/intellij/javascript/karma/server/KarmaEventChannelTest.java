@@ -0,0 +1,121 @@
+package com.intellij.javascript.karma.server;
+
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class KarmaEventChannelTest {
+  private static final List<Pair<String, String>> EXPECTED_EVENTS = Arrays.asList(
+    Pair.create("configFile", "{\"browsers\":[\"Chrome\"]}"),
+    Pair.create("browserConnected", "{\"id\":\"1\"}"),
+    Pair.create("browserDisconnected", "{\"id\":\"1\"}"));
+
+  @Test
+  public void testReadFramedEvents() throws IOException {
+    String largeBody = "\"" + new String(new char[20000]).replace('\0', 'x') + "\"";
+    List<Pair<String, String>> events = readEvents(frame("configFile:{\"browsers\":[\"Chrome\"]}"),
+                                                   frame("browserConnected:{\"id\":\"1\",\"name\":\"Chrome ü\"}"),
+                                                   frame("malformed"),
+                                                   frame("coverageFinished:" + largeBody));
+    Assert.assertEquals(Arrays.asList(Pair.create("configFile", "{\"browsers\":[\"Chrome\"]}"),
+                                      Pair.create("browserConnected", "{\"id\":\"1\",\"name\":\"Chrome ü\"}"),
+                                      Pair.create("coverageFinished", largeBody)),
+                        events);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedFrame() throws IOException {
+    byte[] frame = frame("configFile:{}");
+    readEvents(Arrays.copyOf(frame, frame.length - 1));
+  }
+
+  @Test
+  public void testReporterSendsEventsThroughChannel() throws Exception {
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      Process process = startReporter(serverSocket.getLocalPort());
+      List<Pair<String, String>> events = new ArrayList<>();
+      try (Socket socket = serverSocket.accept()) {
+        KarmaEventChannel.readEvents(new DataInputStream(new BufferedInputStream(socket.getInputStream())),
+                                     (eventType, eventBody) -> events.add(Pair.create(eventType, eventBody)));
+      }
+      Assert.assertEquals(EXPECTED_EVENTS, events);
+      Assert.assertEquals(Collections.emptyList(), getStdOutEvents(process));
+    }
+  }
+
+  @Test
+  public void testReporterFallsBackToStdOutWhenConnectionRefused() throws Exception {
+    int port;
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      port = serverSocket.getLocalPort();
+    }
+    // events sent before the connection is refused are not lost
+    Assert.assertEquals(EXPECTED_EVENTS, getStdOutEvents(startReporter(port)));
+  }
+
+  /**
+   * Runs intellijUtil.sendIntellijEvent in a node process: two events right away, i.e. before the socket connects, and one later.
+   */
+  private static Process startReporter(int eventPort) throws IOException {
+    File node = PathEnvironmentVariableUtil.findInPath("node");
+    Assume.assumeNotNull(node);
+    File intellijUtil = new File(PathManager.getHomePath(), "contrib/js-karma/resources/js_reporter/karma-intellij/lib/intellijUtil.js");
+    ProcessBuilder builder = new ProcessBuilder(
+      node.getAbsolutePath(), "-e",
+      "var util = require(process.argv[1]);\n" +
+      "util.sendIntellijEvent('configFile', {browsers: ['Chrome']});\n" +
+      "util.sendIntellijEvent('browserConnected', {id: '1'});\n" +
+      "setTimeout(function () { util.sendIntellijEvent('browserDisconnected', {id: '1'}); }, 200);\n",
+      intellijUtil.getAbsolutePath());
+    builder.environment().put("_INTELLIJ_KARMA_INTERNAL_PARAMETER_event_port", String.valueOf(eventPort));
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    return builder.start();
+  }
+
+  private static List<Pair<String, String>> getStdOutEvents(Process process) throws Exception {
+    String stdout = FileUtil.loadTextAndClose(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    Assert.assertEquals(0, process.waitFor());
+    List<Pair<String, String>> events = new ArrayList<>();
+    for (String line : StringUtil.splitByLines(stdout)) {
+      String event = StringUtil.trimEnd(StringUtil.trimStart(line, "##intellij-event["), "]");
+      int colonInd = event.indexOf(':');
+      events.add(Pair.create(event.substring(0, colonInd), event.substring(colonInd + 1)));
+    }
+    return events;
+  }
+
+  private static List<Pair<String, String>> readEvents(byte[]... frames) throws IOException {
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    for (byte[] frame : frames) {
+      stream.write(frame);
+    }
+    List<Pair<String, String>> events = new ArrayList<>();
+    KarmaEventChannel.readEvents(new DataInputStream(new ByteArrayInputStream(stream.toByteArray())),
+                                 (eventType, eventBody) -> events.add(Pair.create(eventType, eventBody)));
+    return events;
+  }
+
+  private static byte[] frame(String payload) throws IOException {
+    byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(stream);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+    return stream.toByteArray();
+  }
+}
@@ -5,6 +5,9 @@ import aQute.bnd.build.Container;
 import aQute.bnd.build.Project;
 import aQute.bnd.build.Workspace;
 import aQute.bnd.header.Attrs;
+import aQute.bnd.header.Parameters;
+import aQute.bnd.osgi.Constants;
+import aQute.bnd.osgi.Processor;
 import aQute.bnd.service.Refreshable;
 import aQute.bnd.service.RepositoryPlugin;
 import com.intellij.compiler.CompilerConfiguration;
@@ -33,6 +36,7 @@ import com.intellij.openapi.roots.libraries.LibraryTable;
 import com.intellij.openapi.roots.libraries.LibraryTablesRegistrar;
 import com.intellij.openapi.util.Conditions;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.util.text.StringUtil;
@@ -42,6 +46,7 @@ import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.pom.java.LanguageLevel;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.PathUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.containers.ContainerUtil;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NotNull;
@@ -58,6 +63,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -75,11 +84,13 @@ public final class BndProjectImporter {
   private static final Logger LOG = Logger.getInstance(BndProjectImporter.class);
 
   private static final Key<Workspace> BND_WORKSPACE_KEY = Key.create("bnd.workspace.key");
+  private static final Key<String> BND_MODULE_STATE_KEY = Key.create("bnd.module.state.key");
 
   private static final String JAVAC_SOURCE = "javac.source";
   private static final String JAVAC_TARGET = "javac.target";
   private static final String SRC_ROOT = "OSGI-OPT/src";
   private static final String JDK_DEPENDENCY = "ee.j2se";
+  private static final String[] DEPENDENCY_HEADERS = {Constants.DEPENDSON, Constants.BUILDPATH, Constants.TESTPATH};
 
   private static final Comparator<OrderEntry> ORDER_ENTRY_COMPARATOR = new Comparator<OrderEntry>() {
     @Override
@@ -102,6 +113,7 @@ public final class BndProjectImporter {
   private final Workspace myWorkspace;
   private final Collection<? extends Project> myProjects;
   private final Map<String, String> mySourcesMap = new THashMap<>(FileUtil.PATH_HASHING_STRATEGY);
+  private final Map<Project, String> myModuleStates = new HashMap<>();
 
   public BndProjectImporter(@NotNull com.intellij.openapi.project.Project project,
                             @NotNull Workspace workspace,
@@ -160,13 +172,21 @@ public final class BndProjectImporter {
     }
   }
 
+  /**
+   * Prepares projects in parallel; a project is prepared after the projects it depends on (as far as can be told
+   * from {@code -dependson}, {@code -buildpath} and {@code -testpath} before preparing), so that Bnd finds them ready.
+   */
   private boolean resolve(@Nullable ProgressIndicator indicator) {
-    int progress = 0;
-    for (Project project : myProjects) {
-      LOG.info("resolving: " + project.getBase());
+    Map<Project, List<Project>> dependencies = getProjectDependencies();
+    Map<Project, CompletableFuture<Void>> futures = new HashMap<>();
+    AtomicReference<Pair<Project, Exception>> error = new AtomicReference<>();
+    AtomicInteger progress = new AtomicInteger();
 
+    Consumer<Project> task = project -> {
+      if (error.get() != null || indicator != null && indicator.isCanceled()) return;
+
+      LOG.info("resolving: " + project.getBase());
       if (indicator != null) {
-        indicator.checkCanceled();
         indicator.setText(project.getName());
       }
 
@@ -174,23 +194,159 @@ public final class BndProjectImporter {
         project.prepare();
       }
       catch (Exception e) {
-        checkErrors(project, e);
-        return false;
+        error.compareAndSet(null, Pair.create(project, e));
+      }
+
+      if (indicator != null) {
+        indicator.setFraction((double)progress.incrementAndGet() / myProjects.size());
+      }
+    };
+
+    ExecutorService executor =
+      AppExecutorUtil.createBoundedApplicationPoolExecutor("Bnd Resolve", Runtime.getRuntime().availableProcessors());
+    try {
+      for (Project project : myProjects) {
+        schedulePrepare(project, dependencies, futures, new HashSet<>(), executor, task);
+      }
+
+      CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]));
+      while (true) {
+        if (indicator != null) indicator.checkCanceled();
+        try {
+          all.get(100, TimeUnit.MILLISECONDS);
+          break;
+        }
+        catch (TimeoutException ignored) { }
+        catch (InterruptedException | ExecutionException e) {
+          LOG.error(e);
+          return false;
+        }
       }
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    Pair<Project, Exception> failure = error.get();
+    if (failure != null) {
+      checkErrors(failure.first, failure.second);
+      return false;
+    }
+
+    for (Project project : myProjects) {
+      if (indicator != null) indicator.checkCanceled();
 
       checkWarnings(project, project.getErrors(), true);
       checkWarnings(project, project.getWarnings(), false);
 
       findSources(project);
 
-      if (indicator != null) {
-        indicator.setFraction((double)(++progress) / myProjects.size());
+      String state = getModuleState(project);
+      if (state != null) {
+        myModuleStates.put(project, state);
       }
     }
 
     return true;
   }
 
+  private static CompletableFuture<Void> schedulePrepare(Project project,
+                                                         Map<Project, List<Project>> dependencies,
+                                                         Map<Project, CompletableFuture<Void>> futures,
+                                                         Set<Project> visiting,
+                                                         Executor executor,
+                                                         Consumer<Project> task) {
+    CompletableFuture<Void> future = futures.get(project);
+    if (future != null) {
+      return future;
+    }
+
+    List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+    visiting.add(project);
+    for (Project dependency : dependencies.getOrDefault(project, Collections.emptyList())) {
+      if (!visiting.contains(dependency)) {  // cycles are left to Bnd
+        prerequisites.add(schedulePrepare(dependency, dependencies, futures, visiting, executor, task));
+      }
+    }
+    visiting.remove(project);
+
+    future = CompletableFuture.allOf(prerequisites.toArray(new CompletableFuture[0]))
+      .thenRunAsync(() -> task.accept(project), executor);
+    futures.put(project, future);
+    return future;
+  }
+
+  private Map<Project, List<Project>> getProjectDependencies() {
+    Map<String, Project> projectsByName = new HashMap<>();
+    for (Project project : myProjects) {
+      projectsByName.put(project.getName(), project);
+    }
+
+    Map<Project, List<Project>> result = new HashMap<>();
+    for (Project project : myProjects) {
+      Set<Project> dependencies = new LinkedHashSet<>();
+      for (String header : DEPENDENCY_HEADERS) {
+        String value = project.mergeProperties(header);
+        if (StringUtil.isEmptyOrSpaces(value)) continue;
+        for (String key : new Parameters(value).keySet()) {
+          // sub-bundles are referred to as "<project>.<sub-bundle>"
+          String name = Processor.removeDuplicateMarker(key);
+          Project dependency = projectsByName.get(name);
+          while (dependency == null && name.lastIndexOf('.') > 0) {
+            name = name.substring(0, name.lastIndexOf('.'));
+            dependency = projectsByName.get(name);
+          }
+          if (dependency != null && dependency != project) {
+            dependencies.add(dependency);
+          }
+        }
+      }
+      result.put(project, new ArrayList<>(dependencies));
+    }
+    return result;
+  }
+
+  /**
+   * Returns a summary of everything {@link #createModule} and {@link #setDependencies} take from the project,
+   * used to skip modules whose layout and resolved classpath didn't change since the previous import.
+   */
+  @Nullable
+  private String getModuleState(Project project) {
+    try {
+      StringBuilder state = new StringBuilder();
+      state.append(path(project.getBase())).append('\n');
+      for (File src : project.getSourcePath()) state.append("src:").append(path(src)).append('\n');
+      File testSrc = project.getTestSrc();
+      if (testSrc != null) state.append("test:").append(path(testSrc)).append('\n');
+      state.append("target:").append(path(project.getTarget())).append('\n');
+      state.append("output:").append(path(project.getSrcOutput())).append(':').append(path(project.getTestOutput())).append('\n');
+      state.append(JAVAC_SOURCE).append(':').append(project.getProperty(JAVAC_SOURCE)).append('\n');
+      state.append(JAVAC_TARGET).append(':').append(project.getProperty(JAVAC_TARGET)).append('\n');
+      state.append("bundles:").append(!project.isNoBundles()).append(':').append(path(project.getPropertiesFile()));
+      Map.Entry<String, Attrs> bsn = project.getBundleSymbolicName();
+      state.append(':').append(path(project.getOutputFile(bsn != null ? bsn.getKey() : project.getName(), project.getBundleVersion())));
+      state.append('\n');
+      appendClasspathState(state, "boot", project.getBootclasspath());
+      appendClasspathState(state, "build", project.getBuildpath());
+      appendClasspathState(state, "test", project.getTestpath());
+      return state.toString();
+    }
+    catch (Exception e) {
+      LOG.debug(e);
+      return null;
+    }
+  }
+
+  private void appendClasspathState(StringBuilder state, String kind, Collection<Container> classpath) {
+    for (Container dependency : classpath) {
+      File file = dependency.getFile();
+      state.append(kind).append(':').append(dependency.getType()).append(':')
+        .append(dependency.getType() == Container.TYPE.PROJECT ? dependency.getProject().getName() : "").append(':')
+        .append(dependency.getBundleSymbolicName()).append(':').append(dependency.getVersion()).append(':')
+        .append(file.getPath()).append(':').append(mySourcesMap.get(file.getPath())).append('\n');
+    }
+  }
+
   private void findSources(Project project) {
     try {
       findSources(project.getBootclasspath());
@@ -241,6 +397,11 @@ public final class BndProjectImporter {
       LibraryTable.ModifiableModel libraryModel = LibraryTablesRegistrar.getInstance().getLibraryTable(myProject).getModifiableModel();
       try {
         for (Project project : myProjects) {
+          Module module = moduleModel.findModuleByName(project.getName());
+          String state = myModuleStates.get(project);
+          if (module != null && state != null && (projectLevel + "\n" + state).equals(module.getUserData(BND_MODULE_STATE_KEY))) {
+            continue;  // nothing changed since the previous import
+          }
           try {
             rootModels.put(project, createModule(moduleModel, project, projectLevel));
           }
@@ -249,8 +410,10 @@ public final class BndProjectImporter {
           }
         }
         for (Project project : myProjects) {
+          ModifiableRootModel rootModel = rootModels.get(project);
+          if (rootModel == null) continue;
           try {
-            setDependencies(moduleModel, libraryModel, rootModels.get(project), project);
+            setDependencies(moduleModel, libraryModel, rootModel, project);
           }
           catch (Exception e) {
             LOG.error(e);  // should not happen, since project.prepare() is already called
@@ -261,6 +424,11 @@ public final class BndProjectImporter {
         libraryModel.commit();
         ModifiableModelCommitter.multiCommit(rootModels.values(), moduleModel);
       }
+
+      for (Map.Entry<Project, ModifiableRootModel> entry : rootModels.entrySet()) {
+        String state = myModuleStates.get(entry.getKey());
+        entry.getValue().getModule().putUserData(BND_MODULE_STATE_KEY, state != null ? projectLevel + "\n" + state : null);
+      }
     });
   }
 
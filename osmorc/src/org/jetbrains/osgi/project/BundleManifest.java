@@ -6,14 +6,15 @@ import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiNameHelper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a bundle manifest.
@@ -22,6 +23,8 @@ import java.util.Set;
 public class BundleManifest {
   private final Map<String, String> myMap;
   private final PsiFile mySource;
+  private final Map<String, Set<String>> myParsedHeaders = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> myPackageHeaders = new ConcurrentHashMap<>();
 
   public BundleManifest(@NotNull Map<String, String> map) {
     this(map, null);
@@ -54,48 +57,64 @@ public class BundleManifest {
 
   @Nullable
   public String getExportedPackage(@NotNull String packageName) {
-    for (String exported : getValues(Constants.EXPORT_PACKAGE)) {
-      exported = StringUtil.trimEnd(exported, ".*");
-      if (PsiNameHelper.isSubpackageOf(packageName, exported)) {
-        return exported;
-      }
-    }
+    return findEnclosingPackage(getExportedPackages(), packageName);
+  }
 
-    return null;
+  /**
+   * Returns names of exported packages, with trailing wildcards stripped.
+   */
+  @NotNull
+  public Set<String> getExportedPackages() {
+    return getPackages(Constants.EXPORT_PACKAGE);
   }
 
   public boolean isPackageImported(@NotNull String packageName) {
-    for (String imported : getValues(Constants.IMPORT_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, imported)) {
-        return true;
-      }
-    }
-
-    return false;
+    return findEnclosingPackage(getPackages(Constants.IMPORT_PACKAGE), packageName) != null;
   }
 
   public boolean isBundleRequired(@NotNull String bsn) {
-    for (String bundleName : getValues(Constants.REQUIRE_BUNDLE)) {
-      if (bsn.equals(bundleName)) {
-        return true;
-      }
-    }
-
-    return false;
+    return getValues(Constants.REQUIRE_BUNDLE).contains(bsn);
   }
 
   public boolean isPrivatePackage(@NotNull String packageName) {
-    for (String privatePkg : getValues(Constants.PRIVATE_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, privatePkg)) {
-        return true;
+    return findEnclosingPackage(getPackages(Constants.PRIVATE_PACKAGE), packageName) != null;
+  }
+
+  /**
+   * Walks up the package hierarchy of the given name (e.g. "a.b.c", "a.b", "a") and returns the first one present in the set.
+   */
+  @Nullable
+  static String findEnclosingPackage(@NotNull Set<String> packages, @NotNull String packageName) {
+    if (packages.isEmpty()) return null;
+
+    String candidate = packageName;
+    while (true) {
+      if (packages.contains(candidate)) {
+        return candidate;
       }
+      int p = candidate.lastIndexOf('.');
+      if (p <= 0) return null;
+      candidate = candidate.substring(0, p);
     }
+  }
 
-    return false;
+  private Set<String> getPackages(String header) {
+    // not computed inside myParsedHeaders.computeIfAbsent(): nested updates of the same map are not allowed
+    Set<String> values = getValues(header);
+    return myPackageHeaders.computeIfAbsent(header, k -> {
+      if (values.isEmpty()) return Collections.emptySet();
+      Set<String> packages = new HashSet<>();
+      for (String value : values) {
+        packages.add(StringUtil.trimEnd(value, ".*"));
+      }
+      return packages;
+    });
   }
 
   private Set<String> getValues(String header) {
-    String value = get(header);
-    return StringUtil.isEmptyOrSpaces(value) ? Collections.emptySet() : new Parameters(value).keySet();
+    return myParsedHeaders.computeIfAbsent(header, k -> {
+      String value = get(header);
+      return StringUtil.isEmptyOrSpaces(value) ? Collections.emptySet() : new HashSet<>(new Parameters(value).keySet());
+    });
   }
 }
\ No newline at end of file
@@ -172,6 +172,26 @@ class BndProjectImporterTest : JavaProjectTestCase() {
     assertNotNull(OsmorcFacet.getInstance(module))
   }
 
+  fun testReimportKeepsUnchangedModules() {
+    assertNotNull(BndProjectImporter.findWorkspace(myProject))
+    BndProjectImporter.reimportWorkspace(myProject)
+
+    val provider = ModuleManager.getInstance(myProject).findModuleByName("hello.provider")!!
+    val consumer = ModuleManager.getInstance(myProject).findModuleByName("hello.consumer")!!
+    val markerUrl = VfsUtilCore.pathToUrl("$myProjectDir/marker")
+    ModuleRootModificationUtil.addModuleLibrary(provider, "marker", listOf(markerUrl), emptyList())
+    ModuleRootModificationUtil.addModuleLibrary(consumer, "marker", listOf(markerUrl), emptyList())
+
+    BndProjectImporter.reimportWorkspace(myProject)
+    assertThat(getDependencies(provider)).containsExactly("<jdk>", "<src>", "marker")
+    assertThat(getDependencies(consumer)).containsExactly("<jdk>", "<src>", "hello.provider", "marker")
+
+    File(myProjectDir, "hello.consumer/bnd.bnd").writeText("-buildpath: hello.provider\njavac.source: 1.7")
+    BndProjectImporter.reimportWorkspace(myProject)
+    assertThat(getDependencies(provider)).containsExactly("<jdk>", "<src>", "marker")
+    assertThat(getDependencies(consumer)).containsExactly("<jdk>", "<src>", "hello.provider")
+  }
+
 
   private fun getDependencies(it: Module): List<String> {
     val dependencies: MutableList<String> = arrayListOf()
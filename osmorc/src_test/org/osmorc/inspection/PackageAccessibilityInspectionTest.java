@@ -2,11 +2,16 @@
 package org.osmorc.inspection;
 
 import com.intellij.codeInsight.intention.IntentionAction;
+import com.intellij.codeInspection.InspectionManager;
 import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.PlatformTestUtil;
 import org.jetbrains.osgi.jps.model.ManifestGenerationMode;
 import org.osmorc.LightOsgiFixtureTestCase;
 import org.osmorc.i18n.OsmorcBundle;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PackageAccessibilityInspectionTest extends LightOsgiFixtureTestCase {
   public void testEmpty() {
     doTest(
@@ -121,6 +126,31 @@ public class PackageAccessibilityInspectionTest extends LightOsgiFixtureTestCase
       " javax.swing\n");
   }
 
+  public void testBatchInspectionPerformance() {
+    myFixture.addFileToProject("META-INF/MANIFEST.MF", "Import-Package: javax.swing\n");
+    List<PsiFile> files = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      files.add(myFixture.addFileToProject(
+        "pkg" + i + "/C.java",
+        "package pkg" + i + ";\n" +
+        "import aQute.bnd.repository.fileset.FileSetRepository;\n" +
+        "import aQute.lib.fileset.FileSet;\n" +
+        "public class C {\n" +
+        "  javax.swing.Icon icon;\n" +
+        "  FileSetRepository repo;\n" +
+        "  FileSet set;\n" +
+        "}"));
+    }
+
+    PackageAccessibilityInspection inspection = new PackageAccessibilityInspection();
+    InspectionManager manager = InspectionManager.getInstance(getProject());
+    PlatformTestUtil.startPerformanceTest("OSGi package accessibility batch inspection", 5000, () -> {
+      for (PsiFile file : files) {
+        inspection.checkFile(file, manager, false);
+      }
+    }).assertTiming();
+  }
+
   private void doTest(String classText) {
     doTest(classText, "");
   }
@@ -0,0 +1,60 @@
+package org.intellij.plugins.postcss.psi.stubs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.util.Processor;
+import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Top-level simple variable declarations ({@code $var: value;}), i.e. the ones visible in the files that import the declaring one.
+ */
+public class PostCssSimpleVariableIndex extends StringStubIndexExtension<PostCssSimpleVariableDeclaration> {
+  public static final StubIndexKey<String, PostCssSimpleVariableDeclaration> KEY =
+    StubIndexKey.createIndexKey("postcss.simple.variable");
+
+  @NotNull
+  @Override
+  public StubIndexKey<String, PostCssSimpleVariableDeclaration> getKey() {
+    return KEY;
+  }
+
+  /**
+   * Passes to the {@code processor} top-level declarations of the {@code file}, the last declaration of a variable first
+   * (it overrides the previous ones). If {@code name} is not null, only declarations of this variable are processed.
+   */
+  public static boolean processDeclarations(@NotNull Project project,
+                                            @NotNull VirtualFile file,
+                                            @Nullable String name,
+                                            @NotNull Processor<? super PostCssSimpleVariableDeclaration> processor) {
+    GlobalSearchScope scope = GlobalSearchScope.fileScope(project, file);
+    Collection<String> names = new ArrayList<>();
+    if (name != null) {
+      names.add(name);
+    }
+    else {
+      StubIndex.getInstance().processAllKeys(KEY, key -> {
+        names.add(key);
+        return true;
+      }, scope, null);
+    }
+
+    for (String variableName : names) {
+      List<PostCssSimpleVariableDeclaration> declarations =
+        new ArrayList<>(StubIndex.getElements(KEY, variableName, project, scope, PostCssSimpleVariableDeclaration.class));
+      for (int i = declarations.size() - 1; i >= 0; i--) {
+        if (!processor.process(declarations.get(i))) return false;
+      }
+    }
+    return true;
+  }
+}
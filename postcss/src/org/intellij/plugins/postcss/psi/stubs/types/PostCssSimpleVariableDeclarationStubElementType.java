@@ -0,0 +1,44 @@
+package org.intellij.plugins.postcss.psi.stubs.types;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.css.CssRulesetList;
+import com.intellij.psi.css.CssStylesheet;
+import com.intellij.psi.css.impl.stubs.base.CssNamedStub;
+import com.intellij.psi.css.impl.stubs.base.CssSimpleNamedStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import org.intellij.plugins.postcss.PostCssLanguage;
+import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.intellij.plugins.postcss.psi.impl.PostCssSimpleVariableDeclarationImpl;
+import org.intellij.plugins.postcss.psi.stubs.PostCssSimpleVariableIndex;
+import org.jetbrains.annotations.NotNull;
+
+public class PostCssSimpleVariableDeclarationStubElementType extends CssSimpleNamedStubElementType<PostCssSimpleVariableDeclaration> {
+
+  public PostCssSimpleVariableDeclarationStubElementType() {
+    super("POST_CSS_SIMPLE_VARIABLE_DECLARATION", PostCssLanguage.INSTANCE);
+  }
+
+  @Override
+  public PsiElement createElement(ASTNode node) {
+    return new PostCssSimpleVariableDeclarationImpl(node);
+  }
+
+  @Override
+  public PostCssSimpleVariableDeclaration createPsi(@NotNull CssNamedStub<PostCssSimpleVariableDeclaration> stub) {
+    return new PostCssSimpleVariableDeclarationImpl(stub, this);
+  }
+
+  @Override
+  public boolean shouldCreateStub(ASTNode node) {
+    // declarations nested in blocks aren't visible from other files, so there is no need to index them
+    ASTNode rulesetList = node.getTreeParent();
+    ASTNode stylesheet = rulesetList != null ? rulesetList.getTreeParent() : null;
+    return stylesheet != null && rulesetList.getPsi() instanceof CssRulesetList && stylesheet.getPsi() instanceof CssStylesheet;
+  }
+
+  @Override
+  public void indexStub(@NotNull final CssNamedStub<PostCssSimpleVariableDeclaration> stub, @NotNull final IndexSink sink) {
+    sink.occurrence(PostCssSimpleVariableIndex.KEY, stub.getName());
+  }
+}
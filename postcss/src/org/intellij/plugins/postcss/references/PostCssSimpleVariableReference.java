@@ -3,6 +3,8 @@ package org.intellij.plugins.postcss.references;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.icons.AllIcons;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -10,6 +12,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.StubBasedPsiElement;
 import com.intellij.psi.css.CssRulesetList;
 import com.intellij.psi.css.CssStylesheet;
 import com.intellij.psi.css.CssTermList;
@@ -17,6 +20,9 @@ import com.intellij.psi.css.StylesheetFile;
 import com.intellij.psi.css.impl.util.CssUtil;
 import com.intellij.psi.css.reference.CssReference;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.Processor;
@@ -24,6 +30,7 @@ import com.intellij.util.SmartList;
 import org.intellij.plugins.postcss.PostCssLanguage;
 import org.intellij.plugins.postcss.lexer.PostCssTokenTypes;
 import org.intellij.plugins.postcss.psi.PostCssSimpleVariableDeclaration;
+import org.intellij.plugins.postcss.psi.stubs.PostCssSimpleVariableIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -36,7 +43,7 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
       if (varName.isEmpty()) return null;
 
       final Ref<PostCssSimpleVariableDeclaration> result = Ref.create();
-      processSimpleVariableDeclarations(reference.getElement(), element -> {
+      processSimpleVariableDeclarations(reference.getElement(), varName, element -> {
         if (varName.equals(element.getName())) {
           result.set(element);
           return false;
@@ -80,9 +87,10 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
   @Override
   public Object @NotNull [] getVariants() {
     final SmartList<LookupElement> result = new SmartList<>();
-    processSimpleVariableDeclarations(myElement, element -> {
+    processSimpleVariableDeclarations(myElement, null, element -> {
       LookupElementBuilder lookup = LookupElementBuilder.create(element).withIcon(AllIcons.Nodes.Variable);
-      CssTermList initializer = element.getInitializer();
+      // declarations from imported files come from the index; don't parse those files just for the tail text
+      CssTermList initializer = isAstLoaded(element) ? element.getInitializer() : null;
       if (initializer != null) {
         lookup = lookup.withTailText(" " + initializer.getText(), true);
       }
@@ -115,6 +123,7 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
   }
 
   private static void processSimpleVariableDeclarations(@NotNull PsiElement context,
+                                                        @Nullable String name,
                                                         @NotNull Processor<PostCssSimpleVariableDeclaration> processor) {
     CssRulesetList rulesetList = PsiTreeUtil.getParentOfType(context, CssRulesetList.class);
     if (rulesetList == null) return;
@@ -122,19 +131,42 @@ public class PostCssSimpleVariableReference extends PsiReferenceBase<PsiElement>
     if (!processSimpleVarsInRulesetList(rulesetList, processor)) return;
 
     PsiFile contextFile = context.getContainingFile();
-    Set<VirtualFile> otherFiles = CssUtil.getImportedFiles(context.getContainingFile(), context, true);
-    for (VirtualFile otherFile : otherFiles) {
-      PsiFile otherPsiFile = contextFile.getManager().findFile(otherFile);
-      if (otherPsiFile instanceof StylesheetFile && !otherFile.equals(contextFile.getVirtualFile())) {
-        CssStylesheet otherStylesheet = ((StylesheetFile)otherPsiFile).getStylesheet();
-        CssRulesetList otherRulesetList = otherStylesheet == null ? null : otherStylesheet.getRulesetList();
-        if (otherRulesetList != null) {
-          if (!processSimpleVarsInRulesetList(otherRulesetList, processor)) return;
+    Project project = contextFile.getProject();
+    ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+    for (VirtualFile otherFile : getImportedFiles(contextFile)) {
+      if (otherFile.equals(contextFile.getVirtualFile())) continue;
+
+      if (fileIndex.isInContent(otherFile) || fileIndex.isInLibrary(otherFile)) {
+        if (!PostCssSimpleVariableIndex.processDeclarations(project, otherFile, name, processor)) return;
+      }
+      else {
+        // not indexed, e.g. an excluded folder
+        PsiFile otherPsiFile = contextFile.getManager().findFile(otherFile);
+        if (otherPsiFile instanceof StylesheetFile) {
+          CssStylesheet otherStylesheet = ((StylesheetFile)otherPsiFile).getStylesheet();
+          CssRulesetList otherRulesetList = otherStylesheet == null ? null : otherStylesheet.getRulesetList();
+          if (otherRulesetList != null) {
+            if (!processSimpleVarsInRulesetList(otherRulesetList, processor)) return;
+          }
         }
       }
     }
   }
 
+  /**
+   * Files imported by the {@code file} directly or transitively, cached until any PSI change
+   * since an import may be resolved to a different file after a change in another file.
+   */
+  @NotNull
+  private static Set<VirtualFile> getImportedFiles(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result
+      .create(CssUtil.getImportedFiles(file, file, true), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  private static boolean isAstLoaded(@NotNull PostCssSimpleVariableDeclaration declaration) {
+    return !(declaration instanceof StubBasedPsiElement) || ((StubBasedPsiElement<?>)declaration).getStub() == null;
+  }
+
   private static boolean processSimpleVarsInRulesetList(@NotNull CssRulesetList rulesetList,
                                                         @NotNull Processor<PostCssSimpleVariableDeclaration> processor) {
     PsiElement child = rulesetList.getLastChild();
@@ -61,6 +61,29 @@ public class PostCssSimpleVarsTest extends PostCssFixtureTestCase {
     );
   }
 
+  public void testResolveToImportedFile() {
+    myFixture.addFileToProject("vars.pcss",
+                               "@import 'colors.pcss';\n" +
+                               "$foo: 1px;\n" +
+                               "@media screen {\n" +
+                               "  $foo: 3px;\n" +
+                               "}\n" +
+                               "$foo: 2px;");
+    myFixture.addFileToProject("colors.pcss", "$blue: #056ef0;");
+    doResolveTest("@import 'vars.pcss';\n" +
+                  ".header {\n" +
+                  "    width: calc(4 * $<caret>foo);\n" +
+                  "}",
+                  "$foo: 2px;"
+    );
+    doResolveTest("@import 'vars.pcss';\n" +
+                  ".header {\n" +
+                  "    color: $<caret>blue;\n" +
+                  "}",
+                  "$blue: #056ef0;"
+    );
+  }
+
   public void testFindUsages() {
     doTestFindUsages("$f<caret>oo: 10px;\n" +
                      "$foo $(foo) {\n" +
@@ -38,6 +38,7 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.ThrowableComputable;
@@ -69,6 +70,10 @@ import java.util.concurrent.CompletableFuture;
 public class ReformatWithPrettierAction extends AnAction implements DumbAware {
   private static final @NotNull Logger LOG = Logger.getInstance(ReformatWithPrettierAction.class);
   private static long EDT_TIMEOUT_MS = 2000;
+  private static final int MAX_REQUESTS_IN_FLIGHT = 8;
+  private static final int APPLY_BATCH_SIZE = 100;
+  private static final String EDITOR_CONFIG_FILE_NAME = ".editorconfig";
+  private static final Key<FormattedStamp> FORMATTED_STAMP_KEY = Key.create("prettier.formatted.stamp");
 
   private final ErrorHandler myErrorHandler;
 
@@ -282,9 +287,7 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
                                           boolean reportSkippedFiles,
                                           @NotNull ErrorHandler errorHandler) {
     PrettierLanguageService service = PrettierLanguageService.getInstance(project);
-    Map<PsiFile, PrettierLanguageService.FormatResult> results = executeUnderProgress(project, indicator -> {
-      Map<PsiFile, PrettierLanguageService.FormatResult> reformattedResults = new HashMap<>();
-
+    List<String> errors = executeUnderProgress(project, indicator -> {
       List<PsiFile> files = new SmartList<>();
       ReadAction.run(() -> {
         while (fileIterator.hasNext()) {
@@ -292,47 +295,186 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
         }
       });
 
-      for (PsiFile currentFile : files) {
+      List<String> reformatErrors = new ArrayList<>();
+      Map<VirtualFile, Long> configHashes = new HashMap<>();
+      Deque<PendingRequest> inFlight = new ArrayDeque<>();
+      List<PendingRequest> completed = new ArrayList<>();
+      for (int i = 0; i < files.size(); i++) {
+        PsiFile currentFile = files.get(i);
+        indicator.checkCanceled();
+        indicator.setFraction((double)i / files.size());
         indicator.setText(PrettierBundle.message("processing.0.progress", currentFile.getName()));
-        PrettierLanguageService.FormatResult result = performRequestForFile(project, nodePackage, service, currentFile, null);
-        // timed out. show notification?
-        if (result == null) {
+        PendingRequest request = sendRequestForFile(project, nodePackage, service, currentFile, configHashes);
+        if (request == null) {
           continue;
         }
-        if (result.unsupported && reportSkippedFiles) {
-          PrettierLanguageService.FormatResult errorResult = PrettierLanguageService.FormatResult
-            .error(PrettierBundle.message("not.supported.file", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
+        inFlight.addLast(request);
+        if (inFlight.size() >= MAX_REQUESTS_IN_FLIGHT) {
+          awaitRequest(inFlight.removeFirst(), completed, reportSkippedFiles, reformatErrors);
         }
-        if (result.ignored) {
-          PrettierLanguageService.FormatResult errorResult =
-            PrettierLanguageService.FormatResult.error(PrettierBundle.message("file.was.ignored", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
-          continue;
+        if (completed.size() >= APPLY_BATCH_SIZE) {
+          applyFormatResults(project, completed);
         }
-        reformattedResults.put(currentFile, result);
       }
-      return reformattedResults;
-    });
-
-    runWriteCommandAction(project, () -> {
-      for (Map.Entry<PsiFile, PrettierLanguageService.FormatResult> entry : results.entrySet()) {
-        VirtualFile virtualFile = entry.getKey().getVirtualFile();
-        if (virtualFile == null) {
-          continue;
-        }
-        PrettierLanguageService.FormatResult result = entry.getValue();
-        applyFormatResult(project, virtualFile, result);
+      while (!inFlight.isEmpty()) {
+        awaitRequest(inFlight.removeFirst(), completed, reportSkippedFiles, reformatErrors);
       }
+      applyFormatResults(project, completed);
+      return reformatErrors;
     });
-    List<String> errors = ContainerUtil.mapNotNull(results.entrySet(), t -> t.getValue().error);
-    if (errors.size() > 0) {
+
+    if (errors != null && errors.size() > 0) {
       errorHandler.showErrorWithDetails(project, null,
                                         PrettierBundle.message("failed.to.reformat.0.files", errors.size()),
                                         StringUtil.join(errors, "\n"));
     }
   }
 
+  private static void awaitRequest(@NotNull PendingRequest request,
+                                   @NotNull List<PendingRequest> completed,
+                                   boolean reportSkippedFiles,
+                                   @NotNull List<String> errors) {
+    boolean edt = ApplicationManager.getApplication().isDispatchThread();
+    long timeout = edt ? EDT_TIMEOUT_MS : JSLanguageServiceUtil.getTimeout();
+    PrettierLanguageService.FormatResult result = request.myFuture == null ? null :
+      JSLanguageServiceUtil.awaitFuture(request.myFuture, timeout, JSLanguageServiceUtil.QUOTA_MILLS, null, true, null, edt);
+    // timed out. show notification?
+    if (result == null) {
+      return;
+    }
+    if (!StringUtil.isEmpty(result.error)) {
+      errors.add(result.error);
+    }
+    else if (result.ignored) {
+      errors.add(PrettierBundle.message("file.was.ignored", request.myFile.getName()));
+    }
+    else if (result.unsupported) {
+      if (reportSkippedFiles) {
+        errors.add(PrettierBundle.message("not.supported.file", request.myFile.getName()));
+      }
+    }
+    else {
+      request.myResult = result;
+      completed.add(request);
+    }
+  }
+
+  /**
+   * Applies the results in a single write command and remembers the formatted state of the files,
+   * see {@link #isFormattedWithSameConfig(VirtualFile, CharSequence, long)}.
+   */
+  private static void applyFormatResults(@NotNull Project project, @NotNull List<PendingRequest> completed) {
+    if (completed.isEmpty()) return;
+    List<PendingRequest> batch = new ArrayList<>(completed);
+    completed.clear();
+    ApplicationManager.getApplication().invokeAndWait(() -> runWriteCommandAction(project, () -> {
+      for (PendingRequest request : batch) {
+        if (!request.myFile.isValid()) continue;
+        applyFormatResult(project, request.myFile, request.myResult);
+        Document document = FileDocumentManager.getInstance().getCachedDocument(request.myFile);
+        if (document != null) {
+          request.myFile.putUserData(FORMATTED_STAMP_KEY, new FormattedStamp(StringUtil.stringHashCode(document.getImmutableCharSequence()),
+                                                                             request.myConfigHash));
+        }
+      }
+    }), ModalityState.defaultModalityState());
+  }
+
+  /**
+   * @return null if there is nothing to format, e.g. the file is formatted already with the same configuration
+   */
+  @Nullable
+  private static PendingRequest sendRequestForFile(@NotNull Project project,
+                                                   @NotNull NodePackage nodePackage,
+                                                   @NotNull PrettierLanguageService service,
+                                                   @NotNull PsiFile currentFile,
+                                                   @NotNull Map<VirtualFile, Long> configHashes) {
+    Ref<PendingRequest> request = Ref.create();
+    Ref<String> text = Ref.create();
+    Ref<String> ignoreFilePath = Ref.create();
+    ReadAction.run(() -> {
+      if (!currentFile.isValid()) return;
+
+      VirtualFile currentVFile = currentFile.getVirtualFile();
+      Document document = PsiDocumentManager.getInstance(project).getDocument(currentFile);
+      if (currentVFile == null || document == null) return;
+      CharSequence content = document.getImmutableCharSequence();
+      VirtualFile ignoreVFile = PrettierUtil.findIgnoreFile(currentVFile, project);
+      long configHash = getConfigHash(project, currentVFile, ignoreVFile, nodePackage, configHashes);
+      if (isFormattedWithSameConfig(currentVFile, content, configHash)) return;
+
+      request.set(new PendingRequest(currentVFile, configHash));
+      text.set(JSLanguageServiceUtil.convertLineSeparatorsToFileOriginal(project, content, currentVFile).toString());
+      if (ignoreVFile != null) {
+        ignoreFilePath.set(ignoreVFile.getPath());
+      }
+    });
+    if (request.isNull()) {
+      return null;
+    }
+    request.get().myFuture = service.format(request.get().myFile.getPath(), ignoreFilePath.get(), text.get(), nodePackage, null);
+    return request.get();
+  }
+
+  private static boolean isFormattedWithSameConfig(@NotNull VirtualFile file, @NotNull CharSequence content, long configHash) {
+    FormattedStamp stamp = file.getUserData(FORMATTED_STAMP_KEY);
+    return stamp != null && stamp.myConfigHash == configHash && stamp.myContentHash == StringUtil.stringHashCode(content);
+  }
+
+  /**
+   * Hash of everything that may affect formatting of the file except its content: Prettier package,
+   * config files and package.json files up to the project base dir, .editorconfig files, and the ignore file.
+   */
+  private static long getConfigHash(@NotNull Project project,
+                                    @NotNull VirtualFile file,
+                                    @Nullable VirtualFile ignoreFile,
+                                    @NotNull NodePackage nodePackage,
+                                    @NotNull Map<VirtualFile, Long> configHashesByDirectory) {
+    VirtualFile parent = file.getParent();
+    Long directoryHash = parent == null ? null : configHashesByDirectory.get(parent);
+    if (directoryHash == null) {
+      long hash = nodePackage.getSystemIndependentPath().hashCode();
+      SemVer version = nodePackage.getVersion();
+      hash = 31 * hash + (version != null ? version.getRawVersion().hashCode() : 0);
+      List<VirtualFile> configs = new ArrayList<>(PrettierUtil.lookupPossibleConfigFiles(Collections.singletonList(file), project));
+      configs.sort(Comparator.comparing(VirtualFile::getPath));
+      for (VirtualFile dir = parent; dir != null; dir = dir.getParent()) {
+        ContainerUtil.addIfNotNull(configs, dir.findChild(EDITOR_CONFIG_FILE_NAME));
+      }
+      for (VirtualFile config : configs) {
+        hash = 31 * hash + config.getPath().hashCode();
+        hash = 31 * hash + config.getModificationStamp();
+      }
+      directoryHash = hash;
+      if (parent != null) {
+        configHashesByDirectory.put(parent, directoryHash);
+      }
+    }
+    return ignoreFile == null ? directoryHash : 31 * (31 * directoryHash + ignoreFile.getPath().hashCode()) + ignoreFile.getModificationStamp();
+  }
+
+  private static final class PendingRequest {
+    private final VirtualFile myFile;
+    private final long myConfigHash;
+    private CompletableFuture<PrettierLanguageService.FormatResult> myFuture;
+    private PrettierLanguageService.FormatResult myResult;
+
+    private PendingRequest(@NotNull VirtualFile file, long configHash) {
+      myFile = file;
+      myConfigHash = configHash;
+    }
+  }
+
+  private static final class FormattedStamp {
+    private final int myContentHash;
+    private final long myConfigHash;
+
+    private FormattedStamp(int contentHash, long configHash) {
+      myContentHash = contentHash;
+      myConfigHash = configHash;
+    }
+  }
+
   /**
    * @param result (new text length) - (old text length)
    */
@@ -15,7 +15,11 @@
 
 package com.intellij.struts2.model.constant;
 
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.struts2.model.constant.contributor.StrutsCoreConstantContributor;
 import org.jetbrains.annotations.NotNull;
 
@@ -45,4 +49,24 @@ public class StrutsConstantManagerWithStrutsPropertiesTest extends StrutsConstan
     final VirtualFile strutsXmlFile = myFixture.findFileInTempDir(STRUTS_XML);
     performResolveTest(strutsXmlFile, StrutsCoreConstantContributor.ACTION_EXTENSION, Arrays.asList("foo"));
   }
-}
\ No newline at end of file
+
+  /**
+   * Cached value must be dropped after changing {@code struts.properties}.
+   */
+  public void testStrutsPropertiesModification() {
+    final VirtualFile strutsProperties = myFixture.copyFileToProject("struts.properties");
+    createStrutsFileSet(STRUTS_XML);
+
+    final VirtualFile strutsXmlFile = myFixture.findFileInTempDir(STRUTS_XML);
+    performResolveTest(strutsXmlFile, StrutsCoreConstantContributor.ACTION_EXTENSION, Arrays.asList("foo"));
+
+    final Document document = FileDocumentManager.getInstance().getDocument(strutsProperties);
+    assertNotNull(document);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.setText("struts.action.extension=baz");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    performResolveTest(strutsXmlFile, StrutsCoreConstantContributor.ACTION_EXTENSION, Arrays.asList("baz"));
+  }
+}
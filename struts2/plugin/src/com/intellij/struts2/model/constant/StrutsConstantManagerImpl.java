@@ -25,20 +25,26 @@ import com.intellij.lang.properties.PropertiesImplUtil;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.JarFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.StrutsConstants;
 import com.intellij.struts2.dom.struts.StrutsRoot;
 import com.intellij.struts2.dom.struts.constant.Constant;
 import com.intellij.struts2.dom.struts.model.StrutsManager;
 import com.intellij.struts2.dom.struts.model.StrutsModel;
+import com.intellij.struts2.facet.StrutsFacet;
 import com.intellij.util.CommonProcessors;
 import com.intellij.util.FilteringProcessor;
 import com.intellij.util.containers.ContainerUtil;
@@ -50,10 +56,9 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Yann C&eacute;bron
@@ -96,8 +101,7 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
       return null;
     }
 
-    final StrutsConstant strutsConstant = ContainerUtil.find(getConstants(module), strutsConstant1 -> Objects.equals(
-      strutsConstant1.getName(), strutsConstantKey.getKey()));
+    final StrutsConstant strutsConstant = getModuleConstants(module).myDefinitions.get(strutsConstantKey.getKey());
 
     //noinspection unchecked
     return strutsConstant != null ? strutsConstant.getConverter() : null;
@@ -113,14 +117,20 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
       return null;
     }
 
-    final String stringValue = getStringValue(containingFile,
-                                              strutsModel,
-                                              strutsConstantKey.getKey());
+    final Module module = ModuleUtilCore.findModuleForPsiElement(containingFile);
+    if (module == null) {
+      return null;
+    }
+
+    final ResolvedConstant resolvedConstant =
+      getModuleConstants(module).resolve(containingFile, module, strutsModel, strutsConstantKey.getKey());
+    final String stringValue = resolvedConstant.myValue;
     if (stringValue == null) {
       return null;
     }
 
-    final Converter<T> converter = findConverter(context, strutsConstantKey);
+    //noinspection unchecked
+    final Converter<T> converter = resolvedConstant.myConverter;
     if (converter == null) {
       return (T) stringValue;
     }
@@ -131,21 +141,42 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
     return converter.fromString(stringValue, convertContext);
   }
 
+  /**
+   * Returns the constants cache for the given module, dropped on any PSI (struts.xml, properties, web.xml),
+   * project roots or Struts facet file sets modification.
+   *
+   * @param module Module.
+   * @return Cache.
+   */
+  @NotNull
+  private ModuleConstants getModuleConstants(@NotNull final Module module) {
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> {
+      final List<Object> dependencies = new ArrayList<>();
+      dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);
+      dependencies.add(ProjectRootManager.getInstance(module.getProject()));
+      final StrutsFacet strutsFacet = StrutsFacet.getInstance(module);
+      if (strutsFacet != null) {
+        dependencies.add(strutsFacet.getConfiguration());
+      }
+      return CachedValueProvider.Result.create(new ModuleConstants(getConstants(module)), dependencies);
+    });
+  }
+
   /**
    * Returns the plain String value for the given constant.
    *
    * @param context     Current context.
+   * @param module      Module of context.
    * @param strutsModel StrutsModel.
    * @param name        Name of constant.
    * @return {@code null} if no value could be resolved.
    */
   @Nullable
   private static String getStringValue(@NotNull final PsiFile context,
+                                       @NotNull final Module module,
                                        @NotNull final StrutsModel strutsModel,
                                        @NotNull @NonNls final String name) {
     final Project project = context.getProject();
-    final Module module = ModuleUtilCore.findModuleForPsiElement(context);
-    assert module != null : context;
 
     // collect all properties with matching key
     final List<IProperty> properties = PropertiesImplUtil.findPropertiesByKey(project, name);
@@ -273,4 +304,55 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
              virtualFile.getFileSystem() instanceof JarFileSystem;
     };
   }
+
+  /**
+   * Constant definitions of a module and the constant values resolved so far, per set of struts.xml files
+   * (and web.xml) they were resolved against.
+   */
+  private static final class ModuleConstants {
+
+    private final Map<String, StrutsConstant> myDefinitions = new HashMap<>();
+    private final ConcurrentMap<Pair<Set<XmlFile>, WebFacet>, ConcurrentMap<String, ResolvedConstant>> myValues =
+      new ConcurrentHashMap<>();
+
+    private ModuleConstants(@NotNull final List<StrutsConstant> definitions) {
+      for (final StrutsConstant definition : definitions) {
+        myDefinitions.putIfAbsent(definition.getName(), definition);
+      }
+    }
+
+    @NotNull
+    private ResolvedConstant resolve(@NotNull final PsiFile context,
+                                     @NotNull final Module module,
+                                     @NotNull final StrutsModel strutsModel,
+                                     @NotNull @NonNls final String name) {
+      final Pair<Set<XmlFile>, WebFacet> modelKey = Pair.create(strutsModel.getConfigFiles(), WebUtil.getWebFacet(context));
+      final ConcurrentMap<String, ResolvedConstant> values = myValues.computeIfAbsent(modelKey, key -> new ConcurrentHashMap<>());
+
+      final ResolvedConstant cached = values.get(name);
+      if (cached != null) {
+        return cached;
+      }
+
+      final StrutsConstant definition = myDefinitions.get(name);
+      final ResolvedConstant resolved = new ResolvedConstant(getStringValue(context, module, strutsModel, name),
+                                                             definition != null ? definition.getConverter() : null);
+      final ResolvedConstant previous = values.putIfAbsent(name, resolved);
+      return previous != null ? previous : resolved;
+    }
+  }
+
+  private static final class ResolvedConstant {
+
+    @Nullable
+    private final String myValue;
+
+    @Nullable
+    private final Converter myConverter;
+
+    private ResolvedConstant(@Nullable final String value, @Nullable final Converter converter) {
+      myValue = value;
+      myConverter = converter;
+    }
+  }
 }
@@ -13,10 +13,13 @@ var __assign = (this && this.__assign) || function () {
 exports.__esModule = true;
 var utils_1 = require("../utils");
 var fs_1 = require("fs");
+var crypto_1 = require("crypto");
+var path_1 = require("path");
 var TsLintCommands;
 (function (TsLintCommands) {
     TsLintCommands.GetErrors = "GetErrors";
     TsLintCommands.FixErrors = "FixErrors";
+    TsLintCommands.GetErrorsBatch = "GetErrorsBatch";
 })(TsLintCommands || (TsLintCommands = {}));
 var Response = /** @class */ (function () {
     function Response() {
@@ -36,6 +39,9 @@ var TSLintPlugin = /** @class */ (function () {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
         return null;
     };
@@ -64,6 +70,39 @@ var TSLintPlugin = /** @class */ (function () {
     TSLintPlugin.prototype.getErrors = function (toProcess) {
         return this.processLinting(toProcess, this.getOptions(false));
     };
+    /**
+     * Lints several files in one request. Every file gets its own output (or error) and the hash of the configuration
+     * it was linted with, the IDE uses the hash to reuse the results while neither the file nor the configuration change.
+     * The hash covers the resolved configuration (including the extended ones) and the size and modification time
+     * of the files in the rules directories.
+     */
+    TSLintPlugin.prototype.getErrorsBatch = function (toProcess) {
+        var _this = this;
+        var rulesDirectoryStamps = new Map();
+        var results = toProcess.files.map(function (file) {
+            var result = {};
+            try {
+                var configuration = _this.getConfiguration(file.filePath, file.configPath);
+                result.output = _this.lint(file, configuration, _this.getOptions(false)).output;
+                result.configHash = crypto_1.createHash("sha1")
+                    .update(_this.linterApi.version.raw || "")
+                    .update("\0")
+                    .update(_this.additionalRulesDirectory || "")
+                    .update("\0")
+                    .update(JSON.stringify(configuration, configurationReplacer))
+                    .update("\0")
+                    .update(_this.getRulesDirectories(configuration)
+                    .map(function (directory) { return getRulesDirectoryStamp(directory, rulesDirectoryStamps); })
+                    .join("\0"))
+                    .digest("hex");
+            }
+            catch (e) {
+                result.error = e.toString() + "\n\n" + e.stack;
+            }
+            return result;
+        });
+        return { output: JSON.stringify(results) };
+    };
     TSLintPlugin.prototype.fixErrors = function (toProcess) {
         //TODO. why here?
         var contents = fs_1.readFileSync(toProcess.filePath, "utf8");
@@ -77,9 +116,11 @@ var TSLintPlugin = /** @class */ (function () {
         };
     };
     TSLintPlugin.prototype.processLinting = function (args, options) {
+        return this.lint(args, this.getConfiguration(args.filePath, args.configPath), options);
+    };
+    TSLintPlugin.prototype.lint = function (args, configuration, options) {
         var linter = this.linterApi.linter;
         var major = this.linterApi.version.major || 0;
-        var configuration = this.getConfiguration(args.filePath, args.configPath);
         if (major >= 4) {
             var tslint_1 = new linter(options);
             tslint_1.lint(args.filePath, args.content, configuration);
@@ -89,6 +130,17 @@ var TSLintPlugin = /** @class */ (function () {
         var tslint = new linter(args.filePath, args.content, options);
         return tslint.lint();
     };
+    TSLintPlugin.prototype.getRulesDirectories = function (configuration) {
+        var directories = [];
+        var configured = configuration.rulesDirectory;
+        if (configured) {
+            directories.push.apply(directories, (Array.isArray(configured) ? configured : [configured]));
+        }
+        if (this.additionalRulesDirectory) {
+            directories.push(this.additionalRulesDirectory);
+        }
+        return directories;
+    };
     TSLintPlugin.prototype.getConfiguration = function (fileName, configFileName) {
         var majorVersion = this.linterApi.version.major;
         var configurationResult = this.linterApi.linter.findConfiguration(configFileName, fileName);
@@ -103,6 +155,31 @@ var TSLintPlugin = /** @class */ (function () {
     return TSLintPlugin;
 }());
 exports.TSLintPlugin = TSLintPlugin;
+/**
+ * Rules are kept in maps which JSON.stringify would turn into empty objects
+ */
+function configurationReplacer(key, value) {
+    return value instanceof Map ? Array.from(value.entries()) : value;
+}
+/**
+ * Names, sizes and modification times of the files in the directory, computed once per batch
+ */
+function getRulesDirectoryStamp(directory, cache) {
+    var stamp = cache.get(directory);
+    if (stamp == null) {
+        try {
+            stamp = fs_1.readdirSync(directory).sort().map(function (name) {
+                var stats = fs_1.statSync(path_1.join(directory, name));
+                return name + ":" + stats.size + ":" + stats.mtime.getTime();
+            }).join("\n");
+        }
+        catch (e) {
+            stamp = "";
+        }
+        cache.set(directory, stamp);
+    }
+    return directory + "\n" + stamp;
+}
 function resolveTsLint(packagePath) {
     var tslint = require(packagePath);
     var version = utils_1.getVersion(tslint);
@@ -20,15 +20,17 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
 import com.intellij.util.EmptyConsumer;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 
@@ -37,10 +39,45 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
   @NotNull private final VirtualFile myWorkingDirectory;
   @NotNull private final NodePackage myNodePackage;
 
+  /**
+   * Files requested while a batch is being linted are sent together in the next batch
+   */
+  private static final int MAX_BATCH_SIZE = 32;
+  private static final Set<String> CONFIG_AND_RULE_EXTENSIONS = ContainerUtil.newHashSet("json", "yaml", "yml", "js");
+  private final Object myBatchLock = new Object();
+  private final List<PendingRequest> myPendingRequests = new ArrayList<>();
+  private boolean myBatchInProgress;
+
+  /**
+   * Config path -> hash of the resolved configuration reported by the service. Dropped when a file which may be a config,
+   * extended by a config or a rule changes (see {@link #mayAffectConfigHash(VFileEvent)}), then the next file linted
+   * with the config reports the new hash. The generation is incremented on every drop, so that results of the requests
+   * sent before it don't store outdated hashes.
+   */
+  private final Map<String, String> myConfigHashes = new HashMap<>();
+  private int myConfigHashesGeneration;
+
   public TsLintLanguageService(@NotNull Project project, @NotNull NodePackage nodePackage, @NotNull VirtualFile workingDirectory) {
     super(project);
     myWorkingDirectory = workingDirectory;
     myNodePackage = nodePackage;
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        if (ContainerUtil.exists(events, TsLintLanguageService::mayAffectConfigHash)) {
+          synchronized (myConfigHashes) {
+            myConfigHashes.clear();
+            myConfigHashesGeneration++;
+          }
+        }
+      }
+    });
+  }
+
+  private static boolean mayAffectConfigHash(@NotNull VFileEvent event) {
+    if (!(event instanceof VFileContentChangeEvent)) return true;
+    String extension = ((VFileContentChangeEvent)event).getFile().getExtension();
+    return extension != null && CONFIG_AND_RULE_EXTENSIONS.contains(StringUtil.toLowerCase(extension));
   }
 
   @NotNull
@@ -65,6 +102,19 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
       return null;
     }
 
+    String fileContent = StringUtil.notNullize(content);
+    String contentHash = TsLintResultCache.hashContent(fileContent);
+    int configHashesGeneration;
+    String configHash;
+    synchronized (myConfigHashes) {
+      configHashesGeneration = myConfigHashesGeneration;
+      configHash = myConfigHashes.get(configFilePath);
+    }
+    List<TsLinterError> cached = configHash != null ? getCachedErrors(path, configHash, contentHash) : null;
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
     final JSLanguageServiceQueue process = getProcess();
     if (process == null) {
       return CompletableFuture.completedFuture(Collections.singletonList(
@@ -72,8 +122,107 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
     GetErrorsCommand command = new GetErrorsCommand(LocalFilePath.create(path),
                                                     LocalFilePath.create(configFilePath),
-                                                    StringUtil.notNullize(content));
-    return process.execute(command, createHighlightProcessor(path));
+                                                    fileContent);
+    PendingRequest request = new PendingRequest(command, path, configFilePath, configHashesGeneration, contentHash);
+    boolean sendNow;
+    synchronized (myBatchLock) {
+      myPendingRequests.add(request);
+      sendNow = !myBatchInProgress;
+      myBatchInProgress = true;
+    }
+    if (sendNow) {
+      sendNextBatch(process);
+    }
+    return request.myResult;
+  }
+
+  @Nullable
+  private List<TsLinterError> getCachedErrors(@NotNull String path, @NotNull String configHash, @NotNull String contentHash) {
+    TsLintResultCache.Entry entry = TsLintResultCache.getInstance(myProject).get(path, contentHash, configHash);
+    if (entry == null) return null;
+    JsonElement output = parseJson(entry.output);
+    return output != null ? parseErrors(output, path, entry.version, JSLanguageServiceUtil.getGson(this)) : null;
+  }
+
+  private void sendNextBatch(@NotNull JSLanguageServiceQueue process) {
+    List<PendingRequest> batch;
+    synchronized (myBatchLock) {
+      if (myPendingRequests.isEmpty()) {
+        myBatchInProgress = false;
+        return;
+      }
+      List<PendingRequest> head = myPendingRequests.subList(0, Math.min(MAX_BATCH_SIZE, myPendingRequests.size()));
+      batch = new ArrayList<>(head);
+      head.clear();
+    }
+
+    Gson gson = JSLanguageServiceUtil.getGson(this);
+    GetErrorsBatchCommand command = new GetErrorsBatchCommand(ContainerUtil.map(batch, request -> request.myCommand));
+    CompletableFuture<List<List<TsLinterError>>> future =
+      process.execute(command, (object, answer) -> parseBatchResults(answer, batch, gson));
+    if (future == null) {
+      batch.forEach(request -> request.myResult.complete(null));
+      sendNextBatch(process);
+      return;
+    }
+
+    future.whenComplete((results, throwable) -> {
+      for (int i = 0; i < batch.size(); i++) {
+        CompletableFuture<List<TsLinterError>> result = batch.get(i).myResult;
+        if (throwable != null) {
+          result.completeExceptionally(throwable);
+        }
+        else {
+          result.complete(results != null ? results.get(i) : null);
+        }
+      }
+      sendNextBatch(process);
+    });
+  }
+
+  @Nullable
+  private List<List<TsLinterError>> parseBatchResults(@NotNull JSLanguageServiceAnswer answer,
+                                                      @NotNull List<PendingRequest> batch,
+                                                      @NotNull Gson gson) {
+    final JsonObject element = answer.getElement();
+    final JsonElement error = element.get("error");
+    if (error != null) {
+      return Collections.nCopies(batch.size(), Collections.singletonList(TsLinterError.createGlobalError(error.getAsString())));
+    }
+    final JsonElement body = parseBody(element);
+    if (body == null || !body.isJsonArray() || body.getAsJsonArray().size() != batch.size()) return null;
+    final String version = element.get("version").getAsString();
+
+    TsLintResultCache cache = TsLintResultCache.getInstance(myProject);
+    List<List<TsLinterError>> results = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      PendingRequest request = batch.get(i);
+      JsonObject item = body.getAsJsonArray().get(i).getAsJsonObject();
+      JsonElement itemError = item.get("error");
+      JsonElement output = item.get("output");
+      JsonElement configHash = item.get("configHash");
+      if (itemError != null) {
+        results.add(Collections.singletonList(TsLinterError.createGlobalError(itemError.getAsString())));
+        continue;
+      }
+      JsonElement errors = output != null ? parseJson(output.getAsString()) : null;
+      if (errors == null) {
+        results.add(null);
+        continue;
+      }
+
+      results.add(parseErrors(errors, request.myPath, version, gson));
+      if (configHash != null) {
+        cache.put(request.myPath, new TsLintResultCache.Entry(request.myContentHash, configHash.getAsString(), version,
+                                                              output.getAsString()));
+        synchronized (myConfigHashes) {
+          if (request.myConfigHashesGeneration == myConfigHashesGeneration) {
+            myConfigHashes.put(request.myConfigPath, configHash.getAsString());
+          }
+        }
+      }
+    }
+    return results;
   }
 
   @Nullable
@@ -118,9 +267,14 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     final JsonElement body = parseBody(element);
     if (body == null) return null;
     final String version = element.get("version").getAsString();
+    return parseErrors(body, path, version, gson);
+  }
+
+  @NotNull
+  private static List<TsLinterError> parseErrors(@NotNull JsonElement output, @NotNull String path, String version, @NotNull Gson gson) {
     final SemVer tsLintVersion = SemVer.parseFromText(version);
     final boolean isZeroBased = TsLintOutputJsonParser.isVersionZeroBased(tsLintVersion);
-    final TsLintOutputJsonParser parser = new TsLintOutputJsonParser(path, body, isZeroBased, gson);
+    final TsLintOutputJsonParser parser = new TsLintOutputJsonParser(path, output, isZeroBased, gson);
     return new ArrayList<>(parser.getErrors());
   }
 
@@ -131,14 +285,7 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
       return null;
     } else {
       if (body.isJsonPrimitive() && body.getAsJsonPrimitive().isString()) {
-        final String bodyContent = StringUtil.unquoteString(body.getAsJsonPrimitive().getAsString());
-        if (!StringUtil.isEmptyOrSpaces(bodyContent)) {
-          try {
-            return new JsonParser().parse(bodyContent);
-          } catch (JsonParseException e) {
-            LOG.info(String.format("Problem parsing body: '%s'\n%s", body, e.getMessage()), e);
-          }
-        }
+        return parseJson(StringUtil.unquoteString(body.getAsJsonPrimitive().getAsString()));
       } else {
         LOG.info(String.format("Error body type, should be a string with json inside. Body:'%s'", body.getAsString()));
       }
@@ -146,6 +293,18 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     return null;
   }
 
+  @Nullable
+  private static JsonElement parseJson(@NotNull String content) {
+    if (!StringUtil.isEmptyOrSpaces(content)) {
+      try {
+        return new JsonParser().parse(content);
+      } catch (JsonParseException e) {
+        LOG.info(String.format("Problem parsing body: '%s'\n%s", content, e.getMessage()), e);
+      }
+    }
+    return null;
+  }
+
   @Override
   protected final JSLanguageServiceQueue createLanguageServiceQueue() {
     return new JSLanguageServiceQueueImpl(myProject, new Protocol(myNodePackage, myWorkingDirectory, myProject), myProcessConnector,
@@ -189,6 +348,48 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
   }
 
+  private static final class GetErrorsBatchCommand implements JSLanguageServiceCommand, JSLanguageServiceSimpleCommand,
+                                                              JSLanguageServiceObject {
+    public List<GetErrorsCommand> files;
+
+    private GetErrorsBatchCommand(List<GetErrorsCommand> files) {
+      this.files = files;
+    }
+
+    @NotNull
+    @Override
+    public JSLanguageServiceObject toSerializableObject() {
+      return this;
+    }
+
+    @NotNull
+    @Override
+    public String getCommand() {
+      return "GetErrorsBatch";
+    }
+  }
+
+  private static final class PendingRequest {
+    private final GetErrorsCommand myCommand;
+    private final String myPath;
+    private final String myConfigPath;
+    private final int myConfigHashesGeneration;
+    private final String myContentHash;
+    private final CompletableFuture<List<TsLinterError>> myResult = new CompletableFuture<>();
+
+    private PendingRequest(@NotNull GetErrorsCommand command,
+                           @NotNull String path,
+                           @NotNull String configPath,
+                           int configHashesGeneration,
+                           @NotNull String contentHash) {
+      myCommand = command;
+      myPath = path;
+      myConfigPath = configPath;
+      myConfigHashesGeneration = configHashesGeneration;
+      myContentHash = contentHash;
+    }
+  }
+
   private static final class FixErrorsCommand extends BaseCommand{
     private FixErrorsCommand(LocalFilePath filePath, @Nullable LocalFilePath configPath) {
       super(filePath, configPath);
@@ -0,0 +1,195 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.io.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists raw TSLint output per file together with the hash of the linted content and the hash of the resolved configuration
+ * (which covers TSLint version and rules directory too, see {@code getErrorsBatch} in {@code tslint-plugin.ts}),
+ * so that files which haven't changed since the last run, even in the previous IDE session, are not sent to the service again.
+ * Only the latest result is kept for each file. When the cache is opened, results of the files which no longer exist are dropped,
+ * and the whole cache is dropped if it still holds more than {@link #MAX_ENTRIES} results.
+ */
+public final class TsLintResultCache implements Disposable {
+  private static final Logger LOG = Logger.getInstance(TsLintResultCache.class);
+  private static final int VERSION = 1;
+  private static final int MAX_ENTRIES = 20000;
+
+  private final Project myProject;
+  private PersistentHashMap<String, Entry> myMap;
+  private boolean myBroken;
+
+  public TsLintResultCache(@NotNull Project project) {
+    myProject = project;
+  }
+
+  @NotNull
+  public static TsLintResultCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, TsLintResultCache.class);
+  }
+
+  /**
+   * @return TSLint output for the file, if it was linted with exactly this content and configuration
+   */
+  @Nullable
+  public synchronized Entry get(@NotNull String filePath, @NotNull String contentHash, @NotNull String configHash) {
+    PersistentHashMap<String, Entry> map = getMap();
+    if (map == null) return null;
+    try {
+      Entry entry = map.get(filePath);
+      return entry != null && entry.contentHash.equals(contentHash) && entry.configHash.equals(configHash) ? entry : null;
+    }
+    catch (IOException e) {
+      onError(e);
+      return null;
+    }
+  }
+
+  public synchronized void put(@NotNull String filePath, @NotNull Entry entry) {
+    PersistentHashMap<String, Entry> map = getMap();
+    if (map == null) return;
+    try {
+      map.put(filePath, entry);
+    }
+    catch (IOException e) {
+      onError(e);
+    }
+  }
+
+  @NotNull
+  public static String hashContent(@NotNull String content) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      return StringUtil.toHexString(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Nullable
+  private PersistentHashMap<String, Entry> getMap() {
+    if (myMap == null && !myBroken && !myProject.isDisposed()) {
+      File file = new File(PathManager.getSystemPath(), "tslint/" + myProject.getLocationHash() + "/results");
+      try {
+        myMap = createMap(file);
+        if (!prune(myMap)) {
+          LOG.info("TSLint results cache is too large, recreating");
+          closeMap();
+          PersistentHashMap.deleteFilesStartingWith(file);
+          myMap = createMap(file);
+        }
+      }
+      catch (IOException e) {
+        LOG.info("Cannot open TSLint results cache, recreating", e);
+        closeMap();
+        PersistentHashMap.deleteFilesStartingWith(file);
+        try {
+          myMap = createMap(file);
+        }
+        catch (IOException e1) {
+          LOG.warn("Cannot create TSLint results cache", e1);
+          myBroken = true;
+        }
+      }
+    }
+    return myMap;
+  }
+
+  @NotNull
+  private static PersistentHashMap<String, Entry> createMap(@NotNull File file) throws IOException {
+    return new PersistentHashMap<>(file, EnumeratorStringDescriptor.INSTANCE, new EntryExternalizer(), 4096, VERSION);
+  }
+
+  /**
+   * Removes results of the deleted files
+   *
+   * @return false if there are too many results left and the cache should be recreated
+   */
+  private static boolean prune(@NotNull PersistentHashMap<String, Entry> map) throws IOException {
+    List<String> stalePaths = new ArrayList<>();
+    int[] count = {0};
+    map.processKeysWithExistingMapping(path -> {
+      count[0]++;
+      if (!new File(path).isFile()) {
+        stalePaths.add(path);
+      }
+      return true;
+    });
+    if (count[0] - stalePaths.size() > MAX_ENTRIES) return false;
+
+    for (String path : stalePaths) {
+      map.remove(path);
+    }
+    return true;
+  }
+
+  private void onError(@NotNull IOException e) {
+    LOG.info("TSLint results cache is corrupted", e);
+    closeMap();
+    myBroken = true;
+  }
+
+  private void closeMap() {
+    if (myMap == null) return;
+    try {
+      myMap.close();
+    }
+    catch (IOException e) {
+      LOG.info(e);
+    }
+    myMap = null;
+  }
+
+  @Override
+  public synchronized void dispose() {
+    closeMap();
+  }
+
+  public static final class Entry {
+    @NotNull final String contentHash;
+    @NotNull final String configHash;
+    @NotNull final String version;
+    @NotNull final String output;
+
+    Entry(@NotNull String contentHash, @NotNull String configHash, @NotNull String version, @NotNull String output) {
+      this.contentHash = contentHash;
+      this.configHash = configHash;
+      this.version = version;
+      this.output = output;
+    }
+  }
+
+  private static final class EntryExternalizer implements DataExternalizer<Entry> {
+    @Override
+    public void save(@NotNull DataOutput out, Entry value) throws IOException {
+      IOUtil.writeUTF(out, value.contentHash);
+      IOUtil.writeUTF(out, value.configHash);
+      IOUtil.writeUTF(out, value.version);
+      IOUtil.writeUTF(out, value.output);
+    }
+
+    @Override
+    public Entry read(@NotNull DataInput in) throws IOException {
+      return new Entry(IOUtil.readUTF(in), IOUtil.readUTF(in), IOUtil.readUTF(in), IOUtil.readUTF(in));
+    }
+  }
+}
@@ -1,11 +1,14 @@
 import {getVersion, Version} from "../utils";
 import {IConfigurationFile} from "tslint/lib/configuration";
 import {ILinterOptions, Linter, LintResult} from "tslint";
-import {readFileSync} from "fs"
+import {readdirSync, readFileSync, statSync} from "fs"
+import {join} from "path"
+import {createHash} from "crypto"
 
 namespace TsLintCommands {
     export let GetErrors: string = "GetErrors";
     export let FixErrors: string = "FixErrors";
+    export let GetErrorsBatch: string = "GetErrorsBatch";
 }
 
 type LinterApi = {
@@ -13,6 +16,12 @@ type LinterApi = {
     version: Version
 }
 
+type BatchItemResult = {
+    output?: string;
+    configHash?: string;
+    error?: string;
+}
+
 class Response {
     version?: string;
     command: string;
@@ -39,6 +48,9 @@ export class TSLintPlugin implements LanguagePlugin {
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
         }
 
         return null;
@@ -71,6 +83,38 @@ export class TSLintPlugin implements LanguagePlugin {
         return this.processLinting(toProcess, this.getOptions(false));
     }
 
+    /**
+     * Lints several files in one request. Every file gets its own output (or error) and the hash of the configuration
+     * it was linted with, the IDE uses the hash to reuse the results while neither the file nor the configuration change.
+     * The hash covers the resolved configuration (including the extended ones) and the size and modification time
+     * of the files in the rules directories.
+     */
+    private getErrorsBatch(toProcess: GetErrorsBatchArguments): { output: string } {
+        const rulesDirectoryStamps = new Map<string, string>();
+        const results = toProcess.files.map(file => {
+            const result: BatchItemResult = {};
+            try {
+                const configuration = this.getConfiguration(file.filePath, file.configPath);
+                result.output = this.lint(file, configuration, this.getOptions(false)).output;
+                result.configHash = createHash("sha1")
+                    .update(this.linterApi.version.raw || "")
+                    .update("\0")
+                    .update(this.additionalRulesDirectory || "")
+                    .update("\0")
+                    .update(JSON.stringify(configuration, configurationReplacer))
+                    .update("\0")
+                    .update(this.getRulesDirectories(configuration)
+                                .map(directory => getRulesDirectoryStamp(directory, rulesDirectoryStamps))
+                                .join("\0"))
+                    .digest("hex");
+            } catch (e) {
+                result.error = e.toString() + "\n\n" + e.stack;
+            }
+            return result;
+        });
+        return {output: JSON.stringify(results)};
+    }
+
     private fixErrors(toProcess: FixErrorsArguments): LintResult {
         //TODO. why here?
         let contents = readFileSync(toProcess.filePath, "utf8");
@@ -86,10 +130,15 @@ export class TSLintPlugin implements LanguagePlugin {
     }
 
     private processLinting(args: CommandArguments & { content: string }, options: ILinterOptions): LintResult {
+        return this.lint(args, this.getConfiguration(args.filePath, args.configPath), options);
+    }
+
+    private lint(args: CommandArguments & { content: string },
+                 configuration: IConfigurationFile,
+                 options: ILinterOptions): LintResult {
         let linter = this.linterApi.linter;
         let major = this.linterApi.version.major || 0;
 
-        let configuration = this.getConfiguration(args.filePath, args.configPath);
         if (major >= 4) {
             let tslint = new linter(options);
             tslint.lint(args.filePath, args.content, configuration);
@@ -100,6 +149,18 @@ export class TSLintPlugin implements LanguagePlugin {
         return tslint.lint();
     }
 
+    private getRulesDirectories(configuration: IConfigurationFile): string[] {
+        const directories: string[] = [];
+        const configured: string | string[] | undefined = (<any>configuration).rulesDirectory;
+        if (configured) {
+            directories.push(...(Array.isArray(configured) ? configured : [configured]));
+        }
+        if (this.additionalRulesDirectory) {
+            directories.push(this.additionalRulesDirectory);
+        }
+        return directories;
+    }
+
     private getConfiguration(fileName: string, configFileName: string): IConfigurationFile {
         let majorVersion = this.linterApi.version.major;
         let configurationResult = this.linterApi.linter.findConfiguration(configFileName, fileName);
@@ -113,6 +174,32 @@ export class TSLintPlugin implements LanguagePlugin {
     }
 }
 
+/**
+ * Rules are kept in maps which JSON.stringify would turn into empty objects
+ */
+function configurationReplacer(key: string, value: any): any {
+    return value instanceof Map ? Array.from(value.entries()) : value;
+}
+
+/**
+ * Names, sizes and modification times of the files in the directory, computed once per batch
+ */
+function getRulesDirectoryStamp(directory: string, cache: Map<string, string>): string {
+    let stamp = cache.get(directory);
+    if (stamp == null) {
+        try {
+            stamp = readdirSync(directory).sort().map(name => {
+                const stats = statSync(join(directory, name));
+                return name + ":" + stats.size + ":" + stats.mtime.getTime();
+            }).join("\n");
+        } catch (e) {
+            stamp = "";
+        }
+        cache.set(directory, stamp);
+    }
+    return directory + "\n" + stamp;
+}
+
 function resolveTsLint(packagePath: string): LinterApi {
     const tslint: any = require(packagePath);
     const version = getVersion(tslint);
@@ -57,4 +57,11 @@ interface GetErrorsArguments extends CommandArguments {
 }
 
 interface FixErrorsArguments extends CommandArguments {
-}
\ No newline at end of file
+}
+
+interface GetErrorsBatchArguments {
+    /**
+     * Files to check, with the same arguments as for GetErrors
+     */
+    readonly files: GetErrorsArguments[];
+}
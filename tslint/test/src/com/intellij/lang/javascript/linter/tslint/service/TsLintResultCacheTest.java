@@ -0,0 +1,52 @@
+package com.intellij.lang.javascript.linter.tslint.service;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TsLintResultCacheTest extends BasePlatformTestCase {
+
+  public void testServedOnlyForSameContentAndConfig() {
+    TsLintResultCache cache = TsLintResultCache.getInstance(getProject());
+    String path = "/src/" + getTestName(true) + ".ts";
+    String contentHash = TsLintResultCache.hashContent("let a = 1");
+    cache.put(path, new TsLintResultCache.Entry(contentHash, "config1", "5.10.0", "[]"));
+
+    TsLintResultCache.Entry entry = cache.get(path, contentHash, "config1");
+    assertNotNull(entry);
+    assertEquals("[]", entry.output);
+    assertEquals("5.10.0", entry.version);
+
+    assertNull(cache.get(path, TsLintResultCache.hashContent("let a = 2"), "config1"));
+    assertNull(cache.get(path, contentHash, "config2"));
+    assertNull(cache.get("/src/other.ts", contentHash, "config1"));
+  }
+
+  public void testLatestResultWins() {
+    TsLintResultCache cache = TsLintResultCache.getInstance(getProject());
+    String path = "/src/" + getTestName(true) + ".ts";
+    String oldHash = TsLintResultCache.hashContent("let a = 1");
+    String newHash = TsLintResultCache.hashContent("let a = 2");
+    cache.put(path, new TsLintResultCache.Entry(oldHash, "config", "5.10.0", "[1]"));
+    cache.put(path, new TsLintResultCache.Entry(newHash, "config", "5.10.0", "[2]"));
+
+    assertNull(cache.get(path, oldHash, "config"));
+    assertEquals("[2]", cache.get(path, newHash, "config").output);
+  }
+
+  public void testDeletedFilesPrunedOnOpen() throws IOException {
+    TsLintResultCache cache = TsLintResultCache.getInstance(getProject());
+    String existingPath = FileUtil.toSystemIndependentName(FileUtil.createTempFile("tslint", ".ts", true).getPath());
+    String deletedPath = "/src/" + getTestName(true) + ".ts";
+    String contentHash = TsLintResultCache.hashContent("let a = 1");
+    cache.put(existingPath, new TsLintResultCache.Entry(contentHash, "config", "5.10.0", "[]"));
+    cache.put(deletedPath, new TsLintResultCache.Entry(contentHash, "config", "5.10.0", "[]"));
+    assertFalse(new File(deletedPath).exists());
+
+    cache.dispose();
+    assertNotNull(cache.get(existingPath, contentHash, "config"));
+    assertNull(cache.get(deletedPath, contentHash, "config"));
+  }
+}
@@ -38,17 +38,10 @@ class VueTagProvider : XmlElementDescriptorProvider, XmlTagNameProvider {
     val tagName = fromAsset(tag.name)
     val containingFile = tag.containingFile.originalFile
 
-    val components = mutableListOf<VueComponent>()
-    VueModelManager.findEnclosingContainer(tag)?.acceptEntities(object : VueModelProximityVisitor() {
-      override fun visitComponent(name: String, component: VueComponent, proximity: Proximity): Boolean {
-        return acceptSameProximity(proximity, fromAsset(name) == tagName) {
-          // Cannot self refer without export declaration with component name
-          if ((component.source as? JSImplicitElement)?.context != containingFile) {
-            components.add(component)
-          }
-        }
-      }
-    }, VueModelVisitor.Proximity.GLOBAL)
+    val components = VueModelManager.findEnclosingContainer(tag)?.componentsByName?.get(tagName)
+                       // Cannot self refer without export declaration with component name
+                       ?.filter { (it.source as? JSImplicitElement)?.context != containingFile }
+                     ?: return null
 
     if (components.isNotEmpty())
       return VueElementDescriptor(tag, components)
@@ -1,8 +1,14 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.vuejs.model
 
+import com.intellij.openapi.util.UserDataHolder
+import com.intellij.openapi.vfs.VirtualFileManager
 import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import org.jetbrains.vuejs.codeInsight.fromAsset
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesRegistry
 
 interface VueScopeElement {
 
@@ -90,6 +96,24 @@ interface VueScopeElement {
     return true
   }
 
+  /**
+   * Components available in this scope by their [fromAsset] normalized name. For each name only the components
+   * with the closest proximity are kept, which is what [VueModelProximityVisitor] would collect for a single name.
+   */
+  val componentsByName: Map<String, List<VueComponent>>
+    get() {
+      val project = source?.project ?: global?.project
+      return if (project != null && this is UserDataHolder) {
+        CachedValuesManager.getManager(project).getCachedValue(this) {
+          CachedValueProvider.Result.create(buildComponentsByName(this),
+                                            PsiModificationTracker.MODIFICATION_COUNT,
+                                            VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS,
+                                            VueWebTypesRegistry.MODIFICATION_TRACKER)
+        }
+      }
+      else buildComponentsByName(this)
+    }
+
   fun acceptPropertiesAndMethods(visitor: VueModelVisitor, onlyPublic: Boolean = true) {
     acceptEntities(object : VueModelVisitor() {
       override fun visitSelfComponent(component: VueComponent, proximity: Proximity): Boolean {
@@ -116,3 +140,19 @@ interface VueScopeElement {
   }
 
 }
+
+private fun buildComponentsByName(scope: VueScopeElement): Map<String, List<VueComponent>> {
+  val result = mutableMapOf<String, MutableList<VueComponent>>()
+  val proximities = mutableMapOf<String, VueModelVisitor.Proximity>()
+  scope.acceptEntities(object : VueModelVisitor() {
+    override fun visitComponent(name: String, component: VueComponent, proximity: Proximity): Boolean {
+      val normalizedName = fromAsset(name)
+      // containers are visited from the closest proximity, so the first one seen for a name wins
+      if (proximities.getOrPut(normalizedName) { proximity } == proximity) {
+        result.getOrPut(normalizedName) { mutableListOf() }.add(component)
+      }
+      return true
+    }
+  }, VueModelVisitor.Proximity.GLOBAL)
+  return result
+}
@@ -0,0 +1,372 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.vuejs.model.webtypes.registry
+
+import com.fasterxml.jackson.core.*
+import com.fasterxml.jackson.core.base.ParserMinimalBase
+import com.fasterxml.jackson.core.json.JsonReadContext
+import com.fasterxml.jackson.databind.JsonNode
+import com.intellij.openapi.diagnostic.Logger
+import com.intellij.openapi.util.io.FileUtil
+import java.io.*
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+
+/**
+ * Compact binary form of a processed web-types JSON tree. Strings are stored once in a table and referred to by index,
+ * numbers and structure are stored as tagged var-ints. The file is read with a [JsonParser], so the web-types model
+ * is bound directly from it, without text parsing and without building an intermediate tree.
+ * A file written by another [FORMAT_VERSION], or for another source stamp, is ignored and the caller falls back to JSON.
+ */
+object VueWebTypesBinaryCache {
+
+  private val LOG = Logger.getInstance(VueWebTypesBinaryCache::class.java)
+
+  private const val MAGIC = 0x57454254 // "WEBT"
+  private const val FORMAT_VERSION = 1
+
+  private const val NULL: Byte = 0
+  private const val FALSE: Byte = 1
+  private const val TRUE: Byte = 2
+  private const val LONG: Byte = 3
+  private const val DOUBLE: Byte = 4
+  private const val STRING: Byte = 5
+  private const val ARRAY: Byte = 6
+  private const val OBJECT: Byte = 7
+
+  /**
+   * The file is read into memory rather than mapped, since a mapped file cannot be replaced or deleted on Windows.
+   * Corruption of the tree part is reported by the parser as [JsonParseException] when it gets to it.
+   *
+   * @param stamp identifies the source of the tree, e.g. package tarball URL or JSON file path with its timestamp
+   * @return parser of the tree stored in [cacheFile], or `null` if there is no valid cache for the [stamp]
+   */
+  fun createParser(cacheFile: File, stamp: String): JsonParser? {
+    if (!cacheFile.isFile) return null
+    try {
+      return read(ByteBuffer.wrap(cacheFile.readBytes()), stamp)
+    }
+    catch (e: IOException) {
+      LOG.info("Cannot read web-types cache $cacheFile", e)
+    }
+    catch (e: BufferUnderflowException) {
+      LOG.info("Web-types cache $cacheFile is truncated")
+    }
+    catch (e: IllegalArgumentException) {
+      LOG.info("Web-types cache $cacheFile is corrupted")
+    }
+    FileUtil.delete(cacheFile)
+    return null
+  }
+
+  fun save(cacheFile: File, stamp: String, tree: JsonNode) {
+    val strings = StringTable()
+    collectStrings(tree, strings)
+
+    FileUtil.createParentDirs(cacheFile)
+    val tempFile = File(cacheFile.parentFile, cacheFile.name + ".tmp")
+    DataOutputStream(BufferedOutputStream(FileOutputStream(tempFile))).use { out ->
+      out.writeInt(MAGIC)
+      out.writeInt(FORMAT_VERSION)
+      writeBytes(out, stamp.toByteArray(Charsets.UTF_8))
+      writeVarInt(out, strings.list.size)
+      for (string in strings.list) {
+        writeBytes(out, string.toByteArray(Charsets.UTF_8))
+      }
+      writeNode(out, tree, strings)
+    }
+    FileUtil.rename(tempFile, cacheFile)
+  }
+
+  /**
+   * @return parser of the tree stored in the [buffer], or `null` if it was written by another format version or for another stamp
+   */
+  private fun read(buffer: ByteBuffer, stamp: String): JsonParser? {
+    if (buffer.remaining() < 8 || buffer.int != MAGIC || buffer.int != FORMAT_VERSION) return null
+    if (readString(buffer) != stamp) return null
+
+    val strings = Array(readLength(buffer)) { readString(buffer) }
+    return BinaryTreeParser(buffer, strings)
+  }
+
+  private fun collectStrings(node: JsonNode, strings: StringTable) {
+    when {
+      node.isObject -> node.fields().forEach { (key, value) ->
+        strings.indexOf(key)
+        collectStrings(value, strings)
+      }
+      node.isArray -> node.forEach { collectStrings(it, strings) }
+      node.isTextual -> strings.indexOf(node.textValue())
+      isOtherValue(node) -> strings.indexOf(node.asText())
+    }
+  }
+
+  private fun writeNode(out: DataOutput, node: JsonNode, strings: StringTable) {
+    when {
+      node.isNull || node.isMissingNode -> out.writeByte(NULL.toInt())
+      node.isBoolean -> out.writeByte((if (node.booleanValue()) TRUE else FALSE).toInt())
+      node.isIntegralNumber && node.canConvertToLong() -> {
+        out.writeByte(LONG.toInt())
+        out.writeLong(node.longValue())
+      }
+      node.isNumber -> {
+        out.writeByte(DOUBLE.toInt())
+        out.writeDouble(node.doubleValue())
+      }
+      node.isTextual -> {
+        out.writeByte(STRING.toInt())
+        writeVarInt(out, strings.indexOf(node.textValue()))
+      }
+      node.isArray -> {
+        out.writeByte(ARRAY.toInt())
+        writeVarInt(out, node.size())
+        node.forEach { writeNode(out, it, strings) }
+      }
+      node.isObject -> {
+        out.writeByte(OBJECT.toInt())
+        writeVarInt(out, node.size())
+        node.fields().forEach { (key, value) ->
+          writeVarInt(out, strings.indexOf(key))
+          writeNode(out, value, strings)
+        }
+      }
+      else -> {
+        out.writeByte(STRING.toInt())
+        writeVarInt(out, strings.indexOf(node.asText()))
+      }
+    }
+  }
+
+  private fun isOtherValue(node: JsonNode): Boolean =
+    !node.isNull && !node.isMissingNode && !node.isBoolean && !node.isNumber && !node.isContainerNode
+
+  private fun writeBytes(out: DataOutput, bytes: ByteArray) {
+    writeVarInt(out, bytes.size)
+    out.write(bytes)
+  }
+
+  private fun readString(buffer: ByteBuffer): String {
+    val bytes = ByteArray(readLength(buffer))
+    buffer.get(bytes)
+    return String(bytes, Charsets.UTF_8)
+  }
+
+  private fun readLength(buffer: ByteBuffer): Int {
+    val length = readVarInt(buffer)
+    if (length > buffer.remaining()) throw BufferUnderflowException()
+    return length
+  }
+
+  private fun writeVarInt(out: DataOutput, value: Int) {
+    var rest = value
+    while (rest and 0x7F.inv() != 0) {
+      out.writeByte(rest and 0x7F or 0x80)
+      rest = rest ushr 7
+    }
+    out.writeByte(rest)
+  }
+
+  private fun readVarInt(buffer: ByteBuffer): Int {
+    var result = 0
+    var shift = 0
+    while (true) {
+      val b = buffer.get().toInt()
+      result = result or (b and 0x7F shl shift)
+      if (b and 0x80 == 0) break
+      shift += 7
+      if (shift > 28) throw IllegalArgumentException()
+    }
+    if (result < 0) throw IllegalArgumentException()
+    return result
+  }
+
+  /**
+   * Reads tokens of the tree in the order [writeNode] wrote them. Containers are stored with their sizes,
+   * so the parser keeps a number of children left for each open container.
+   */
+  private class BinaryTreeParser(private val buffer: ByteBuffer, private val strings: Array<String>) : ParserMinimalBase() {
+    private var codec: ObjectCodec? = null
+    private var context = JsonReadContext.createRootContext(null)
+    private var childrenLeft = IntArray(16)
+    private var depth = 0
+    private var rootRead = false
+    private var closed = false
+    private var stringValue: String? = null
+    private var longValue = 0L
+    private var doubleValue = 0.0
+
+    override fun nextToken(): JsonToken? {
+      try {
+        _currToken = readToken()
+      }
+      catch (e: BufferUnderflowException) {
+        throw _constructError("Web-types cache is truncated")
+      }
+      catch (e: IllegalArgumentException) {
+        throw _constructError("Web-types cache is corrupted")
+      }
+      catch (e: IndexOutOfBoundsException) {
+        throw _constructError("Web-types cache is corrupted")
+      }
+      return _currToken
+    }
+
+    private fun readToken(): JsonToken? {
+      if (closed) return null
+      if (depth == 0) {
+        if (rootRead) return null
+        rootRead = true
+        return readValue()
+      }
+      // a field name is followed by its value, otherwise the next child or the end of the container comes
+      if (_currToken != JsonToken.FIELD_NAME || !context.inObject()) {
+        if (childrenLeft[depth - 1] == 0) {
+          val end = if (context.inObject()) JsonToken.END_OBJECT else JsonToken.END_ARRAY
+          context = context.parent
+          depth--
+          return end
+        }
+        childrenLeft[depth - 1]--
+        if (context.inObject()) {
+          context.setCurrentName(strings[readVarInt(buffer)])
+          return JsonToken.FIELD_NAME
+        }
+      }
+      return readValue()
+    }
+
+    private fun readValue(): JsonToken {
+      return when (buffer.get()) {
+        NULL -> JsonToken.VALUE_NULL
+        FALSE -> JsonToken.VALUE_FALSE
+        TRUE -> JsonToken.VALUE_TRUE
+        LONG -> {
+          longValue = buffer.long
+          JsonToken.VALUE_NUMBER_INT
+        }
+        DOUBLE -> {
+          doubleValue = buffer.double
+          JsonToken.VALUE_NUMBER_FLOAT
+        }
+        STRING -> {
+          stringValue = strings[readVarInt(buffer)]
+          JsonToken.VALUE_STRING
+        }
+        ARRAY -> {
+          startContainer(readLength(buffer))
+          context = context.createChildArrayContext(-1, -1)
+          JsonToken.START_ARRAY
+        }
+        OBJECT -> {
+          startContainer(readLength(buffer))
+          context = context.createChildObjectContext(-1, -1)
+          JsonToken.START_OBJECT
+        }
+        else -> throw IllegalArgumentException()
+      }
+    }
+
+    private fun startContainer(size: Int) {
+      if (depth == childrenLeft.size) {
+        childrenLeft = childrenLeft.copyOf(depth * 2)
+      }
+      childrenLeft[depth++] = size
+    }
+
+    override fun _handleEOF() {}
+
+    override fun getCurrentName(): String? {
+      if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) {
+        return context.parent?.currentName
+      }
+      return context.currentName
+    }
+
+    override fun overrideCurrentName(name: String?) {
+      val ctx = if (_currToken == JsonToken.START_OBJECT || _currToken == JsonToken.START_ARRAY) context.parent else context
+      ctx?.setCurrentName(name)
+    }
+
+    override fun getParsingContext(): JsonStreamContext = context
+
+    override fun close() {
+      closed = true
+    }
+
+    override fun isClosed(): Boolean = closed
+
+    override fun getCodec(): ObjectCodec? = codec
+
+    override fun setCodec(c: ObjectCodec?) {
+      codec = c
+    }
+
+    override fun version(): Version = Version.unknownVersion()
+
+    override fun getTokenLocation(): JsonLocation = JsonLocation.NA
+
+    override fun getCurrentLocation(): JsonLocation = JsonLocation.NA
+
+    override fun getText(): String? = when (_currToken) {
+      null -> null
+      JsonToken.FIELD_NAME -> context.currentName
+      JsonToken.VALUE_STRING -> stringValue
+      JsonToken.VALUE_NUMBER_INT -> longValue.toString()
+      JsonToken.VALUE_NUMBER_FLOAT -> doubleValue.toString()
+      else -> _currToken.asString()
+    }
+
+    override fun getTextCharacters(): CharArray? = text?.toCharArray()
+
+    override fun hasTextCharacters(): Boolean = false
+
+    override fun getTextLength(): Int = text?.length ?: 0
+
+    override fun getTextOffset(): Int = 0
+
+    override fun getBinaryValue(b64variant: Base64Variant?): ByteArray? {
+      _reportError("Binary values are not stored in web-types cache")
+      return null
+    }
+
+    override fun getEmbeddedObject(): Any? = null
+
+    override fun getNumberType(): NumberType? = when (_currToken) {
+      JsonToken.VALUE_NUMBER_INT -> if (longValue.toInt().toLong() == longValue) NumberType.INT else NumberType.LONG
+      JsonToken.VALUE_NUMBER_FLOAT -> NumberType.DOUBLE
+      else -> null
+    }
+
+    override fun getNumberValue(): Number = when (numberType) {
+      NumberType.INT -> longValue.toInt()
+      NumberType.LONG -> longValue
+      NumberType.DOUBLE -> doubleValue
+      else -> throw _constructError("Current token ($_currToken) is not numeric")
+    }
+
+    override fun getIntValue(): Int = numberValue.toInt()
+
+    override fun getLongValue(): Long = numberValue.toLong()
+
+    override fun getBigIntegerValue(): BigInteger =
+      if (_currToken == JsonToken.VALUE_NUMBER_INT) BigInteger.valueOf(longValue) else BigDecimal(doubleValue).toBigInteger()
+
+    override fun getFloatValue(): Float = numberValue.toFloat()
+
+    override fun getDoubleValue(): Double = numberValue.toDouble()
+
+    override fun getDecimalValue(): BigDecimal =
+      if (_currToken == JsonToken.VALUE_NUMBER_INT) BigDecimal.valueOf(longValue) else BigDecimal.valueOf(doubleValue)
+  }
+
+  private class StringTable {
+    val list = mutableListOf<String>()
+    private val indices = HashMap<String, Int>()
+
+    fun indexOf(string: String): Int = indices.getOrPut(string) {
+      list.add(string)
+      list.size - 1
+    }
+  }
+}
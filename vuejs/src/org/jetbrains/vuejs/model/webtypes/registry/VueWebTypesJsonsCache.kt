@@ -3,6 +3,7 @@ package org.jetbrains.vuejs.model.webtypes.registry
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.util.io.FileUtil
 import com.intellij.openapi.vfs.StandardFileSystems
 import com.intellij.util.io.HttpRequests
@@ -17,8 +18,47 @@ class VueWebTypesJsonsCache {
 
   companion object {
 
+    private val LOG = Logger.getInstance(VueWebTypesJsonsCache::class.java)
+
+    /**
+     * Binds web-types from [VueWebTypesBinaryCache] if possible, otherwise reads JSON with [getWebTypesJson]
+     * and stores it into the binary cache for the next time.
+     */
+    fun <T> readWebTypes(url: String, mapper: ObjectMapper, type: Class<T>): T {
+      val stamp: String
+      val cacheFile: File
+      if (isLocalJson(url)) {
+        val file = File(URI(url))
+        stamp = "${file.path}:${file.length()}:${file.lastModified()}"
+        cacheFile = getBinaryCacheFile(file.nameWithoutExtension)
+      }
+      else {
+        stamp = url
+        cacheFile = getBinaryCacheFile(File(url).nameWithoutExtension)
+      }
+
+      VueWebTypesBinaryCache.createParser(cacheFile, stamp)?.let { parser ->
+        try {
+          return mapper.readValue(parser, type)
+        }
+        catch (e: IOException) {
+          LOG.info("Cannot restore web-types from cache $cacheFile", e)
+          FileUtil.delete(cacheFile)
+        }
+      }
+
+      val tree = getWebTypesJson(url).use { mapper.readTree(it) }
+      try {
+        VueWebTypesBinaryCache.save(cacheFile, stamp, tree)
+      }
+      catch (e: IOException) {
+        LOG.info("Cannot save web-types cache $cacheFile", e)
+      }
+      return mapper.treeToValue(tree, type)
+    }
+
     fun getWebTypesJson(url: String): InputStream {
-      if (url.endsWith("json") && url.startsWith(StandardFileSystems.FILE_PROTOCOL + ":")) {
+      if (isLocalJson(url)) {
         return FileInputStream(File(URI(url)))
       }
       val downloadedJson = File(PathManager.getSystemPath(),
@@ -33,6 +73,10 @@ class VueWebTypesJsonsCache {
       return FileInputStream(downloadedJson)
     }
 
+    private fun isLocalJson(url: String) = url.endsWith("json") && url.startsWith(StandardFileSystems.FILE_PROTOCOL + ":")
+
+    private fun getBinaryCacheFile(name: String) = File(PathManager.getSystemPath(), "web-types/binary/$name.bin")
+
     private fun downloadWebTypesJson(tarball: String): String? {
       val contents = HttpRequests.request(tarball).readBytes(null)
       val bi = BufferedInputStream(ByteArrayInputStream(contents))
@@ -228,8 +228,7 @@ class VueWebTypesRegistry : PersistentStateComponent<Element> {
   }
 
   private fun buildPackageWebTypes(fileUrl: String?): WebTypes? {
-    val webTypesJson = createObjectMapper().readValue(
-      VueWebTypesJsonsCache.getWebTypesJson(fileUrl ?: return null), WebTypes::class.java)
+    val webTypesJson = VueWebTypesJsonsCache.readWebTypes(fileUrl ?: return null, createObjectMapper(), WebTypes::class.java)
     if (webTypesJson.framework != WebTypes.Framework.VUE) {
       return null
     }
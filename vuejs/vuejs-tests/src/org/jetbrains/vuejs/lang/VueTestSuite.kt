@@ -52,6 +52,7 @@ import org.junit.runners.Suite
   VueExtractComponentTest::class,
   VueDocumentationTest::class,
   VueWebTypesDocumentationTest::class,
+  VueWebTypesBinaryCacheTest::class,
   VueCreateTsVariableTest::class,
   VueCopyrightTest::class,
   VueAutoPopupTest::class,
@@ -0,0 +1,55 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.vuejs.lang
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.intellij.openapi.application.PathManager
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.UsefulTestCase
+import org.jetbrains.vuejs.model.webtypes.registry.VueWebTypesBinaryCache
+import java.io.File
+import java.io.IOException
+
+class VueWebTypesBinaryCacheTest : UsefulTestCase() {
+
+  fun testRoundTrip() {
+    val json = File(PathManager.getHomePath(), "contrib/vuejs/resources/web-types/vue@2.5.0.web-types.json")
+    val tree = ObjectMapper().readTree(json)
+    val cacheFile = FileUtil.createTempFile("vue", ".bin", true)
+
+    VueWebTypesBinaryCache.save(cacheFile, "stamp", tree)
+    assertEquals(tree, load(cacheFile, "stamp"))
+  }
+
+  fun testValues() {
+    val tree = ObjectMapper().readTree("""{"a": [1, 9999999999, 1.5, true, false, null, "", "ü"], "b": {"a": "a"}}""")
+    val cacheFile = FileUtil.createTempFile("vue", ".bin", true)
+
+    VueWebTypesBinaryCache.save(cacheFile, "stamp", tree)
+    assertEquals(tree, load(cacheFile, "stamp"))
+  }
+
+  fun testStampMismatch() {
+    val cacheFile = FileUtil.createTempFile("vue", ".bin", true)
+
+    VueWebTypesBinaryCache.save(cacheFile, "old", ObjectMapper().readTree("""{"name": "vue"}"""))
+    assertNull(VueWebTypesBinaryCache.createParser(cacheFile, "new"))
+  }
+
+  fun testCorruptedFile() {
+    val cacheFile = FileUtil.createTempFile("vue", ".bin", true)
+
+    VueWebTypesBinaryCache.save(cacheFile, "stamp", ObjectMapper().readTree("""{"name": "vue", "tags": ["a", "b"]}"""))
+    cacheFile.writeBytes(cacheFile.readBytes().copyOf(cacheFile.length().toInt() - 3))
+    try {
+      load(cacheFile, "stamp")
+      fail("Truncated cache should not be read")
+    }
+    catch (e: IOException) {
+      // expected
+    }
+  }
+
+  private fun load(cacheFile: File, stamp: String): JsonNode? =
+    VueWebTypesBinaryCache.createParser(cacheFile, stamp)?.let { ObjectMapper().readTree<JsonNode>(it) }
+}